@@ -1,6 +1,23 @@
 package com.kthisiscvpv;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
 import com.kthisiscvpv.mcdonlads.McDonalds;
+import com.kthisiscvpv.mcdonlads.RosterWatcher;
+import com.kthisiscvpv.mcdonlads.WorkloadGenerator;
+import com.kthisiscvpv.mcdonlads.data.ColumnarRoster;
+import com.kthisiscvpv.mcdonlads.data.Day;
+import com.kthisiscvpv.mcdonlads.data.OffHeapSchedule;
+import com.kthisiscvpv.mcdonlads.data.RosterCSV;
+import com.kthisiscvpv.mcdonlads.data.RosterParser;
+import com.kthisiscvpv.mcdonlads.data.RosterXML;
+import com.kthisiscvpv.mcdonlads.data.ScheduleFormatException;
+import com.kthisiscvpv.mcdonlads.data.ScheduleParser;
+import com.kthisiscvpv.mcdonlads.server.ScheduleServer;
 
 /**
  * The Main Program Launcher for McDonlad's Scheduling Interface
@@ -11,9 +28,185 @@ public class Main {
 
     /**
      * Main Program Intilization
-     * @param args Arguments run in Command Prompt
+     * @param args Arguments run in Command Prompt. "--server [port]" starts the HTTP scheduling service instead of the console. "--watch" reloads the employees file whenever another program changes it. "--generate <count> [employees file] [schedule file] [--seed <seed>]" writes a generated roster and demand instead. "--large <employees file> <schedule file> [results file]" schedules a roster too large for the console outside of the heap, mapping the results to a file if one is given.
      */
     public static void main(String[] args) {
-        new McDonalds(); // Launch McDonlads Instance
+        boolean server = false;
+        boolean watch = false;
+        boolean large = false;
+        int port = ScheduleServer.DEFAULT_PORT;
+        int generate = -1; // Amount of employees to generate, -1 to not generate
+        long seed = WorkloadGenerator.DEFAULT_SEED;
+        List<String> files = new ArrayList<String>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--server")) {
+                server = true;
+                if (i + 1 < args.length && args[i + 1].matches("-?\\d+")) { // The port is optional
+                    Long value = Main.parseNumber(args[++i], 0, 65535);
+                    if (value == null) {
+                        Main.printUsage("Please Specify the Port as a Number from 0 to 65535!");
+                        return;
+                    }
+                    port = value.intValue();
+                }
+            } else if (args[i].equals("--watch")) {
+                watch = true;
+            } else if (args[i].equals("--large")) {
+                large = true;
+            } else if (args[i].equals("--generate")) {
+                Long value = i + 1 < args.length ? Main.parseNumber(args[++i], 0, WorkloadGenerator.MAX_COUNT) : null;
+                if (value == null) {
+                    Main.printUsage("Please Specify the Amount of Employees to Generate as a Number from 0 to " + WorkloadGenerator.MAX_COUNT + "!");
+                    return;
+                }
+                generate = value.intValue();
+            } else if (args[i].equals("--seed")) {
+                Long value = i + 1 < args.length ? Main.parseNumber(args[++i], Long.MIN_VALUE, Long.MAX_VALUE) : null;
+                if (value == null) {
+                    Main.printUsage("Please Specify the Seed to Generate with as a Whole Number!");
+                    return;
+                }
+                seed = value;
+            } else if (args[i].startsWith("--")) {
+                Main.printUsage("Unknown option: " + args[i]);
+                return;
+            } else {
+                files.add(args[i]);
+            }
+        }
+
+        if (generate >= 0) {
+            File employeesFile = new File(files.size() > 0 ? files.get(0) : "EmployeesGenerated.txt"); // Never the real employees file unless asked for
+            File scheduleFile = new File(files.size() > 1 ? files.get(1) : "ScheduleGenerated.txt");
+            try {
+                WorkloadGenerator generator = new WorkloadGenerator(generate, seed);
+                long startTime = System.currentTimeMillis();
+                generator.writeEmployees(employeesFile);
+                WorkloadGenerator.writeDemand(scheduleFile, generator.getDemand());
+                System.out.println("Generated " + generate + " Employees into " + employeesFile.getPath() + " and their Demand into " + scheduleFile.getPath() + " in " + (System.currentTimeMillis() - startTime) + "ms.");
+            } catch (IOException e) {
+                System.out.println("Unable to Write the Generated Files!");
+                e.printStackTrace();
+            }
+            return;
+        }
+
+        if (large) {
+            if (files.size() < 2) {
+                Main.printUsage("Please Specify the Employees File and the Schedule Input File to Schedule!");
+                return;
+            }
+            Main.scheduleLarge(new File(files.get(0)), new File(files.get(1)), files.size() > 2 ? new File(files.get(2)) : null);
+            return;
+        }
+
+        McDonalds roster = new McDonalds(false); // Loads the employees file without the console menu
+        if (watch) {
+            try {
+                new RosterWatcher(roster, new File(McDonalds.EMPLOYEES_FILE_PATH)).start();
+            } catch (IOException e) {
+                System.out.println("Unable to Watch the Employees File for Changes!");
+                e.printStackTrace();
+            }
+        }
+
+        if (server) {
+            try {
+                ScheduleServer scheduleServer = new ScheduleServer(roster, roster.getScheduleCache(), port);
+                scheduleServer.start();
+                System.out.println("McDonlads Scheduling Service Listening on http://" + scheduleServer.getAddress().getHostString() + ":" + scheduleServer.getAddress().getPort() + "/");
+            } catch (IOException e) {
+                System.out.println("Unable to Start the McDonlads Scheduling Service!");
+                e.printStackTrace();
+            }
+            return;
+        }
+
+        roster.runConsole(); // Launch McDonlads Instance
+    }
+
+    /**
+     * Parses a number out of an argument
+     * @param text the argument
+     * @param min the smallest number allowed
+     * @param max the largest number allowed
+     * @return the number, or null if the argument is not a whole number or is out of range
+     */
+    private static Long parseNumber(String text, long min, long max) {
+        try {
+            long value = Long.parseLong(text);
+            return value >= min && value <= max ? value : null;
+        } catch (NumberFormatException e) { // Not a number, or too large for a long
+            return null;
+        }
+    }
+
+    /**
+     * Tells the user what was wrong with the arguments and how the program is run
+     * @param problem the problem with the arguments
+     */
+    private static void printUsage(String problem) {
+        System.out.println(problem);
+        System.out.println("Usage: java com.kthisiscvpv.Main [--server [port]] [--watch]");
+        System.out.println("       java com.kthisiscvpv.Main --generate <count> [employees file] [schedule file] [--seed <seed>]");
+        System.out.println("       java com.kthisiscvpv.Main --large <employees file> <schedule file> [results file]");
+    }
+
+    /**
+     * Schedules a roster that is too large to keep as Employee objects, and prints the hours and pay of the first few employees
+     * The employees are read into columns and scheduled by an OffHeapSchedule, so the heap only grows with the distinct names and addresses.
+     * @param employeesFile the employees file, read straight into columns if it is a CSV file
+     * @param scheduleFile the schedule input file
+     * @param resultsFile file to map the schedule and its results to, null to keep them in a direct buffer
+     */
+    private static void scheduleLarge(File employeesFile, File scheduleFile, File resultsFile) {
+        try {
+            long startTime = System.currentTimeMillis();
+            ColumnarRoster roster;
+            if (RosterCSV.isCSVFile(employeesFile)) {
+                roster = RosterCSV.readColumnar(employeesFile);
+            } else if (RosterXML.isXMLFile(employeesFile)) { // Other formats are parsed into employees first, read directly so that the roster is only held once
+                roster = ColumnarRoster.of(RosterXML.read(employeesFile));
+            } else {
+                roster = ColumnarRoster.of(RosterParser.read(employeesFile));
+            }
+            int[][] demand = ScheduleParser.parseDemand(Files.readAllBytes(scheduleFile.toPath()));
+            OffHeapSchedule schedule = resultsFile != null ? OffHeapSchedule.of(roster, demand, resultsFile) : OffHeapSchedule.of(roster, demand);
+
+            if (!schedule.solve()) { // Check if the schedule has been invalidated
+                System.out.println("The algorithm has failed to generate the appropriate schedule!");
+                for (String shortage : schedule.getShortages()) {
+                    System.out.println(shortage);
+                }
+                return;
+            }
+            schedule.force(); // Writes the results out to the results file, if there is one
+
+            long totalHours = 0;
+            long totalPay = 0;
+            OffHeapSchedule.Cursor cursor = schedule.cursor();
+            System.out.println("Employee Wage Information: ");
+            for (int i = 0; i < schedule.size(); i++) {
+                cursor.moveTo(i);
+                int daysWorked = 0;
+                for (Day day : Day.values()) {
+                    if (cursor.getAssignedMask(day) != 0) {
+                        daysWorked++;
+                    }
+                }
+                long pay = roster.getPayCents(i, cursor.getHoursWorked(), daysWorked);
+                totalHours += cursor.getHoursWorked();
+                totalPay += pay;
+                if (i < 10) { // Only the first few employees are listed, the roster can hold millions
+                    System.out.println("\t[Employee ID #" + roster.getEmployeeNumber(i) + " - " + (roster.isManager(i) ? "Manager" : "Worker") + "] " + roster.getLastName(i) + ", " + roster.getFirstName(i) + " -> Works for " + cursor.getHoursWorked() + " hours on " + daysWorked + " days | Pay: $" + String.format("%.2f", pay / 100.0));
+                } else if (i == 10) {
+                    System.out.println("\t... and " + (schedule.size() - 10) + " more employees");
+                }
+            }
+            System.out.println("Scheduled " + schedule.size() + " Employees for " + totalHours + " Hours in " + (System.currentTimeMillis() - startTime) + "ms. Total Pay: $" + String.format("%.2f", totalPay / 100.0) + (resultsFile != null ? ". The Results were Written to " + resultsFile.getPath() + "." : "."));
+        } catch (IOException | ScheduleFormatException e) {
+            System.out.println("An Error has Occured While Trying to Generate the Employee Schedule!");
+            e.printStackTrace();
+        }
     }
 }
@@ -1,10 +1,15 @@
 package com.kthisiscvpv.mcdonlads;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -12,14 +17,25 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Scanner;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
+import org.json.JSONException;
+import org.json.JSONWriter;
 
 import com.kthisiscvpv.mcdonlads.data.Day;
 import com.kthisiscvpv.mcdonlads.data.Employee;
+import com.kthisiscvpv.mcdonlads.data.EmployeeStore;
+import com.kthisiscvpv.mcdonlads.data.InputCache;
 import com.kthisiscvpv.mcdonlads.data.Manager;
+import com.kthisiscvpv.mcdonlads.data.RosterDiff;
+import com.kthisiscvpv.mcdonlads.data.RosterCSV;
+import com.kthisiscvpv.mcdonlads.data.RosterParser;
+import com.kthisiscvpv.mcdonlads.data.RosterSnapshot;
+import com.kthisiscvpv.mcdonlads.data.ScheduleCache;
+import com.kthisiscvpv.mcdonlads.data.ScheduleFormatException;
 import com.kthisiscvpv.mcdonlads.data.ScheduleGen;
+import com.kthisiscvpv.mcdonlads.data.ScheduleParser;
 import com.kthisiscvpv.mcdonlads.data.Worker;
+import com.kthisiscvpv.mcdonlads.events.EmployeesLoadEvent;
+import com.kthisiscvpv.mcdonlads.events.EmployeesSaveEvent;
 
 import jxl.write.WriteException;
 
@@ -27,26 +43,62 @@ import jxl.write.WriteException;
  * Main Instance Interface for the McDonlads Scheduling Program
  * @author Charles
  */
-public class McDonalds {
+public class McDonalds implements EmployeeStore {
 
     public static final String EMPLOYEES_FILE_PATH = "Employees.txt"; // Relative employees file location
+    public static final String CACHE_DIRECTORY_PROPERTY = "mcdonlads.cache.dir"; // System property naming the directory of the disk tier of the schedule cache, left unset to only cache in memory
 
     private Scanner scanner; // System input scanner
-    private List<Employee> allEmployees; // List of all employees
+    private volatile List<Employee> allEmployees; // List of all employees, swapped for a new list when the employees file is reloaded
+    private ScheduleCache scheduleCache; // Solved schedules and workbooks of earlier runs
+    private InputCache inputCache; // Parsed employees files and schedule input files, reused until the files change
+
+    private long saveCount; // Amount of saves of the employees file, so that a reload read before a save is not applied over it
+    private File savedFile; // The file of the last save along with its size, modification time and checksum right after it, null if unknown
+    private long savedLength;
+    private long savedModified;
+    private long savedChecksum;
 
     /**
      * Main constructor for the main interface of McDonlads
      */
     public McDonalds() {
+        this(true);
+    }
+
+    /**
+     * Constructor for McDonlads that loads the employees file, optionally without the console menu
+     * @param console whether to run the console menu once the employees file is loaded
+     */
+    public McDonalds(boolean console) {
         this.allEmployees = new ArrayList<Employee>(); // Defines all the employees that are managed in this console
         this.scanner = new Scanner(System.in); // Defines the system input stream that will be read through the console
 
+        String cacheDirectory = System.getProperty(McDonalds.CACHE_DIRECTORY_PROPERTY);
+        this.inputCache = new InputCache(InputCache.DEFAULT_CAPACITY);
+        this.scheduleCache = new ScheduleCache(ScheduleCache.DEFAULT_MEMORY_LIMIT, cacheDirectory != null ? new File(cacheDirectory) : null, ScheduleCache.DEFAULT_DISK_LIMIT);
+
+        File employeesFile = new File(McDonalds.EMPLOYEES_FILE_PATH);
         try {
-            this.loadEmployeesFile(new File(McDonalds.EMPLOYEES_FILE_PATH)); // Attempts to load the default configuration file, if it exists.
+            boolean fromSnapshot = this.loadEmployeesFile(employeesFile); // Attempts to load the default configuration file, if it exists.
+            if (employeesFile.exists() && !fromSnapshot) { // The file was read without an up to date snapshot, so one is written for the next launch
+                RosterSnapshot.write(employeesFile, this.allEmployees);
+            }
         } catch (FileNotFoundException ex) {
             ex.printStackTrace(); // This should never be called as error checking as null checks are done in the method above.
+        } catch (IOException ex) {
+            System.out.println("Unable to Update the Employee Snapshot File!");
         }
 
+        if (console) {
+            this.runConsole();
+        }
+    }
+
+    /**
+     * Runs the console menu until the user exits
+     */
+    public void runConsole() {
         mainLoop: while (true) { // Loops through the entire program until user exits.
             System.out.println("Welcome to the McDonlads Interface!"); // Displays the main menu.
             System.out.println("\t1: Add/Edit/Remove Employee (Worker or Manager)");
@@ -54,10 +106,11 @@ public class McDonalds {
             System.out.println("\t3: Display Specific Employee Information");
             System.out.println("\t4: Run and Display Scheduling Algorithm");
             System.out.println("\t5: Load New Employees Data File");
-            System.out.println("\t6: Exit");
+            System.out.println("\t6: Export Employees Data File");
+            System.out.println("\t7: Exit");
             System.out.print("Please select an option: ");
 
-            int selectionNumber = this.retrieveNumberInput(1, 6, "You have entered an invalid number! Please try again: ");
+            int selectionNumber = this.retrieveNumberInput(1, 7, "You have entered an invalid number! Please try again: ");
 
             if (selectionNumber == 1) { // User wants to manage employees. Shows them the user interface for doing so.
                 System.out.println("Welcome to the McDonlads Worker Interface!");
@@ -87,77 +140,46 @@ public class McDonalds {
                     System.out.print("Please Enter the Worker's Wage: ");
                     double hourlyWage = this.retrieveDoubleInput("You have entered an invalid wage! Please try again: ");
 
-                    HashMap<Day, boolean[]> availability = new HashMap<Day, boolean[]>();
-                    for (Day day : Day.values()) { // Iterates through each day of the week & ask the user for the schedule of the employee on that specific day with 24 hour ranges
-                        System.out.print("Please Enter the Worker's Available Work Hours on " + day.toString() + "(" + day.getCharacter() + ") (0hr -> 24hr): ");
-                        String workHours = scanner.nextLine();
-                        if (workHours.trim().length() == 0) { // Check that the input was valid. If the employee does not work that day, this will be null.
-                            continue;
-                        }
-
-                        String[] hoursSplit = workHours.split(" "); // Split the values based on a space
-                        boolean[] available = new boolean[24]; // Array containing boolean representations of 24 hours of the day
-
-                        for (String split : hoursSplit) { // Analyze the values that were split above
-                            if (split.contains("-")) { // Check if the value contains a 'to' sign
-                                String[] innerSplit = split.split("-"); // Split the 'to' sign to analyze start and end times
-                                try {
-                                    int start = Integer.parseInt(innerSplit[0].contains(":") ? innerSplit[0].split(":")[0] : innerSplit[0]); // We only care about the hour, thus the minute hand is ignored. This analyzes the starting hour.
-                                    int end = Integer.parseInt(innerSplit[1].contains(":") ? innerSplit[1].split(":")[0] : innerSplit[1]); // Same reason as above. This analyzes the ending hour.
-                                    for (int i = start; i < end; i++) { // Iterates through the start and ending hours.
-                                        available[i] = true; // Sets the value of the boolean array in that specific hour to true.
-                                    }
-                                } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) { // Catch a malfunctioned timing format in the split identification.
-                                    System.out.println("Unable to Identify Time Frame " + split + ". It has not been added to the scheduling."); // Notifies the user so they can make changes later on.
-                                }
-                            } else { // Input does not contain a 'to' sign. A single hour was given. This will assume a 1 hour grace period (Ex. 3:00 -> 4:00)
-                                try {
-                                    int hourParsed = Integer.parseInt(split.contains(":") ? split.split(":")[0] : split); // Parses the hour that was given.
-                                    available[hourParsed] = true; // Updates the value in the boolean array
-                                } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) { // Catch a malfunctioned timing format in the split identification.
-                                    System.out.println("Unable to Identify Time Frame " + split + ". It has not been added to the scheduling."); // Notifies the user so they can make changes later on.
-                                }
-                            }
-                        }
-
-                        availability.put(day, available); // Puts the availability information of the client on that specific date to the list above.
-                    }
+                    HashMap<Day, boolean[]> availability = this.retrieveWeeklyAvailability(); // Asks the user for the schedule of the employee on each day of the week
 
                     // Decide on which constructor to used based on whether the employee is a manager or not.
                     Employee employee = isManager ? new Manager(firstName, lastName, address, employeeNumber, hourlyWage, availability) : new Worker(firstName, lastName, address, employeeNumber, hourlyWage, availability);
-                    this.allEmployees.add(employee); // Adds the employee to the list
-                    this.sortEmployees(); // Sort the list after it has been added
-
                     try {
-                        this.saveEmployeesFile(new File(McDonalds.EMPLOYEES_FILE_PATH)); // Updates the employee list file
-                        System.out.println("You have Successfully Added " + employee.getLastName() + ", " + employee.getFirstName() + " to the Workplace!\n");
+                        if (this.addEmployee(employee)) { // Adds the employee to the list, then sorts and updates the employee list file
+                            System.out.println("You have Successfully Added " + employee.getLastName() + ", " + employee.getFirstName() + " to the Workplace!\n");
+                        } else {
+                            System.out.println("An Employee with the Employee Number " + employeeNumber + " Already Exists!\n");
+                        }
                     } catch (IOException e) { // An error has occurred while trying to update the file
                         System.out.println("An Error has Occured While Trying to Save the Employee File!");
                         e.printStackTrace();
                     }
                 } else if (selectionNumber == 2) { // User wants to remove an employee
-                    if (this.allEmployees.isEmpty()) { // Checks if whether there are any active employees or not
+                    List<Employee> employees = this.getEmployees(); // Copy of the employees, so that the index numbers stay the same while the employees file is reloaded
+                    if (employees.isEmpty()) { // Checks if whether there are any active employees or not
                         System.out.println("There are currently no employees to remove!");
                         continue mainLoop;
                     } else {
-                        for (int i = 0; i < this.allEmployees.size(); i++) { // Iterates through all the employees and give them an identification tag
-                            Employee employee = this.allEmployees.get(i);
+                        for (int i = 0; i < employees.size(); i++) { // Iterates through all the employees and give them an identification tag
+                            Employee employee = employees.get(i);
                             System.out.println("[Employee Index #" + (i + 1) + "] " + employee.getLastName() + ", " + employee.getFirstName() + ((employee instanceof Manager) ? " (Manager)" : " (Worker)"));
                         }
 
                         System.out.println();
                         System.out.print("Please Enter the Worker's Index Number to Remove (0 to Cancel): "); // Ask the user to input the number of the employee they wish to remove
-                        int employeeNumber = this.retrieveNumberInput(0, this.allEmployees.size(), "You have entered an invalid employee number! Please try again: ");
+                        int employeeNumber = this.retrieveNumberInput(0, employees.size(), "You have entered an invalid employee number! Please try again: ");
 
                         employeeNumber--; // Since we asked them for a number starting from 1, we subtract 1 since java starts at 0.
                         if (employeeNumber == -1) { // Check if the input was valid or if they just wanted to cancel.
                             continue mainLoop; // Continues to the main loop.
                         } else {
-                            Employee employee = this.allEmployees.get(employeeNumber); // Retrieves the employee they wish to remove
-                            this.allEmployees.remove(employee); // Remove that employee
+                            Employee employee = employees.get(employeeNumber); // Retrieves the employee they wish to remove
                             try {
-                                this.saveEmployeesFile(new File(McDonalds.EMPLOYEES_FILE_PATH)); // Updates the employee list file
-                                System.out.println("You have Successfully Removed " + employee.getLastName() + ", " + employee.getFirstName() + ((employee instanceof Manager) ? " (Manager)" : " (Worker)") + " from the Workplace!\n");
+                                if (this.removeEmployee(employee.getEmployeeNumber()) != null) { // Remove that employee and update the employee list file
+                                    System.out.println("You have Successfully Removed " + employee.getLastName() + ", " + employee.getFirstName() + ((employee instanceof Manager) ? " (Manager)" : " (Worker)") + " from the Workplace!\n");
+                                } else {
+                                    System.out.println("The Employee is no Longer in the Workplace!\n");
+                                }
                             } catch (IOException e) { // An error has occurred while trying to update the file
                                 System.out.println("An Error has Occured While Trying to Save the Employee File!");
                                 e.printStackTrace();
@@ -165,24 +187,26 @@ public class McDonalds {
                         }
                     }
                 } else if (selectionNumber == 3) { // User wants to edit an employee
-                    if (this.allEmployees.isEmpty()) { // Check if whether there are employees to edit
+                    List<Employee> employees = this.getEmployees(); // Copy of the employees, so that the index numbers stay the same while the employees file is reloaded
+                    if (employees.isEmpty()) { // Check if whether there are employees to edit
                         System.out.println("There are currently no employees to edit!");
                         continue mainLoop;
                     } else {
-                        for (int i = 0; i < this.allEmployees.size(); i++) { // Iterates through all the employees and give them an identification tag
-                            Employee employee = this.allEmployees.get(i);
+                        for (int i = 0; i < employees.size(); i++) { // Iterates through all the employees and give them an identification tag
+                            Employee employee = employees.get(i);
                             System.out.println("[Employee Index #" + (i + 1) + "] " + employee.getLastName() + ", " + employee.getFirstName() + ((employee instanceof Manager) ? " (Manager)" : " (Worker)"));
                         }
 
                         System.out.println();
                         System.out.print("Please Enter the Worker's Index Number to Edit (0 to Cancel): "); // Ask the user to input the number of the employee they wish to edit
-                        int employeeNumber = this.retrieveNumberInput(0, this.allEmployees.size(), "You have entered an invalid employee number! Please try again: ");
+                        int employeeNumber = this.retrieveNumberInput(0, employees.size(), "You have entered an invalid employee number! Please try again: ");
 
                         employeeNumber--; // Since we asked them for a number starting from 1, we subtract 1 since java starts at 0.
                         if (employeeNumber == -1) { // Retrieves the employee they wish to remove
                             continue mainLoop; // Continues to the main loop.
                         } else {
-                            Employee employee = this.allEmployees.get(employeeNumber); // Retrieves the employee they wish to remove
+                            int previousNumber = employees.get(employeeNumber).getEmployeeNumber();
+                            Employee employee = employees.get(employeeNumber).copy(); // Edits a copy of the employee, which replaces the employee once the edit is done
 
                             System.out.println("Welcome to the McDonlads Worker Editor!"); // Shows a menu of all the possible edits on that specific employee
                             System.out.println("\t1: Change Employee's First Name");
@@ -212,47 +236,17 @@ public class McDonalds {
                                 int newNumber = this.retrieveNumberInput("You have entered an invalid employee number! Please try again: ");
                                 employee.setEmployeeNumber(newNumber);
                             } else if (selectionNumber == 5) {
-                                HashMap<Day, boolean[]> availability = new HashMap<Day, boolean[]>();
-                                for (Day day : Day.values()) { // Iterates through each day of the week & ask the user for the schedule of the employee on that specific day with 24 hour ranges
-                                    System.out.print("Please Enter the Worker's Available Work Hours on " + day.toString() + "(" + day.getCharacter() + ") (0hr -> 24hr): ");
-                                    String workHours = scanner.nextLine();
-                                    if (workHours.trim().length() == 0) { // Check that the input was valid. If the employee does not work that day, this will be null.
-                                        continue;
-                                    }
-
-                                    String[] hoursSplit = workHours.split(" "); // Split the values based on a space
-                                    boolean[] available = new boolean[24]; // Array containing boolean representations of 24 hours of the day
-
-                                    for (String split : hoursSplit) { // Analyze the values that were split above
-                                        if (split.contains("-")) { // Check if the value contains a 'to' sign
-                                            String[] innerSplit = split.split("-"); // Split the 'to' sign to analyze start and end times
-                                            try {
-                                                int start = Integer.parseInt(innerSplit[0].contains(":") ? innerSplit[0].split(":")[0] : innerSplit[0]); // We only care about the hour, thus the minute hand is ignored. This analyzes the starting hour.
-                                                int end = Integer.parseInt(innerSplit[1].contains(":") ? innerSplit[1].split(":")[0] : innerSplit[1]); // Same reason as above. This analyzes the ending hour.
-                                                for (int i = start; i < end; i++) { // Iterates through the start and ending hours.
-                                                    available[i] = true; // Sets the value of the boolean array in that specific hour to true.
-                                                }
-                                            } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) { // Catch a malfunctioned timing format in the split identification.
-                                                System.out.println("Unable to Identify Time Frame " + split + ". It has not been added to the scheduling."); // Notifies the user so they can make changes later on.
-                                            }
-                                        } else { // Input does not contain a 'to' sign. A single hour was given. This will assume a 1 hour grace period (Ex. 3:00 -> 4:00)
-                                            try {
-                                                int hourParsed = Integer.parseInt(split.contains(":") ? split.split(":")[0] : split); // Parses the hour that was given.
-                                                available[hourParsed] = true; // Updates the value in the boolean array
-                                            } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) { // Catch a malfunctioned timing format in the split identification.
-                                                System.out.println("Unable to Identify Time Frame " + split + ". It has not been added to the scheduling."); // Notifies the user so they can make changes later on.
-                                            }
-                                        }
-                                    }
-
-                                    availability.put(day, available); // Puts the availability information of the client on that specific date to the list above.
-                                }
-
+                                HashMap<Day, boolean[]> availability = this.retrieveWeeklyAvailability(); // Asks the user for the schedule of the employee on each day of the week
                                 employee.setWeeklySchedule(availability); // Updates the employee's weekly schedule based on the new availability timetable.
                             }
                             try {
-                                this.saveEmployeesFile(new File(McDonalds.EMPLOYEES_FILE_PATH)); // Updates the employee list file
-                                System.out.println("You have Successfully Updated " + employee.getLastName() + ", " + employee.getFirstName() + ((employee instanceof Manager) ? " (Manager)" : " (Worker)") + "'s Data in the Workplace!\n");
+                                if (this.replaceEmployee(previousNumber, employee)) { // Replaces the employee and updates the employee list file
+                                    System.out.println("You have Successfully Updated " + employee.getLastName() + ", " + employee.getFirstName() + ((employee instanceof Manager) ? " (Manager)" : " (Worker)") + "'s Data in the Workplace!\n");
+                                } else if (this.getEmployee(previousNumber) == null) {
+                                    System.out.println("The Employee is no Longer in the Workplace!\n");
+                                } else {
+                                    System.out.println("An Employee with the Employee Number " + employee.getEmployeeNumber() + " Already Exists!\n");
+                                }
                             } catch (IOException e) { // An error has occurred while trying to update the file
                                 System.out.println("An Error has Occured While Trying to Save the Employee File!");
                                 e.printStackTrace();
@@ -277,20 +271,21 @@ public class McDonalds {
                 }
                 System.out.println(); // Spacer
             } else if (selectionNumber == 3) { // Users wants specific information on one employee
-                for (int i = 0; i < this.allEmployees.size(); i++) { // Iterates through all the employees
-                    Employee employee = this.allEmployees.get(i); // Assign each employee with a specific index number
+                List<Employee> employees = this.getEmployees(); // Copy of the employees, so that the index numbers stay the same while the employees file is reloaded
+                for (int i = 0; i < employees.size(); i++) { // Iterates through all the employees
+                    Employee employee = employees.get(i); // Assign each employee with a specific index number
                     System.out.println("[Employee Index #" + (i + 1) + "] " + employee.getLastName() + ", " + employee.getFirstName() + ((employee instanceof Manager) ? " (Manager)" : " (Worker)"));
                 }
 
                 System.out.println(); // Asks the user for the index number of the specific employee they would like to edit
                 System.out.print("Please Enter the Worker's Index Number to View (0 to Cancel): ");
-                int employeeNumber = this.retrieveNumberInput(0, this.allEmployees.size(), "You have entered an invalid employee number! Please try again: ");
+                int employeeNumber = this.retrieveNumberInput(0, employees.size(), "You have entered an invalid employee number! Please try again: ");
 
                 employeeNumber--; // Since we started to ask at 1, we minus 1 to go back to 0
                 if (employeeNumber == -1) { // Check if input was valid if they just wanted to cancel
                     continue mainLoop; // Continues back to the main loop
                 } else {
-                    Employee employee = this.allEmployees.get(employeeNumber); // Retrieves the employee they wish to see
+                    Employee employee = employees.get(employeeNumber); // Retrieves the employee they wish to see
                     boolean isManager = employee instanceof Manager; // Check if whether the employees was a manager
                     System.out.println("Displaying Information on Requested Employee:"); // Displays the employee's information
                     System.out.println("\tEmployee ID: " + employee.getEmployeeNumber());
@@ -305,10 +300,12 @@ public class McDonalds {
                 String inputLoc = this.scanner.nextLine(); // Retrieves the input
                 File inputFile = new File(inputLoc); // Defines the file at the input location
                 try {
-                    ScheduleGen generator = new ScheduleGen(inputFile, this.allEmployees); // Attempts to generate a schedule based on the file
+                    int[][] demand = this.inputCache.getDemand(inputFile); // Reads the file, unless it has not changed since the last schedule
+                    List<Employee> employees = this.getEmployees(); // Copy of the employees, so that the schedule and the wages are of the same employees
+                    ScheduleGen generator = new ScheduleGen(demand, ScheduleGen.getDefaultOutputFile(), employees, this.scheduleCache); // Attempts to generate a schedule based on the file
                     System.out.println(); // Schedule was successfully generated! Displays the wage information of each employee based on the schedule
                     System.out.println("Employee Wage Information: "); // Title
-                    for (Employee employee : this.allEmployees) { // Iterates through each of the employees
+                    for (Employee employee : employees) { // Iterates through each of the employees
                         if (employee instanceof Manager) { // Check if the employee is a manger (as their output will be different)
                             System.out.println("\t[Employee ID #" + employee.getEmployeeNumber() + " - Manager] " + employee.getLastName() + ", " + employee.getFirstName() + " -> Works for " + generator.getHoursWorked(employee) + " hours | Wage: $" + employee.getPayInfo() + "/year");
                         } else { // Employee is a worker
@@ -325,7 +322,7 @@ public class McDonalds {
                 }
 
                 System.out.println();
-            } else if (selectionNumber == 5) { // User wants to load another existing employees file into the program (which will override any existing ones)
+            } else if (selectionNumber == 5) { // User wants to load another existing employees file into the program, replacing or merging with the existing ones
                 System.out.print("Please enter the File Location of the Input File: "); // Asks the user for the location of the input file
                 String inputLoc = this.scanner.nextLine(); // Retrieves the user input
                 File inputFile = new File(inputLoc); // Declares the file at the location of the input file
@@ -333,8 +330,32 @@ public class McDonalds {
                     System.out.println("The Specified File does not exist!"); // Tells the user that the file exists
                 } else {
                     try { // Tries to load the file
-                        this.loadEmployeesFile(inputFile); // Load the input file into the system
-                        this.saveEmployeesFile(new File(McDonalds.EMPLOYEES_FILE_PATH)); // Save the input file into the original save path
+                        List<Employee> employees = this.inputCache.getEmployees(inputFile); // Files ending in .csv or .xml are read as such, anything else as JSON. Only replaces the current employees once the whole file has been read.
+
+                        RosterDiff.Policy policy = RosterDiff.Policy.REPLACE;
+                        if (!this.allEmployees.isEmpty()) { // Asks how to merge the file into the current employees
+                            System.out.println("How Should the Employees of the File be Merged with the Current Employees?");
+                            System.out.println("\t1: Replace All Current Employees");
+                            System.out.println("\t2: Add New Employees and Update Existing Employees");
+                            System.out.println("\t3: Only Add New Employees");
+                            System.out.print("Please select an option: ");
+                            policy = RosterDiff.Policy.values()[this.retrieveNumberInput(1, 3, "You have entered an invalid number! Please try again: ") - 1];
+                        }
+
+                        RosterDiff diff = this.mergeEmployees(employees, policy);
+                        System.out.println("Differences: " + diff);
+                        int shown = 0; // Only the first few changes are listed, the files can hold many thousands
+                        for (RosterDiff.Change change : diff.getChanges()) {
+                            if (++shown > 10) {
+                                System.out.println("\t... and " + (diff.getChanges().size() - 10) + " more changes");
+                                break;
+                            }
+                            System.out.println("\t" + change);
+                        }
+
+                        if (diff.isApplied()) {
+                            this.saveEmployeesFile(new File(McDonalds.EMPLOYEES_FILE_PATH)); // Save the merged employees into the original save path
+                        }
                         System.out.println("The Employees List has been Successfully Updated with the New Configurations!");
                     } catch (IOException e) { // Something went wrong while trying to read the new input file
                         System.out.println("An Error has Occured While Trying to Load the Employee File!");
@@ -342,7 +363,23 @@ public class McDonalds {
                     }
                 }
                 System.out.println(); // Spacer 
-            } else if (selectionNumber == 6) { // Users wants to close the program
+            } else if (selectionNumber == 6) { // User wants to write the current employees out to another file
+                System.out.print("Please enter the File Location of the Output File: "); // Asks the user for the location of the output file
+                String outputLoc = this.scanner.nextLine(); // Retrieves the user input
+                File outputFile = new File(outputLoc); // Declares the file at the location of the output file
+                try {
+                    if (RosterCSV.isCSVFile(outputFile)) { // The format is picked the same way as when loading
+                        RosterCSV.write(outputFile, this.getEmployees());
+                    } else {
+                        this.writeEmployeesJSON(outputFile);
+                    }
+                    System.out.println("The Employees List has been Successfully Exported to " + outputFile.getPath() + "!");
+                } catch (IOException e) { // Something went wrong while trying to write the output file
+                    System.out.println("An Error has Occured While Trying to Export the Employee File!");
+                    e.printStackTrace();
+                }
+                System.out.println(); // Spacer
+            } else if (selectionNumber == 7) { // Users wants to close the program
                 System.out.println("Goodbye! Closing McDonlads Interface...");
                 break mainLoop; // Break the main loop
             }
@@ -456,45 +493,76 @@ public class McDonalds {
         }
     }
 
+    /**
+     * Retrieves the availability of an employee for each day of the week from the system scanner
+     * @return map of the availability of each day of the week
+     */
+    public HashMap<Day, boolean[]> retrieveWeeklyAvailability() {
+        HashMap<Day, boolean[]> availability = new HashMap<Day, boolean[]>();
+        for (Day day : Day.values()) { // Iterates through each day of the week & ask the user for the schedule of the employee on that specific day with 24 hour ranges
+            System.out.print("Please Enter the Worker's Available Work Hours on " + day.toString() + "(" + day.getCharacter() + ") (0hr -> 24hr): ");
+            while (true) {
+                String workHours = this.scanner.nextLine();
+                try {
+                    availability.put(day, ScheduleParser.toAvailability(ScheduleParser.parseRanges(workHours))); // A blank line means that the employee does not work that day
+                    break;
+                } catch (ScheduleFormatException ex) { // Catch a malfunctioned timing format and let the user try again
+                    System.out.print("Unable to Identify Time Frame! " + ex.getMessage() + " Please try again: ");
+                }
+            }
+        }
+        return availability;
+    }
+
     /**
      * Load the employee data from an input file
      * @param file the input file
+     * @return true if the employees were read from an up to date snapshot of the file
      * @throws FileNotFoundException the file does not exist or something went wrong
      */
-    public void loadEmployeesFile(File file) throws FileNotFoundException {
+    public boolean loadEmployeesFile(File file) throws FileNotFoundException {
+        EmployeesLoadEvent event = new EmployeesLoadEvent(); // Flight Recorder event timing the read and parse of the file
+        event.begin();
+        long bytesRead = file.length(); // Amount of data that the employees were read from
+
         try {
             this.allEmployees.clear(); // Clears the current employee list
             if (!file.exists()) { // Check that the file does not exist
-                return; // Stop this method as nothing will be read
+                return false; // Stop this method as nothing will be read
             }
 
-            StringBuilder rawJSON = new StringBuilder(); // StringBuilder instance to append all the information in the file to
-            Scanner scanner = new Scanner(file); // Scan the file
-            while (scanner.hasNextLine()) { // Iterates as long as the scanner has another thing to read
-                rawJSON.append(scanner.nextLine()); // Append the next line to the string builder instance
-            }
-            scanner.close(); // Closes the scanner
-
-            if (rawJSON.toString().length() <= 2) { // Checks that the file that is valid by doing a simplistic length check ('[]' -> JSONObject, length 2)
-                return; // Stop this method as nothing will be read
+            try {
+                RosterSnapshot snapshot = RosterSnapshot.open(file); // Checks for an up to date binary snapshot of the file
+                if (snapshot != null) {
+                    this.allEmployees = snapshot.asList(); // Employees are only created as they are accessed. The snapshot was written in sorted order.
+                    bytesRead = RosterSnapshot.getSnapshotFile(file).length();
+                    return true;
+                }
+            } catch (IOException e) { // The snapshot could not be mapped, the file itself is read instead
+                e.printStackTrace();
             }
 
-            JSONObject mainBracket = new JSONObject(rawJSON.toString()); // Converts the data to a JSONObject
+            String rawJSON = new String(Files.readAllBytes(file.toPath()), Charset.defaultCharset()); // Reads the whole file at once, in the same charset that it is written with
 
-            JSONArray managers = mainBracket.getJSONArray("managers_info"); // Retrieves the array of managers from the JSONObject
-            for (int i = 0; i < managers.length(); i++) { // Iterates through the array of managers
-                this.allEmployees.add(new Manager(managers.getJSONObject(i))); // Append the managers to the list of employees
+            if (rawJSON.trim().length() <= 2) { // Checks that the file that is valid by doing a simplistic length check ('[]' -> JSONObject, length 2)
+                return false; // Stop this method as nothing will be read
             }
 
-            JSONArray workers = mainBracket.getJSONArray("workers_info"); // Retrieves the array of workers from the JSONObject
-            for (int i = 0; i < workers.length(); i++) { // Iterates through the array of workers
-                this.allEmployees.add(new Worker(workers.getJSONObject(i))); // Append the workers to the list of employees
-            }
+            this.allEmployees = RosterParser.parse(rawJSON); // Parses the managers and workers across all the cores, managers first
 
             this.sortEmployees(); // Sort the new list of employees
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             e.printStackTrace(); // Something that shouldn't have gone wrong, went wrong.
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = file.getPath();
+                event.rosterSize = this.allEmployees.size();
+                event.bytesRead = bytesRead;
+                event.commit();
+            }
         }
+        return false;
     }
 
     /**
@@ -502,33 +570,92 @@ public class McDonalds {
      * @param file the output file
      * @throws IOException file writing error has occured
      */
-    public void saveEmployeesFile(File file) throws IOException {
-        PrintWriter pw = new PrintWriter(new FileWriter(file)); // PrintWriter for the output file
+    public synchronized void saveEmployeesFile(File file) throws IOException {
+        EmployeesSaveEvent event = new EmployeesSaveEvent(); // Flight Recorder event timing the serialization and write of the file
+        event.begin();
 
-        JSONObject divider = new JSONObject(); // Data will be stored in JSON. This JSONObject will placehold both managers and workers.
+        this.saveCount++; // Counted before the file is written, a reload that read the file before now is dropped
+        this.savedFile = null;
+        this.writeEmployeesJSON(file); // Writes the employees in the JSON format that is loaded on startup
+        this.sortEmployees(); // plain old force (safeguard) sorting after every input / output stream closes
 
-        JSONArray managers = new JSONArray(); // JSONArray declaration to store all the manager data
-        for (Manager manager : this.getAllManagers()) { // Iterates through all the managers
-            managers.put(manager.toJSON()); // Append the JSONArray with the manager's data
+        try {
+            long checksum = RosterSnapshot.write(file, this.allEmployees); // Writes the binary snapshot alongside the file for a faster startup
+            this.savedFile = file.getAbsoluteFile();
+            this.savedLength = file.length();
+            this.savedModified = file.lastModified();
+            this.savedChecksum = checksum;
+        } catch (IOException e) { // The snapshot is optional. An outdated snapshot is never read as it no longer matches the file.
+            System.out.println("Unable to Update the Employee Snapshot File!");
         }
-        divider.put("managers_info", managers); // Append the JSONArray to the main placeholder
 
-        JSONArray workers = new JSONArray(); // JSONArray declaration to store all the worker'es data
-        for (Worker worker : this.getAllWorkers()) { // Iterates through all the workers
-            workers.put(worker.toJSON()); // Append the JSONArray with the worker's data
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = file.getPath();
+            event.rosterSize = this.allEmployees.size();
+            event.bytesWritten = file.length();
+            event.commit();
         }
-        divider.put("workers_info", workers); // Append the JSONArray to the main placeholder
+    }
 
-        pw.println(divider.toString(4)); // Prints the placeholder onto the file using an indentation of 4 spaces
-        pw.close(); // closes the print writer
-        this.sortEmployees(); // plain old force (safeguard) sorting after every input / output stream closes
+    /**
+     * Write the employee data into a file in JSON format, without a snapshot
+     * @param file the output file
+     * @throws IOException file writing error has occured
+     */
+    public void writeEmployeesJSON(File file) throws IOException {
+        McDonalds.writeEmployeesJSON(file, this.getAllManagers(), this.getAllWorkers());
+    }
+
+    /**
+     * Write employees into a file in the JSON format that is loaded on startup, one employee at a time
+     * The employees are never all held at once, so they may be created as they are iterated over.
+     * @param file the output file
+     * @param managers the managers, in the order they should be written
+     * @param workers the workers, in the order they should be written
+     * @throws IOException file writing error has occured
+     */
+    public static void writeEmployeesJSON(File file, Iterable<? extends Employee> managers, Iterable<? extends Employee> workers) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING); // Channel for the output file
+        Writer writer = new BufferedWriter(Channels.newWriter(channel, Charset.defaultCharset().newEncoder(), -1), 65536); // The same charset that the file is read back with
+        try {
+            JSONWriter json = new JSONWriter(writer); // Each employee is written straight to the file, the data is never held as a single JSONObject or string
+            json.object(); // Opens the main placeholder for both managers and workers
+
+            json.key("managers_info").array(); // Opens the array of manager data
+            for (Employee manager : managers) { // Iterates through all the managers
+                manager.write(json); // Writes the manager's data
+            }
+            json.endArray();
+
+            json.key("workers_info").array(); // Opens the array of worker data
+            for (Employee worker : workers) { // Iterates through all the workers
+                worker.write(json); // Writes the worker's data
+            }
+            json.endArray();
+
+            json.endObject(); // Closes the main placeholder
+            writer.write(System.lineSeparator()); // Ends the file with a new line, as before
+        } catch (JSONException e) { // Writer errors are wrapped by the JSONWriter
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e);
+        } finally {
+            writer.close(); // Flushes and closes the writer along with the channel
+        }
     }
 
     /**
      * Sort the everchanging list of employees in this object based on their employee number (instead of their wages in their default superclass)
      */
-    public void sortEmployees() {
-        Collections.sort(this.allEmployees, new Comparator<Employee>() { // Calls the sort method with a new comparator
+    public synchronized void sortEmployees() {
+        McDonalds.sortEmployees(this.allEmployees);
+    }
+
+    /**
+     * Sort a list of employees based on their employee number
+     * @param employees the list to sort
+     */
+    private static void sortEmployees(List<Employee> employees) {
+        Collections.sort(employees, new Comparator<Employee>() { // Calls the sort method with a new comparator
             @Override
             public int compare(Employee a, Employee b) {
                 return Integer.compare(a.getEmployeeNumber(), b.getEmployeeNumber()); // Compare and return the client's employee numbers, lowest to highest.
@@ -536,6 +663,148 @@ public class McDonalds {
         });
     }
 
+    @Override
+    public synchronized List<Employee> getEmployees() {
+        return new ArrayList<Employee>(this.allEmployees); // The list is always kept sorted by employee number
+    }
+
+    @Override
+    public synchronized Employee getEmployee(int employeeNumber) {
+        for (Employee employee : this.allEmployees) {
+            if (employee.getEmployeeNumber() == employeeNumber) {
+                return employee;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized boolean addEmployee(Employee employee) throws IOException {
+        if (this.getEmployee(employee.getEmployeeNumber()) != null) { // The employee number is taken
+            return false;
+        }
+        this.allEmployees.add(employee);
+        this.saveEmployeesFile(new File(McDonalds.EMPLOYEES_FILE_PATH)); // Sorts and updates the employee list file
+        return true;
+    }
+
+    @Override
+    public synchronized Employee putEmployee(Employee employee) throws IOException {
+        Employee previous = null;
+        for (int i = 0; i < this.allEmployees.size(); i++) { // Replaces the employee with the same number, if there is one
+            if (this.allEmployees.get(i).getEmployeeNumber() == employee.getEmployeeNumber()) {
+                previous = this.allEmployees.set(i, employee);
+                break;
+            }
+        }
+        if (previous == null) {
+            this.allEmployees.add(employee);
+        }
+        this.saveEmployeesFile(new File(McDonalds.EMPLOYEES_FILE_PATH)); // Sorts and updates the employee list file
+        return previous;
+    }
+
+    @Override
+    public synchronized Employee removeEmployee(int employeeNumber) throws IOException {
+        Employee employee = this.getEmployee(employeeNumber);
+        if (employee != null) {
+            this.allEmployees.remove(employee);
+            this.saveEmployeesFile(new File(McDonalds.EMPLOYEES_FILE_PATH)); // Updates the employee list file
+        }
+        return employee;
+    }
+
+    /**
+     * Replaces an employee with an edited copy, which may have a different employee number
+     * @param employeeNumber the employee number of the employee to replace
+     * @param employee the edited employee
+     * @return true if the employee was replaced, false if there is no such employee or the new employee number is taken by another employee
+     * @throws IOException file writing error has occured
+     */
+    public synchronized boolean replaceEmployee(int employeeNumber, Employee employee) throws IOException {
+        Employee previous = this.getEmployee(employeeNumber);
+        if (previous == null || (employee.getEmployeeNumber() != employeeNumber && this.getEmployee(employee.getEmployeeNumber()) != null)) {
+            return false;
+        }
+        this.allEmployees.set(this.allEmployees.indexOf(previous), employee);
+        this.saveEmployeesFile(new File(McDonalds.EMPLOYEES_FILE_PATH)); // Sorts and updates the employee list file
+        return true;
+    }
+
+    /**
+     * Replaces the employees with those of a newly read roster, keeping the employees that did not change
+     * The employees file is not saved, as the employees came from it.
+     * @param employees the employees of the new roster
+     * @param saveCount the count of saves from before the roster was read
+     * @return the differences that were applied, or null if the employees file was saved since and the roster is older than the current employees
+     */
+    public synchronized RosterDiff applyEmployees(List<Employee> employees, long saveCount) {
+        if (saveCount != this.saveCount) {
+            return null;
+        }
+        return this.mergeEmployees(employees, RosterDiff.Policy.REPLACE);
+    }
+
+    /**
+     * Gets the amount of times the employees file has been saved
+     * @return the count of saves
+     */
+    public synchronized long getSaveCount() {
+        return this.saveCount;
+    }
+
+    /**
+     * Checks whether a file is still exactly as the last save left it, without parsing it
+     * @param file the file to check
+     * @return true if the file was the last one saved and has kept its size, modification time and contents since
+     * @throws IOException the file could not be read
+     */
+    public boolean isSavedFile(File file) throws IOException {
+        long length, lastModified, checksum;
+        synchronized (this) {
+            if (this.savedFile == null || !this.savedFile.equals(file.getAbsoluteFile())) {
+                return false;
+            }
+            length = this.savedLength;
+            lastModified = this.savedModified;
+            checksum = this.savedChecksum;
+        }
+        return file.length() == length && file.lastModified() == lastModified && RosterSnapshot.checksum(file) == checksum; // Only read when the size and time match, an edit within the same second as the save can keep both
+    }
+
+    /**
+     * Merges the employees of another roster into the current ones
+     * The merged list is swapped in at once, so other threads see either the old or the new employees and never a mix. The employees file is not saved.
+     * @param employees the employees of the other roster
+     * @param policy how the rosters are merged
+     * @return the differences between the rosters
+     */
+    public synchronized RosterDiff mergeEmployees(List<Employee> employees, RosterDiff.Policy policy) {
+        RosterDiff diff = RosterDiff.compare(this.allEmployees, employees, policy);
+        if (diff.isApplied()) {
+            List<Employee> updated = diff.getResult();
+            McDonalds.sortEmployees(updated); // Sorted before it is swapped in
+            this.allEmployees = updated;
+        }
+        return diff;
+    }
+
+    /**
+     * Gets the cache of parsed employees files and schedule input files
+     * @return the input cache
+     */
+    public InputCache getInputCache() {
+        return this.inputCache;
+    }
+
+    /**
+     * Gets the cache of solved schedules, shared by the console and the scheduling service
+     * @return the schedule cache
+     */
+    public ScheduleCache getScheduleCache() {
+        return this.scheduleCache;
+    }
+
     /**
      * Gets all the employees (manager & workers) in the interface
      * @return List of all the employees (manager & workers) in the interface
@@ -550,7 +819,7 @@ public class McDonalds {
      */
     public List<Manager> getAllManagers() {
         List<Manager> managers = new ArrayList<Manager>(); // Blank array list to append all the managers to
-        for (Employee employee : this.getAllEmployees()) { // Get all the employees in the interface
+        for (Employee employee : this.getEmployees()) { // Get a copy of all the employees in the interface, as the list may be changed by another thread
             if (employee instanceof Manager) { // Check if they are a manager
                 managers.add((Manager) employee); // Polymorph the employee object into a manager
             }
@@ -566,7 +835,7 @@ public class McDonalds {
      */
     public List<Worker> getAllWorkers() {
         List<Worker> workers = new ArrayList<Worker>(); // Blank array list to append all the workers to
-        for (Employee employee : this.getAllEmployees()) { // Get all the employees in the interface
+        for (Employee employee : this.getEmployees()) { // Get a copy of all the employees in the interface, as the list may be changed by another thread
             if (employee instanceof Worker) { // Check if they are a worker
                 workers.add((Worker) employee); // Polymorph the employee object into a worker
             }
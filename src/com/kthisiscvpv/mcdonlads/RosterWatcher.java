@@ -0,0 +1,122 @@
+package com.kthisiscvpv.mcdonlads;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.kthisiscvpv.mcdonlads.data.Employee;
+import com.kthisiscvpv.mcdonlads.data.RosterDiff;
+
+/**
+ * Background thread that reloads the employees file whenever another program changes it
+ * The directory of the file is watched with a WatchService. Once the file has stopped changing, it is read again through the input cache and only the employees that differ are applied to the roster.
+ * Saving the roster from this program also changes the file. Such changes are recognized by the size, time and checksum of the file and are not parsed again. A file read before a save is never applied over it, as the roster counts its saves.
+ * @author Charles
+ */
+public class RosterWatcher implements Runnable {
+
+    public static final long SETTLE_DELAY = 250; // Milliseconds without further changes before the file is read, so that a file still being copied is not read half way
+
+    private McDonalds roster; // General variable declarations
+    private File file;
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * Creates a watcher for the employees file of a roster
+     * @param roster the roster to apply the changes to
+     * @param file the employees file to watch
+     */
+    public RosterWatcher(McDonalds roster, File file) {
+        this.roster = roster;
+        this.file = file.getAbsoluteFile();
+    }
+
+    /**
+     * Starts watching the file on a daemon thread, which does not keep the program running on its own
+     * @throws IOException the directory of the file could not be watched
+     */
+    public void start() throws IOException {
+        Path directory = this.file.getParentFile().toPath();
+        this.watchService = directory.getFileSystem().newWatchService();
+        directory.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY); // Replacing the file with another one creates it, writing over it modifies it
+
+        this.thread = new Thread(this, "McDonlads Roster Watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stops watching the file
+     */
+    public void stop() {
+        try {
+            this.watchService.close(); // Wakes the thread up, which then ends
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                if (!this.isChanged(this.watchService.take())) {
+                    continue;
+                }
+
+                WatchKey key;
+                while ((key = this.watchService.poll(SETTLE_DELAY, TimeUnit.MILLISECONDS)) != null) { // Waits until the file has stopped changing
+                    this.isChanged(key);
+                }
+                this.reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) { // Stopped
+        }
+    }
+
+    /**
+     * Checks whether the events of a key concern the employees file, and readies the key for the next events
+     * @param key the signalled key
+     * @return true if the file was changed, or if events were lost and it may have been
+     */
+    private boolean isChanged(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || this.file.getName().equals(String.valueOf(event.context()))) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Reads the file and applies the employees that changed to the roster
+     */
+    private void reload() {
+        try {
+            long saveCount = this.roster.getSaveCount(); // Taken before the file is read, a later save is newer than what is read
+            if (this.roster.isSavedFile(this.file)) { // The change was a save of this program
+                return;
+            }
+
+            List<Employee> employees = this.roster.getInputCache().getEmployees(this.file); // Parsed on this thread, the roster keeps being used in the meantime
+            RosterDiff diff = this.roster.applyEmployees(employees, saveCount);
+            if (diff != null && !diff.isEmpty()) { // Dropped when the roster was saved during the read, the save changes the file again and is checked then
+                System.out.println("The Employees File has Changed! Reloaded the Employees List: " + diff + ".");
+            }
+        } catch (FileNotFoundException e) { // The file was deleted, or is being replaced
+        } catch (IOException | RuntimeException e) { // Not a valid employees file, the current employees are kept until the file is fixed
+            System.out.println("Unable to Reload the Changed Employees File! " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.kthisiscvpv.mcdonlads;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.SplittableRandom;
+
+import com.kthisiscvpv.mcdonlads.data.Day;
+import com.kthisiscvpv.mcdonlads.data.Employee;
+import com.kthisiscvpv.mcdonlads.data.Manager;
+import com.kthisiscvpv.mcdonlads.data.RosterCSV;
+import com.kthisiscvpv.mcdonlads.data.ScheduleParser;
+import com.kthisiscvpv.mcdonlads.data.Worker;
+
+/**
+ * Generator of realistic employees files and schedule input files, for reproducing the load of a large roster
+ * Employees are a mix of managers and workers with skewed wages, whose availability follows a few common shifts (openers, closers, students and so on) over a subset of the week. The demand follows the lunch and dinner rushes, is closed overnight, and is scaled to the employees available so that the schedule can be filled.
+ * Every employee is generated from the seed and its own index, so the same seed always gives the same files, and the employees never have to be held in memory at once.
+ * @author Charles
+ */
+public class WorkloadGenerator {
+
+    public static final long DEFAULT_SEED = 2016; // Defaults of the generated roster and demand
+    public static final double DEFAULT_MANAGER_RATIO = 1.0 / 12.0;
+    public static final double DEFAULT_LOAD = 0.6;
+    public static final int FIRST_EMPLOYEE_NUMBER = 100000;
+    public static final int MAX_COUNT = Integer.MAX_VALUE - FIRST_EMPLOYEE_NUMBER; // Most employees that can be generated, so that every employee number fits in an int
+
+    private static final String[] FIRST_NAMES = { "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen", "Daniel", "Nancy", "Matthew", "Lisa", "Anthony", "Emily", "Mark", "Ashley", "Kevin", "Michelle", "Jason", "Amanda" };
+    private static final String[] LAST_NAMES = { "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez", "Wilson", "Anderson", "Taylor", "Thomas", "Moore", "Jackson", "Martin", "Lee", "Thompson", "White", "Harris", "Clark", "Lewis", "Robinson", "Walker", "Young", "Allen", "King", "Wright", "Scott", "Nguyen", "Hill" };
+    private static final String[] STREETS = { "Yonge Street", "Bloor Street", "Queen Street", "King Street", "Dundas Street", "College Street", "Spadina Avenue", "Bathurst Street", "Main Street", "Maple Avenue", "Oak Drive", "Elm Crescent" };
+
+    private static final int[][] OPEN_HOURS = { { 6, 23 }, { 6, 23 }, { 6, 23 }, { 6, 23 }, { 6, 24 }, { 6, 24 }, { 8, 22 } }; // Opening and closing hour of each day, indexed by day ordinal
+    private static final double[] DAY_DEMAND = { 0.9, 0.9, 0.9, 0.95, 1.0, 1.0, 0.85 }; // Relative demand of each day, indexed by day ordinal
+    private static final double[] HOUR_DEMAND = { 0, 0, 0, 0, 0, 0, 0.35, 0.5, 0.55, 0.45, 0.55, 0.85, 1.0, 0.9, 0.6, 0.5, 0.6, 0.85, 0.95, 0.8, 0.6, 0.45, 0.35, 0.3 }; // Relative demand of each hour, peaking at lunch and dinner
+
+    private static final int[][] SHIFTS = { { 6, 14 }, { 10, 18 }, { 15, 23 }, { 6, 23 }, { 16, 22 } }; // Start and end hour of each kind of availability: opener, mid shift, closer, full time, student
+    private static final int STUDENT = 4; // Students are available all day on weekends
+    private static final int[] STUDENT_WEEKEND = { 9, 21 };
+    private static final int[][] SHIFT_DAYS = { { 4, 6 }, { 3, 6 }, { 4, 6 }, { 5, 6 }, { 3, 5 } }; // Least and most days of the week of each kind of availability
+    private static final double[] WORKER_SHIFTS = { 0.25, 0.2, 0.25, 0.1, 0.2 }; // Chance of each kind of availability
+    private static final double[] MANAGER_SHIFTS = { 0.35, 0.1, 0.35, 0.2, 0 };
+    private static final double JITTER = 0.3; // Chance that an employee starts or ends an hour away from their shift
+
+    private int count; // General variable declarations
+    private long seed;
+    private double managerRatio;
+    private double load;
+
+    /**
+     * Creates a generator with the default manager ratio and load
+     * @param count the amount of employees to generate
+     * @param seed the seed, the same seed always generates the same employees and demand
+     */
+    public WorkloadGenerator(int count, long seed) {
+        if (count < 0 || count > MAX_COUNT) {
+            throw new IllegalArgumentException("The count must be between 0 and " + MAX_COUNT + ": " + count);
+        }
+        this.count = count;
+        this.seed = seed;
+        this.managerRatio = DEFAULT_MANAGER_RATIO;
+        this.load = DEFAULT_LOAD;
+    }
+
+    /**
+     * Sets the share of the employees that are managers
+     * @param managerRatio a number between 0 and 1
+     */
+    public void setManagerRatio(double managerRatio) {
+        this.managerRatio = managerRatio;
+    }
+
+    /**
+     * Sets how much of the available employees are required at the busiest hour
+     * @param load a number between 0 and 1, above 1 gives shortages
+     */
+    public void setLoad(double load) {
+        this.load = load;
+    }
+
+    /**
+     * Amount of employees generated
+     * @return the count of employees
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Creates the random numbers of an employee, which only depend on the seed and the index of the employee
+     * @param index the index of the employee
+     * @return the random number generator
+     */
+    private SplittableRandom random(int index) {
+        long z = this.seed + index * 0x9E3779B97F4A7C15L; // Spreads the indexes apart, then mixes the bits so that neighbouring employees do not share their numbers
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return new SplittableRandom(z ^ (z >>> 33));
+    }
+
+    /**
+     * Checks whether an employee is a manager
+     * @param index the index of the employee
+     * @return true for a manager, false for a worker
+     */
+    public boolean isManager(int index) {
+        return this.random(index).nextDouble() < this.managerRatio; // Always the first number drawn for an employee
+    }
+
+    /**
+     * Generates the availability of an employee
+     * @param index the index of the employee
+     * @param dayMasks array to fill with the availability mask of each day, indexed by day ordinal
+     */
+    public void getAvailabilityMasks(int index, int[] dayMasks) {
+        SplittableRandom random = this.random(index);
+        this.generateMasks(random, random.nextDouble() < this.managerRatio, dayMasks);
+    }
+
+    /**
+     * Draws the availability of an employee, right after the role
+     * @param random the random numbers of the employee
+     * @param manager whether the employee is a manager
+     * @param dayMasks array to fill with the availability mask of each day, indexed by day ordinal
+     */
+    private void generateMasks(SplittableRandom random, boolean manager, int[] dayMasks) {
+        int shift = WorkloadGenerator.pick(random, manager ? MANAGER_SHIFTS : WORKER_SHIFTS);
+        int start = SHIFTS[shift][0];
+        int end = SHIFTS[shift][1];
+        if (random.nextDouble() < JITTER) { // Moves the start or end by an hour, keeping at least 4 hours
+            start = Math.max(0, start + random.nextInt(3) - 1);
+            end = Math.min(24, Math.max(start + 4, end + random.nextInt(3) - 1));
+        }
+
+        int[] days = { 0, 1, 2, 3, 4, 5, 6 }; // Picks the days the employee is available with a partial shuffle
+        int dayCount = SHIFT_DAYS[shift][0] + random.nextInt(SHIFT_DAYS[shift][1] - SHIFT_DAYS[shift][0] + 1);
+        for (int i = 0; i < days.length; i++) {
+            dayMasks[i] = 0;
+        }
+        for (int i = 0; i < dayCount; i++) {
+            int j = i + random.nextInt(days.length - i);
+            int day = days[j];
+            days[j] = days[i];
+            days[i] = day;
+
+            if (shift == STUDENT && (day == Day.SATURDAY.ordinal() || day == Day.SUNDAY.ordinal())) {
+                dayMasks[day] = (int) ((1L << STUDENT_WEEKEND[1]) - (1L << STUDENT_WEEKEND[0]));
+            } else {
+                dayMasks[day] = (int) ((1L << end) - (1L << start)); // Sets every bit from the start hour up to the end hour
+            }
+        }
+    }
+
+    /**
+     * Generates an employee
+     * @param index the index of the employee
+     * @return a new Manager or Worker
+     */
+    public Employee get(int index) {
+        if (index < 0 || index >= this.count) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.count);
+        }
+
+        SplittableRandom random = this.random(index);
+        boolean manager = random.nextDouble() < this.managerRatio;
+        int[] dayMasks = new int[Day.values().length];
+        this.generateMasks(random, manager, dayMasks);
+
+        HashMap<Day, boolean[]> availability = new HashMap<Day, boolean[]>();
+        for (Day day : Day.values()) {
+            availability.put(day, ScheduleParser.toAvailability(dayMasks[day.ordinal()]));
+        }
+
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String address = (1 + random.nextInt(9999)) + " " + STREETS[random.nextInt(STREETS.length)];
+        int employeeNumber = FIRST_EMPLOYEE_NUMBER + index;
+        if (manager) { // Salaries are skewed towards the lower end, rounded to $500
+            double salary = 42000 + 10000 * Math.exp(0.3 * WorkloadGenerator.gaussian(random));
+            return new Manager(firstName, lastName, address, employeeNumber, Math.round(salary / 500) * 500, availability);
+        }
+        double wage = 11 + 3.5 * Math.exp(0.5 * WorkloadGenerator.gaussian(random)); // Hourly wages skewed towards the minimum, rounded to a quarter
+        return new Worker(firstName, lastName, address, employeeNumber, Math.round(wage * 4) / 4.0, availability);
+    }
+
+    /**
+     * Picks an option by its chance
+     * @param random the random numbers
+     * @param chances the chance of each option, adding up to 1
+     * @return the index of the option
+     */
+    private static int pick(SplittableRandom random, double[] chances) {
+        double value = random.nextDouble();
+        for (int i = 0; i < chances.length - 1; i++) {
+            value -= chances[i];
+            if (value < 0) {
+                return i;
+            }
+        }
+        return chances.length - 1;
+    }
+
+    /**
+     * Draws a normally distributed number, which SplittableRandom does not provide
+     * @param random the random numbers
+     * @return a number with a mean of 0 and a standard deviation of 1
+     */
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble()); // Box-Muller transform
+    }
+
+    /**
+     * Returns a read-only list view over the employees which generates each employee as it is accessed
+     * @return list view of the employees, in the order of their index
+     */
+    public List<Employee> asList() {
+        return new GeneratedList();
+    }
+
+    /**
+     * Generates the demand of each hour, following the lunch and dinner rushes and scaled to the employees available during the hour
+     * Takes a pass over the availability of every employee, without creating any of them.
+     * @return the required employees of each hour, indexed by day ordinal then hour, -1 where the store is closed
+     */
+    public int[][] getDemand() {
+        int[][] available = new int[Day.values().length][24];
+        int[] dayMasks = new int[Day.values().length];
+        for (int e = 0; e < this.count; e++) {
+            this.getAvailabilityMasks(e, dayMasks);
+            for (int d = 0; d < dayMasks.length; d++) {
+                int mask = dayMasks[d];
+                while (mask != 0) { // Only visits the hours that are set
+                    available[d][Integer.numberOfTrailingZeros(mask)]++;
+                    mask &= mask - 1;
+                }
+            }
+        }
+
+        int[][] demand = new int[Day.values().length][24];
+        for (int d = 0; d < demand.length; d++) {
+            for (int i = 0; i < 24; i++) {
+                if (i < OPEN_HOURS[d][0] || i >= OPEN_HOURS[d][1]) {
+                    demand[d][i] = -1; // The store is closed
+                } else {
+                    long required = Math.round(available[d][i] * this.load * DAY_DEMAND[d] * HOUR_DEMAND[i]);
+                    demand[d][i] = (int) Math.max(available[d][i] > 0 ? 1 : 0, required); // An open hour needs at least one employee if anyone can work it
+                }
+            }
+        }
+        return demand;
+    }
+
+    /**
+     * Writes the employees to an employees file, in CSV format if the file ends in .csv, otherwise in the JSON format that is loaded on startup
+     * @param file the output file
+     * @throws IOException the file could not be written
+     */
+    public void writeEmployees(File file) throws IOException {
+        if (RosterCSV.isCSVFile(file)) {
+            RosterCSV.write(file, this.asList());
+            return;
+        }
+        McDonalds.writeEmployeesJSON(file, this.byRole(true), this.byRole(false));
+    }
+
+    /**
+     * Writes demand to a schedule input file, one line per day and per run of hours with the same demand
+     * @param file the output file
+     * @param demand the required employees of each hour, indexed by day ordinal then hour, -1 where the store is closed
+     * @throws IOException the file could not be written
+     */
+    public static void writeDemand(File file, int[][] demand) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), Charset.defaultCharset())) {
+            for (Day day : Day.values()) {
+                writer.write(day.getCharacter() + System.lineSeparator());
+                int[] dayDemand = demand[day.ordinal()];
+                for (int start = 0; start < 24;) {
+                    int end = start + 1;
+                    while (end < 24 && dayDemand[end] == dayDemand[start]) {
+                        end++;
+                    }
+                    if (dayDemand[start] != -1) { // Closed hours are left out
+                        writer.write(String.format("%02d:00-%02d:00 %d", start, end, dayDemand[start]) + System.lineSeparator());
+                    }
+                    start = end;
+                }
+            }
+        }
+    }
+
+    /**
+     * Iterates over the employees of one role, generating each of them as it is reached
+     * @param managers true for the managers, false for the workers
+     * @return the employees of the role, in the order of their index
+     */
+    private Iterable<Employee> byRole(final boolean managers) {
+        return new Iterable<Employee>() {
+            @Override
+            public Iterator<Employee> iterator() {
+                return new Iterator<Employee>() {
+                    private int next = this.find(0); // Index of the next employee of the role
+
+                    private int find(int index) {
+                        while (index < WorkloadGenerator.this.count && WorkloadGenerator.this.isManager(index) != managers) {
+                            index++;
+                        }
+                        return index;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.next < WorkloadGenerator.this.count;
+                    }
+
+                    @Override
+                    public Employee next() {
+                        if (!this.hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Employee employee = WorkloadGenerator.this.get(this.next);
+                        this.next = this.find(this.next + 1);
+                        return employee;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Read-only list view over the generated employees
+     * @author Charles
+     */
+    private class GeneratedList extends AbstractList<Employee> implements RandomAccess {
+
+        @Override
+        public Employee get(int index) {
+            return WorkloadGenerator.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return WorkloadGenerator.this.count;
+        }
+    }
+}
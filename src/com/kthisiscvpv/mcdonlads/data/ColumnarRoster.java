@@ -0,0 +1,347 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Roster of employees stored column by column in primitive arrays, for rosters too large to keep as Employee objects
+ * Each employee is a row index into parallel arrays: the employee number, the role, indexes into a table of strings for the names and address, the wage in hundredths and one 24-bit availability mask per day. Names and addresses that repeat are only stored once.
+ * This takes around 60 bytes per employee plus the distinct strings, where an Employee object with its schedule map takes around a kilobyte. Employee objects are only created as views when they are asked for.
+ * @author Charles
+ */
+public class ColumnarRoster {
+
+    private static final int DAYS = Day.values().length;
+
+    private int size; // General variable declarations
+    private int[] numbers;
+    private boolean[] managers;
+    private int[] firstNames; // Indexes into the string table
+    private int[] lastNames;
+    private int[] addresses;
+    private long[] wages; // Hundredths of a dollar, per hour for workers and per year for managers
+    private int[] masks; // DAYS masks per employee, indexed by employee * DAYS + day ordinal
+
+    private List<String> strings;
+    private HashMap<String, Integer> stringIndexes;
+
+    /**
+     * Creates an empty roster
+     */
+    public ColumnarRoster() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty roster with room for a number of employees before the arrays have to grow
+     * @param capacity the expected amount of employees
+     */
+    public ColumnarRoster(int capacity) {
+        capacity = Math.max(capacity, 1);
+        this.numbers = new int[capacity];
+        this.managers = new boolean[capacity];
+        this.firstNames = new int[capacity];
+        this.lastNames = new int[capacity];
+        this.addresses = new int[capacity];
+        this.wages = new long[capacity];
+        this.masks = new int[capacity * DAYS];
+        this.strings = new ArrayList<String>();
+        this.stringIndexes = new HashMap<String, Integer>();
+    }
+
+    /**
+     * Copies a list of employees into columns
+     * @param employees the employees
+     * @return a roster holding the employees in the same order
+     */
+    public static ColumnarRoster of(List<Employee> employees) {
+        ColumnarRoster roster = new ColumnarRoster(employees.size());
+        for (Employee employee : employees) {
+            roster.add(employee);
+        }
+        return roster;
+    }
+
+    /**
+     * Adds a copy of an employee
+     * @param employee the employee
+     * @return the index of the employee in the roster
+     */
+    public int add(Employee employee) {
+        int[] dayMasks = new int[DAYS];
+        for (Day day : Day.values()) {
+            dayMasks[day.ordinal()] = employee.getAvailabilityMask(day);
+        }
+        return this.add(employee instanceof Manager, employee.getEmployeeNumber(), employee.getFirstName(), employee.getLastName(), employee.getAddress(), employee.getWage(), dayMasks);
+    }
+
+    /**
+     * Adds an employee without creating an Employee object
+     * @param manager true for a manager, false for a worker
+     * @param employeeNumber the employee number
+     * @param firstName the first name
+     * @param lastName the last name
+     * @param address the address
+     * @param wage the wage per hour for workers, the salary per year for managers, which is kept to the cent
+     * @param dayMasks the availability mask of each day, indexed by day ordinal
+     * @return the index of the employee in the roster
+     */
+    public int add(boolean manager, int employeeNumber, String firstName, String lastName, String address, double wage, int[] dayMasks) {
+        if (this.size == this.numbers.length) {
+            this.grow();
+        }
+
+        int index = this.size++;
+        this.numbers[index] = employeeNumber;
+        this.managers[index] = manager;
+        this.firstNames[index] = this.intern(firstName);
+        this.lastNames[index] = this.intern(lastName);
+        this.addresses[index] = this.intern(address);
+        this.wages[index] = Math.round(wage * 100);
+        System.arraycopy(dayMasks, 0, this.masks, index * DAYS, DAYS);
+        return index;
+    }
+
+    /**
+     * Doubles the capacity of every column
+     */
+    private void grow() {
+        int capacity = this.numbers.length * 2;
+        this.numbers = Arrays.copyOf(this.numbers, capacity);
+        this.managers = Arrays.copyOf(this.managers, capacity);
+        this.firstNames = Arrays.copyOf(this.firstNames, capacity);
+        this.lastNames = Arrays.copyOf(this.lastNames, capacity);
+        this.addresses = Arrays.copyOf(this.addresses, capacity);
+        this.wages = Arrays.copyOf(this.wages, capacity);
+        this.masks = Arrays.copyOf(this.masks, capacity * DAYS);
+    }
+
+    /**
+     * Finds the index of a string in the string table, adding it if it is new
+     * @param string the string
+     * @return the index of the string
+     */
+    private int intern(String string) {
+        Integer index = this.stringIndexes.get(string);
+        if (index == null) {
+            index = this.strings.size();
+            this.strings.add(string);
+            this.stringIndexes.put(string, index);
+        }
+        return index;
+    }
+
+    /**
+     * Amount of employees in the roster
+     * @return the count of employees
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Amount of distinct names and addresses in the string table
+     * @return the count of strings
+     */
+    public int getStringCount() {
+        return this.strings.size();
+    }
+
+    /**
+     * Employee number of an employee
+     * @param index the index of the employee
+     * @return the employee number
+     */
+    public int getEmployeeNumber(int index) {
+        return this.numbers[this.check(index)];
+    }
+
+    /**
+     * Role of an employee
+     * @param index the index of the employee
+     * @return true for a manager, false for a worker
+     */
+    public boolean isManager(int index) {
+        return this.managers[this.check(index)];
+    }
+
+    /**
+     * First name of an employee
+     * @param index the index of the employee
+     * @return the first name
+     */
+    public String getFirstName(int index) {
+        return this.strings.get(this.firstNames[this.check(index)]);
+    }
+
+    /**
+     * Last name of an employee
+     * @param index the index of the employee
+     * @return the last name
+     */
+    public String getLastName(int index) {
+        return this.strings.get(this.lastNames[this.check(index)]);
+    }
+
+    /**
+     * Address of an employee
+     * @param index the index of the employee
+     * @return the address
+     */
+    public String getAddress(int index) {
+        return this.strings.get(this.addresses[this.check(index)]);
+    }
+
+    /**
+     * Wage of an employee in hundredths, per hour for workers and per year for managers
+     * @param index the index of the employee
+     * @return the wage in cents
+     */
+    public long getWageCents(int index) {
+        return this.wages[this.check(index)];
+    }
+
+    /**
+     * Availability of an employee on a day as a bitmask
+     * @param index the index of the employee
+     * @param day the day of the week
+     * @return integer where bit i is set if the employee is available during hour i
+     */
+    public int getAvailabilityMask(int index, Day day) {
+        return this.masks[this.check(index) * DAYS + day.ordinal()];
+    }
+
+    /**
+     * Checks whether an employee is available during an hour
+     * @param index the index of the employee
+     * @param day the day of the week
+     * @param hour the hour of the day
+     * @return true if the employee is available
+     */
+    public boolean isAvailable(int index, Day day, int hour) {
+        return (this.getAvailabilityMask(index, day) & (1 << hour)) != 0;
+    }
+
+    /**
+     * Counts the employees available during each hour, straight from the masks
+     * @return the count of available employees, indexed by day ordinal then hour
+     */
+    public int[][] countAvailable() {
+        int[][] counts = new int[DAYS][24];
+        for (int i = 0; i < this.size; i++) {
+            for (int d = 0; d < DAYS; d++) {
+                int mask = this.masks[i * DAYS + d];
+                while (mask != 0) { // Only visits the hours that are set
+                    counts[d][Integer.numberOfTrailingZeros(mask)]++;
+                    mask &= mask - 1;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Pay of an employee in hundredths, the same as Worker.getPay() of the hours worked and Manager.getPay() of the days worked, rounded to the nearest cent
+     * Workers are paid by the hour and managers by the day, so both amounts are taken. ScheduleGen.getHoursWorked() and getDaysWorked() give them for every employee.
+     * @param index the index of the employee
+     * @param hoursWorked the hours worked, which only pay a worker
+     * @param daysWorked the days worked, which only pay a manager
+     * @return the pay in cents
+     */
+    public long getPayCents(int index, int hoursWorked, int daysWorked) {
+        if (this.isManager(index)) {
+            return (this.wages[index] * daysWorked * 2 + 360) / 720; // The salary is per year of 12 months of 30 days, rounded half up
+        }
+        return this.wages[index] * hoursWorked;
+    }
+
+    /**
+     * Total pay of every employee in hundredths, the sum of getPayCents() of each employee
+     * @param hoursWorked the hours worked by each employee, in the order of the roster
+     * @param daysWorked the days worked by each employee, in the order of the roster
+     * @return the total pay in cents
+     */
+    public long getTotalPayCents(int[] hoursWorked, int[] daysWorked) {
+        long total = 0;
+        for (int i = 0; i < this.size; i++) {
+            total += this.getPayCents(i, hoursWorked[i], daysWorked[i]);
+        }
+        return total;
+    }
+
+    /**
+     * Creates an Employee out of the columns of an employee
+     * The employee is a copy, changing it does not change the roster.
+     * @param index the index of the employee
+     * @return a new Manager or Worker
+     */
+    public Employee get(int index) {
+        HashMap<Day, boolean[]> availability = new HashMap<Day, boolean[]>();
+        for (Day day : Day.values()) {
+            availability.put(day, ScheduleParser.toAvailability(this.getAvailabilityMask(index, day)));
+        }
+        if (this.managers[index]) {
+            return new Manager(this.getFirstName(index), this.getLastName(index), this.getAddress(index), this.numbers[index], this.wages[index] / 100.0, availability);
+        }
+        return new Worker(this.getFirstName(index), this.getLastName(index), this.getAddress(index), this.numbers[index], this.wages[index] / 100.0, availability);
+    }
+
+    /**
+     * Returns a read-only list view over the roster which creates each employee as it is accessed and does not keep it
+     * Each access gives a different object, so the view suits a single pass over the employees, such as writing them to a file.
+     * @return list view of the employees
+     */
+    public List<Employee> asList() {
+        return new ColumnarList(this);
+    }
+
+    /**
+     * Creates every employee once, for code that needs to tell the employees apart by object, such as the sorting algorithm
+     * @return a new list of the employees in the order of the roster
+     */
+    public List<Employee> toList() {
+        List<Employee> employees = new ArrayList<Employee>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            employees.add(this.get(i));
+        }
+        return employees;
+    }
+
+    /**
+     * Checks that an index is within the roster
+     * @param index the index of the employee
+     * @return the index
+     */
+    private int check(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+        return index;
+    }
+
+    /**
+     * Read-only list view over a columnar roster
+     */
+    private static class ColumnarList extends AbstractList<Employee> implements RandomAccess {
+
+        private ColumnarRoster roster;
+
+        private ColumnarList(ColumnarRoster roster) {
+            this.roster = roster;
+        }
+
+        @Override
+        public Employee get(int index) {
+            return this.roster.get(this.roster.check(index));
+        }
+
+        @Override
+        public int size() {
+            return this.roster.size;
+        }
+    }
+}
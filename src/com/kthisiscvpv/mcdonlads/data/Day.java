@@ -8,6 +8,14 @@ public enum Day {
 
     MONDAY('M'), TUESDAY('T'), WEDNESDAY('W'), THURSDAY('R'), FRIDAY('F'), SATURDAY('S'), SUNDAY('U');
 
+    private static final Day[] CHARACTER_LOOKUP = new Day[128]; // Table of the days indexed by their character representation
+
+    static {
+        for (Day day : Day.values()) {
+            CHARACTER_LOOKUP[day.getCharacter()] = day;
+        }
+    }
+
     private char charRep;
 
     Day(char charRep) {
@@ -28,11 +36,6 @@ public enum Day {
      * @return the day of the week of which the character represents, null if it does not represent anything
      */
     public static Day fromChar(char charRep) {
-        for (Day day : Day.values()) {
-            if (day.getCharacter() == charRep) {
-                return day;
-            }
-        }
-        return null;
+        return charRep < CHARACTER_LOOKUP.length ? CHARACTER_LOOKUP[charRep] : null;
     }
 }
@@ -5,6 +5,7 @@ import java.util.Map;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.json.JSONWriter;
 
 /**
  * Superclass for all employees
@@ -13,6 +14,14 @@ import org.json.JSONObject;
 @SuppressWarnings("serial")
 public abstract class Employee {
 
+    private static final String[] HOUR_KEYS = new String[24]; // The keys of each hour of the day in the JSON schedule
+
+    static {
+        for (int i = 0; i < HOUR_KEYS.length; i++) {
+            HOUR_KEYS[i] = Integer.toString(i);
+        }
+    }
+
     private String firstName; // General variable declarations
     private String lastName;
     private String address;
@@ -81,6 +90,30 @@ public abstract class Employee {
      */
     public abstract String getPayInfo();
 
+    /**
+     * Get the wage/salary of the client as a number, without formatting it
+     * @return Wage per hour for workers, salary per year for managers
+     */
+    public abstract double getWage();
+
+    /**
+     * Creates an independent copy of the client, so that changing one does not change the other
+     * @return a new Manager or Worker with the same data
+     */
+    public abstract Employee copy();
+
+    /**
+     * Copies the Weekly Schedule of the Client
+     * @return a new map holding a copy of each day of the schedule
+     */
+    protected HashMap<Day, boolean[]> copyWeeklySchedule() {
+        HashMap<Day, boolean[]> availability = new HashMap<Day, boolean[]>();
+        for (Map.Entry<Day, boolean[]> entry : this.availability.entrySet()) {
+            availability.put(entry.getKey(), entry.getValue().clone());
+        }
+        return availability;
+    }
+
     /**
      * First Name of the Client
      * @return First Name of the Client
@@ -202,6 +235,26 @@ public abstract class Employee {
         return this.availability.get(day)[hour];
     }
 
+    /**
+     * Availability of the Client on a Day of the Week as a Bitmask
+     * @param day Day of the Week
+     * @return integer where bit i is set if the client is available during hour i
+     */
+    public int getAvailabilityMask(Day day) {
+        boolean[] daySchedule = this.availability.get(day);
+        if (daySchedule == null) { // Days that were never filled in are treated as unavailable
+            return 0;
+        }
+
+        int mask = 0;
+        for (int i = 0; i < daySchedule.length; i++) {
+            if (daySchedule[i]) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
     /**
      * Converts the Employee Data to a JSONObject for Safe String Data Transfers
      * @return JSONOBject containing all the data in the employee list
@@ -232,6 +285,36 @@ public abstract class Employee {
         return json; // Return the main JSONObject instance
     }
 
+    /**
+     * Writes the Employee Data Straight to a JSONWriter, Without Building a JSONObject
+     * Produces the same keys and values as toJSON()
+     * @param writer JSONWriter positioned where the employee's object belongs
+     * @return the same JSONWriter
+     */
+    public JSONWriter write(JSONWriter writer) {
+        writer.object(); // Opens the employee's object
+        writer.key("first_name").value(this.firstName); // Writes the default simple variables
+        writer.key("last_name").value(this.lastName);
+        writer.key("address").value(this.address);
+        writer.key("employee_number").value(this.employeeNumber);
+        writer.key("pay_info").value(this.getPayInfo());
+
+        writer.key("schedule").array(); // Opens the main schedule of each day of the week
+        for (Day day : Day.values()) { // Iterates through each day of the week
+            writer.object().key("day").value(day.toString()); // Opens the day schedule with the day of the week
+
+            boolean[] dayAvailability = this.availability.get(day); // Gets the client availability of the hours of the day
+            for (int i = 0; i < dayAvailability.length; i++) { // Iterates through the availability of the client
+                writer.key(HOUR_KEYS[i]).value(dayAvailability[i] ? "true" : "false"); // Written as strings, the same as toJSON()
+            }
+
+            writer.endObject(); // Closes the day schedule
+        }
+        writer.endArray(); // Closes the main schedule
+
+        return writer.endObject(); // Closes the employee's object
+    }
+
     /**
      * Overrides the Object method toString() to return the JSONObject representation of the string instead.
      */
@@ -0,0 +1,128 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Group of employees that are interchangeable for scheduling purposes
+ * Every member shares the same role, wage and weekly availability, so the schedule only needs to decide how many members of the group work each hour.
+ * @author Charles
+ */
+public class EmployeeClass {
+
+    private boolean manager; // General variable declarations
+    private String payInfo;
+    private int[] availability;
+    private List<Employee> members;
+    private int size;
+
+    /**
+     * Creates an empty class with the scheduling attributes of an employee
+     * @param employee the employee whose attributes define the class
+     */
+    private EmployeeClass(Employee employee) {
+        this.manager = employee instanceof Manager;
+        this.payInfo = employee.getPayInfo();
+        this.availability = new int[Day.values().length]; // One 24-bit mask per day of the week
+        for (Day day : Day.values()) {
+            this.availability[day.ordinal()] = employee.getAvailabilityMask(day);
+        }
+        this.members = new ArrayList<Employee>();
+    }
+
+    /**
+     * Creates a class whose members are kept elsewhere, such as by their index into an off-heap roster
+     * @param manager whether the members are managers
+     * @param payInfo the payment information shared by the members
+     * @param availability the availability mask of each day, indexed by day ordinal
+     * @param size the amount of members
+     */
+    EmployeeClass(boolean manager, String payInfo, int[] availability, int size) {
+        this.manager = manager;
+        this.payInfo = payInfo;
+        this.availability = availability;
+        this.members = new ArrayList<Employee>();
+        this.size = size;
+    }
+
+    /**
+     * Groups a list of employees into their equivalence classes by availability, role and wage
+     * @param employees list of employees
+     * @return list of classes in the order that their first member appears in
+     */
+    public static List<EmployeeClass> group(List<Employee> employees) {
+        Map<EmployeeClass, EmployeeClass> classes = new LinkedHashMap<EmployeeClass, EmployeeClass>(); // Keeps the classes in the order that they were discovered
+        for (Employee employee : employees) { // Iterates through each of the employees
+            EmployeeClass key = new EmployeeClass(employee);
+            EmployeeClass employeeClass = classes.get(key); // Looks for an existing class with the same attributes
+            if (employeeClass == null) {
+                employeeClass = key;
+                classes.put(key, key);
+            }
+            employeeClass.members.add(employee);
+            employeeClass.size++;
+        }
+        return new ArrayList<EmployeeClass>(classes.values());
+    }
+
+    /**
+     * Returns whether the members of this class are managers
+     * @return true if the members are managers, false if they are workers
+     */
+    public boolean isManager() {
+        return this.manager;
+    }
+
+    /**
+     * Returns the payment information shared by the members of this class
+     * @return the payment information in String format
+     */
+    public String getPayInfo() {
+        return this.payInfo;
+    }
+
+    /**
+     * Returns the availability shared by the members of this class
+     * @param day Day of the Week
+     * @return integer where bit i is set if the members are available during hour i
+     */
+    public int getAvailabilityMask(Day day) {
+        return this.availability[day.ordinal()];
+    }
+
+    /**
+     * Returns the employees that belong to this class
+     * @return list of employees in this class, empty if the members are kept elsewhere
+     */
+    public List<Employee> getMembers() {
+        return this.members;
+    }
+
+    /**
+     * Returns the multiplicity of this class
+     * @return amount of employees in this class
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Two classes are equal if their scheduling attributes are equal, regardless of their members
+     */
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof EmployeeClass)) {
+            return false;
+        }
+        EmployeeClass other = (EmployeeClass) object;
+        return this.manager == other.manager && this.payInfo.equals(other.payInfo) && Arrays.equals(this.availability, other.availability);
+    }
+
+    @Override
+    public int hashCode() {
+        return (31 * Arrays.hashCode(this.availability) + this.payInfo.hashCode()) * 2 + (this.manager ? 1 : 0);
+    }
+}
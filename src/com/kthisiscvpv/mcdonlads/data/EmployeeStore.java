@@ -0,0 +1,49 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Shared roster of employees that can be read and updated from several threads at once
+ * Employees are identified by their employee number. Changes are saved before the methods return.
+ * @author Charles
+ */
+public interface EmployeeStore {
+
+    /**
+     * Gets a copy of all the employees, sorted by employee number
+     * @return list of the employees, which can be used while the store keeps changing
+     */
+    List<Employee> getEmployees();
+
+    /**
+     * Gets the employee with an employee number
+     * @param employeeNumber the employee number
+     * @return the employee, null if there is no employee with that number
+     */
+    Employee getEmployee(int employeeNumber);
+
+    /**
+     * Adds an employee, unless there already is an employee with the same employee number
+     * @param employee the employee to add
+     * @return true if the employee was added, false if the employee number is taken
+     * @throws IOException the roster could not be saved
+     */
+    boolean addEmployee(Employee employee) throws IOException;
+
+    /**
+     * Adds an employee, replacing the employee with the same employee number if there is one
+     * @param employee the employee to add
+     * @return the employee that was replaced, null if the employee is new
+     * @throws IOException the roster could not be saved
+     */
+    Employee putEmployee(Employee employee) throws IOException;
+
+    /**
+     * Removes the employee with an employee number
+     * @param employeeNumber the employee number
+     * @return the employee that was removed, null if there was no employee with that number
+     * @throws IOException the roster could not be saved
+     */
+    Employee removeEmployee(int employeeNumber) throws IOException;
+}
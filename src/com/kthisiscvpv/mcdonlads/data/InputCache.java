@@ -0,0 +1,266 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Cache of parsed employees files and schedule input files, shared by every thread of the program
+ * Each file is looked up by its canonical path, and the parsed contents are only reused while the file keeps the size and modification time it had when it was read. A changed file is read again on the next lookup.
+ * Modification times can be a second or more apart, so a file that was read within that long of its last change is read again on every lookup, as an edit of the same size could still keep the same time.
+ * When several threads ask for the same file at once, only the first one reads it and the others wait for its result. Callers always get their own copy, which they are free to change.
+ * @author Charles
+ */
+public class InputCache {
+
+    public static final int DEFAULT_CAPACITY = 16; // Default amount of files to keep
+
+    private static final long MODIFIED_RESOLUTION = 2000; // Coarsest modification time kept by a file system, in milliseconds
+
+    private static final String ROSTER = "roster:"; // Kinds of entries, prepended to the path
+    private static final String DEMAND = "demand:";
+
+    private LinkedHashMap<String, Entry> entries; // General variable declarations
+    private int capacity;
+
+    private long hits;
+    private long misses;
+    private long invalidations;
+    private long evictions;
+
+    /**
+     * Creates a cache that keeps a limited amount of files
+     * @param capacity the most files to keep, the least recently used ones are dropped first
+     */
+    public InputCache(int capacity) {
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true); // Access order, the eldest entry is the least recently used
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets the employees of an employees file, in JSON, CSV or XML format depending on its extension
+     * @param file the employees file
+     * @return a copy of the employees, in the order of the file
+     * @throws IOException the file does not exist, could not be read or is not a valid employees file
+     */
+    @SuppressWarnings("unchecked")
+    public List<Employee> getEmployees(final File file) throws IOException {
+        List<Employee> employees = (List<Employee>) this.get(ROSTER, file, new Callable<Object>() {
+            @Override
+            public Object call() throws IOException {
+                if (RosterCSV.isCSVFile(file)) {
+                    return RosterCSV.read(file);
+                } else if (RosterXML.isXMLFile(file)) {
+                    return RosterXML.read(file);
+                }
+                return RosterParser.read(file);
+            }
+        });
+
+        List<Employee> copy = new ArrayList<Employee>(employees.size());
+        for (Employee employee : employees) {
+            copy.add(employee.copy());
+        }
+        return copy;
+    }
+
+    /**
+     * Gets the required employees of each hour out of a schedule input file
+     * @param file the schedule input file
+     * @return a copy of the required employees of each hour, indexed by day ordinal then hour
+     * @throws IOException the file does not exist or could not be read
+     * @throws ScheduleFormatException the file is not in the schedule format
+     */
+    public int[][] getDemand(final File file) throws IOException {
+        int[][] demand = (int[][]) this.get(DEMAND, file, new Callable<Object>() {
+            @Override
+            public Object call() throws IOException {
+                return ScheduleParser.parseDemand(Files.readAllBytes(file.toPath()));
+            }
+        });
+
+        int[][] copy = new int[demand.length][];
+        for (int i = 0; i < demand.length; i++) {
+            copy[i] = demand[i].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Looks up the parsed contents of a file, reading it if it is not cached or has changed
+     * @param kind the kind of entry
+     * @param file the file
+     * @param loader reads and parses the file
+     * @return the parsed contents, shared with the other callers
+     * @throws IOException the file does not exist or could not be read
+     */
+    private Object get(String kind, File file, Callable<Object> loader) throws IOException {
+        File canonical = file.getCanonicalFile();
+        if (!canonical.isFile()) {
+            throw new FileNotFoundException("The file " + file.getPath() + " does not exist!");
+        }
+        long lastModified = canonical.lastModified(); // Taken before the file is read, so that a change during the read is noticed on the next lookup
+        long length = canonical.length();
+        String key = kind + canonical.getPath();
+
+        Entry entry;
+        boolean reader = false; // Whether this thread is the one that reads the file
+        synchronized (this) {
+            entry = this.entries.get(key);
+            if (entry != null && (entry.lastModified != lastModified || entry.length != length || (!entry.settled && entry.task.isDone()))) { // The file has changed since it was read, or may have changed without its time showing it
+                this.entries.remove(key);
+                this.invalidations++;
+                entry = null;
+            }
+
+            if (entry == null) {
+                entry = new Entry(lastModified, length, System.currentTimeMillis() - lastModified >= MODIFIED_RESOLUTION, new FutureTask<Object>(loader));
+                this.entries.put(key, entry);
+                this.misses++;
+                reader = true;
+                this.evict();
+            } else {
+                this.hits++;
+            }
+        }
+
+        if (reader) {
+            entry.task.run(); // Read outside of the lock, the other threads asking for the file wait on the task instead
+        }
+
+        try {
+            return entry.task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + file.getPath() + " to be read.");
+        } catch (ExecutionException e) {
+            synchronized (this) { // Failures are not cached, the next lookup tries again
+                if (this.entries.get(key) == entry) {
+                    this.entries.remove(key);
+                }
+            }
+
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Drops the least recently used files until the cache fits its capacity
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> iterator = this.entries.entrySet().iterator();
+        while (this.entries.size() > this.capacity && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove(); // Threads still waiting on a dropped entry get its result all the same
+            this.evictions++;
+        }
+    }
+
+    /**
+     * Drops a file, so that it is read again on the next lookup
+     * @param file the file
+     * @throws IOException the canonical path of the file could not be found
+     */
+    public synchronized void invalidate(File file) throws IOException {
+        String path = file.getCanonicalPath();
+        if (this.entries.remove(ROSTER + path) != null | this.entries.remove(DEMAND + path) != null) {
+            this.invalidations++;
+        }
+    }
+
+    /**
+     * Drops every file
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * Amount of lookups that reused a file that had already been read
+     * @return the count of hits
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Amount of lookups that had to read the file
+     * @return the count of misses
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Amount of files that were dropped because they changed or were invalidated
+     * @return the count of invalidations
+     */
+    public synchronized long getInvalidations() {
+        return this.invalidations;
+    }
+
+    /**
+     * Amount of files that were dropped to stay within the capacity
+     * @return the count of evictions
+     */
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Amount of files held in the cache
+     * @return the count of files
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "InputCache[entries=" + this.entries.size() + ", hits=" + this.hits + ", misses=" + this.misses + ", invalidations=" + this.invalidations + ", evictions=" + this.evictions + "]";
+    }
+
+    /**
+     * Parsed contents of a file along with the size and modification time the file had when it was read
+     * @author Charles
+     */
+    private static class Entry {
+
+        private long lastModified; // General variable declarations
+        private long length;
+        private boolean settled;
+        private FutureTask<Object> task;
+
+        /**
+         * Creates an entry that has not been read yet
+         * @param lastModified modification time of the file
+         * @param length size of the file
+         * @param settled whether any later edit of the file is sure to change its modification time
+         * @param task reads and parses the file
+         */
+        public Entry(long lastModified, long length, boolean settled, FutureTask<Object> task) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.settled = settled;
+            this.task = task;
+        }
+    }
+}
@@ -52,6 +52,16 @@ public class Manager extends Employee implements Comparable<Manager> {
         return String.format("%.2f", this.yearlyWage);
     }
 
+    @Override
+    public double getWage() {
+        return this.yearlyWage;
+    }
+
+    @Override
+    public Manager copy() {
+        return new Manager(this.getFirstName(), this.getLastName(), this.getAddress(), this.getEmployeeNumber(), this.yearlyWage, this.copyWeeklySchedule());
+    }
+
     /**
      * Compare one manager to another through their salaries
      */
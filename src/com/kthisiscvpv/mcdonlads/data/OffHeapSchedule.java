@@ -0,0 +1,612 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Schedule whose roster, demand and results are kept outside of the heap, in a direct or memory mapped buffer
+ * Each employee is a fixed size record holding the employee number, the role, the wage, the availability mask of each day, and after solving, the assigned hours of each day and the hours worked. The heap only holds one object per class of interchangeable employees, so the garbage collector has nothing to scan that grows with the roster.
+ * Records are read and written through cursors, which are moved from one record to the next instead of creating an object per employee.
+ * The sorting algorithm is the same as ScheduleGen: the classes are sorted and given their shifts by TimeTable, and the shifts are handed out to the members with the least hours worked first.
+ * @author Charles
+ */
+public class OffHeapSchedule {
+
+    private static final int DAYS = Day.values().length;
+
+    private static final int MAGIC = 0x4D434453; // "MCDS", marks a mapped schedule file
+    private static final int VERSION = 2;
+
+    private static final int MAGIC_OFFSET = 0; // Header: magic, version, capacity, employee count, whether the results are up to date
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int COUNT_OFFSET = 12;
+    private static final int SOLVED_OFFSET = 16; // 1 once the sorting algorithm has filled the schedule, 0 again when the roster or demand changes
+    private static final int DEMAND_OFFSET = 24; // Required employees of each hour, indexed by day ordinal then hour
+    private static final int RECORDS_OFFSET = DEMAND_OFFSET + DAYS * 24 * 4;
+
+    private static final int RECORD_SIZE = 80; // Size of each employee record, padded to a multiple of 8
+    private static final int NUMBER = 0; // Offsets within a record
+    private static final int ROLE = 4;
+    private static final int WAGE = 8; // Hundredths of a dollar, per hour for workers and per year for managers
+    private static final int AVAILABILITY = 16; // DAYS masks, indexed by day ordinal
+    private static final int ASSIGNED = AVAILABILITY + DAYS * 4; // DAYS masks of the hours the employee was given
+    private static final int HOURS_WORKED = ASSIGNED + DAYS * 4;
+
+    public static final int MAX_CAPACITY = (Integer.MAX_VALUE - RECORDS_OFFSET) / RECORD_SIZE; // A buffer is indexed by int
+
+    private ByteBuffer buffer; // General variable declarations
+    private List<String> shortages;
+
+    /**
+     * Creates a schedule over a buffer that already holds a header
+     * @param buffer the buffer, in little endian order
+     */
+    private OffHeapSchedule(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.shortages = new ArrayList<String>();
+    }
+
+    /**
+     * Creates an empty schedule in a direct buffer
+     * @param capacity the most employees the schedule can hold
+     * @return the schedule, with every hour closed
+     */
+    public static OffHeapSchedule allocate(int capacity) {
+        OffHeapSchedule.checkCapacity(capacity);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(OffHeapSchedule.getByteSize(capacity)).order(ByteOrder.LITTLE_ENDIAN);
+        return OffHeapSchedule.initialize(buffer, capacity);
+    }
+
+    /**
+     * Creates an empty schedule in a file mapped into memory, which the operating system pages in and out as needed
+     * The file is overwritten. Whatever is written to the schedule is written to the file, and can be read back with open().
+     * @param file the file
+     * @param capacity the most employees the schedule can hold
+     * @return the schedule, with every hour closed
+     * @throws IOException the file could not be created or mapped
+     */
+    public static OffHeapSchedule map(File file, int capacity) throws IOException {
+        OffHeapSchedule.checkCapacity(capacity);
+        int size = OffHeapSchedule.getByteSize(capacity);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size).order(ByteOrder.LITTLE_ENDIAN); // The mapping stays valid after the channel is closed
+            return OffHeapSchedule.initialize(buffer, capacity);
+        }
+    }
+
+    /**
+     * Maps a schedule file written by an earlier schedule created with map()
+     * @param file the file
+     * @return the schedule, holding the roster, the demand and the results that were in the file, which isValid() reports as valid if they were solved and not changed since
+     * @throws IOException the file could not be mapped or is not a schedule file
+     */
+    public static OffHeapSchedule open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < RECORDS_OFFSET || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("The file " + file.getPath() + " is not a schedule file!");
+            }
+
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            int capacity = buffer.getInt(CAPACITY_OFFSET);
+            int count = buffer.getInt(COUNT_OFFSET);
+            if (buffer.getInt(MAGIC_OFFSET) != MAGIC || buffer.getInt(VERSION_OFFSET) != VERSION || capacity < 0 || capacity > MAX_CAPACITY || count < 0 || count > capacity || channel.size() < OffHeapSchedule.getByteSize(capacity)) {
+                throw new IOException("The file " + file.getPath() + " is not a schedule file!");
+            }
+            return new OffHeapSchedule(buffer);
+        }
+    }
+
+    /**
+     * Copies a columnar roster and its demand into a direct buffer
+     * @param roster the employees in columns
+     * @param demand the required employees of each hour, indexed by day ordinal then hour, as returned by ScheduleParser.parseDemand()
+     * @return the schedule, not yet solved
+     */
+    public static OffHeapSchedule of(ColumnarRoster roster, int[][] demand) {
+        return OffHeapSchedule.copy(OffHeapSchedule.allocate(roster.size()), roster, demand);
+    }
+
+    /**
+     * Copies a columnar roster and its demand into a file mapped into memory, see map()
+     * @param roster the employees in columns
+     * @param demand the required employees of each hour, indexed by day ordinal then hour, as returned by ScheduleParser.parseDemand()
+     * @param file the file, which is overwritten
+     * @return the schedule, not yet solved
+     * @throws IOException the file could not be created or mapped
+     */
+    public static OffHeapSchedule of(ColumnarRoster roster, int[][] demand, File file) throws IOException {
+        return OffHeapSchedule.copy(OffHeapSchedule.map(file, roster.size()), roster, demand);
+    }
+
+    /**
+     * Copies a columnar roster and its demand into an empty schedule
+     * @param schedule the empty schedule
+     * @param roster the employees in columns
+     * @param demand the required employees of each hour, indexed by day ordinal then hour
+     * @return the schedule
+     */
+    private static OffHeapSchedule copy(OffHeapSchedule schedule, ColumnarRoster roster, int[][] demand) {
+        schedule.setDemand(demand);
+        int[] dayMasks = new int[DAYS];
+        for (int i = 0; i < roster.size(); i++) {
+            for (Day day : Day.values()) {
+                dayMasks[day.ordinal()] = roster.getAvailabilityMask(i, day);
+            }
+            schedule.add(roster.isManager(i), roster.getEmployeeNumber(i), roster.getWageCents(i), dayMasks);
+        }
+        return schedule;
+    }
+
+    /**
+     * Checks that a capacity fits in a buffer
+     * @param capacity the most employees the schedule can hold
+     */
+    private static void checkCapacity(int capacity) {
+        if (capacity < 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("The capacity must be between 0 and " + MAX_CAPACITY + ": " + capacity);
+        }
+    }
+
+    /**
+     * Size of the buffer of a schedule
+     * @param capacity the most employees the schedule can hold
+     * @return the amount of bytes
+     */
+    private static int getByteSize(int capacity) {
+        return RECORDS_OFFSET + capacity * RECORD_SIZE;
+    }
+
+    /**
+     * Writes the header of an empty schedule, with every hour closed
+     * @param buffer the buffer
+     * @param capacity the most employees the schedule can hold
+     * @return the schedule
+     */
+    private static OffHeapSchedule initialize(ByteBuffer buffer, int capacity) {
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(COUNT_OFFSET, 0);
+        buffer.putInt(SOLVED_OFFSET, 0);
+        for (int i = 0; i < DAYS * 24; i++) {
+            buffer.putInt(DEMAND_OFFSET + i * 4, -1);
+        }
+        return new OffHeapSchedule(buffer);
+    }
+
+    /**
+     * Adds an employee
+     * @param manager true for a manager, false for a worker
+     * @param employeeNumber the employee number
+     * @param wageCents the wage in hundredths, per hour for workers and per year for managers
+     * @param dayMasks the availability mask of each day, indexed by day ordinal
+     * @return the index of the employee in the schedule
+     */
+    public int add(boolean manager, int employeeNumber, long wageCents, int[] dayMasks) {
+        int index = this.size();
+        if (index == this.getCapacity()) {
+            throw new IllegalStateException("The schedule is full: " + index + " employees.");
+        }
+
+        int record = OffHeapSchedule.getRecordOffset(index);
+        this.buffer.putInt(record + NUMBER, employeeNumber);
+        this.buffer.putInt(record + ROLE, manager ? 1 : 0);
+        this.buffer.putLong(record + WAGE, wageCents);
+        for (int d = 0; d < DAYS; d++) {
+            this.buffer.putInt(record + AVAILABILITY + d * 4, dayMasks[d]);
+            this.buffer.putInt(record + ASSIGNED + d * 4, 0);
+        }
+        this.buffer.putInt(record + HOURS_WORKED, 0);
+        this.buffer.putInt(COUNT_OFFSET, index + 1);
+        this.buffer.putInt(SOLVED_OFFSET, 0);
+        return index;
+    }
+
+    /**
+     * Sets the required employees of each hour
+     * @param demand the required employees of each hour, indexed by day ordinal then hour, -1 where the store is closed
+     */
+    public void setDemand(int[][] demand) {
+        for (int d = 0; d < DAYS; d++) {
+            for (int i = 0; i < 24; i++) {
+                this.buffer.putInt(DEMAND_OFFSET + (d * 24 + i) * 4, demand[d][i]);
+            }
+        }
+        this.buffer.putInt(SOLVED_OFFSET, 0);
+    }
+
+    /**
+     * Required employees during an hour
+     * @param day the day of the week
+     * @param hour the hour of the day
+     * @return the amount of employees required, -1 if the store is closed
+     */
+    public int getRequiredEmployees(Day day, int hour) {
+        return this.buffer.getInt(DEMAND_OFFSET + (day.ordinal() * 24 + hour) * 4);
+    }
+
+    /**
+     * Amount of employees in the schedule
+     * @return the count of employees
+     */
+    public int size() {
+        return this.buffer.getInt(COUNT_OFFSET);
+    }
+
+    /**
+     * Most employees the schedule can hold
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return this.buffer.getInt(CAPACITY_OFFSET);
+    }
+
+    /**
+     * Offset of the record of an employee
+     * @param index the index of the employee
+     * @return the offset in the buffer
+     */
+    private static int getRecordOffset(int index) {
+        return RECORDS_OFFSET + index * RECORD_SIZE;
+    }
+
+    /**
+     * Creates a cursor over the employees, which starts on the first one
+     * A cursor is not safe to share between threads, each thread should create its own.
+     * @return the cursor
+     */
+    public Cursor cursor() {
+        return new Cursor(this);
+    }
+
+    /**
+     * Runs the sorting algorithm, writing the assigned hours of each employee into their record
+     * Nothing is assigned if there are not enough employees available during some hour, see getShortages().
+     * @return true if the schedule was filled
+     */
+    public boolean solve() {
+        int count = this.size();
+        Day[] daysOfWeek = Day.values();
+        for (int i = 0; i < daysOfWeek.length / 2; i++) { // Sunday -> Monday, the same order as ScheduleGen, since the hours worked on each day affect the next
+            Day day = daysOfWeek[i];
+            daysOfWeek[i] = daysOfWeek[daysOfWeek.length - 1 - i];
+            daysOfWeek[daysOfWeek.length - 1 - i] = day;
+        }
+
+        int[][] available = new int[DAYS][24];
+        for (int e = 0; e < count; e++) {
+            int record = OffHeapSchedule.getRecordOffset(e);
+            for (int d = 0; d < DAYS; d++) {
+                int mask = this.buffer.getInt(record + AVAILABILITY + d * 4);
+                while (mask != 0) { // Only visits the hours that are set
+                    available[d][Integer.numberOfTrailingZeros(mask)]++;
+                    mask &= mask - 1;
+                }
+                this.buffer.putInt(record + ASSIGNED + d * 4, 0); // Clears the results of an earlier run
+            }
+            this.buffer.putInt(record + HOURS_WORKED, 0);
+        }
+
+        this.shortages = new ArrayList<String>();
+        for (Day day : daysOfWeek) {
+            for (int i = 0; i < 24; i++) {
+                int required = this.getRequiredEmployees(day, i);
+                if (available[day.ordinal()][i] < required) {
+                    this.shortages.add("There are not enough employees in " + day + " @ " + i + ":00! Please hire " + (required - available[day.ordinal()][i]) + " more people!");
+                }
+            }
+        }
+        if (!this.shortages.isEmpty()) {
+            this.buffer.putInt(SOLVED_OFFSET, 0);
+            return false;
+        }
+
+        List<EmployeeClass> employeeClasses = new ArrayList<EmployeeClass>();
+        int[][] classMembers = this.group(employeeClasses);
+        HashMap<EmployeeClass, Integer> classIndexes = new HashMap<EmployeeClass, Integer>();
+        for (int c = 0; c < employeeClasses.size(); c++) {
+            classIndexes.put(employeeClasses.get(c), c);
+        }
+
+        for (Day day : daysOfWeek) {
+            int totalHours = 0;
+            int[] openSlots = new int[24];
+            for (int i = 0; i < 24; i++) {
+                int required = this.getRequiredEmployees(day, i);
+                if (required != -1) { // Checks that the store is not closed
+                    totalHours += required;
+                    openSlots[i] = required;
+                }
+            }
+            int averageHours = (int) Math.floor(((double) totalHours) / ((double) count)); // The same 'average' hours as TimeTable
+
+            List<EmployeeClass> sortedClasses = new ArrayList<EmployeeClass>(employeeClasses);
+            HashMap<EmployeeClass, Long> classHoursWorked = new HashMap<EmployeeClass, Long>();
+            for (int c = 0; c < employeeClasses.size(); c++) {
+                long hours = 0;
+                for (int member : classMembers[c]) {
+                    hours += this.buffer.getInt(OffHeapSchedule.getRecordOffset(member) + HOURS_WORKED);
+                }
+                classHoursWorked.put(employeeClasses.get(c), hours);
+            }
+
+            TimeTable.sortClasses(day, sortedClasses, classHoursWorked);
+            SchedulePresolve presolve = new SchedulePresolve(day, sortedClasses, openSlots, averageHours);
+            int[][] classShifts = TimeTable.assignShifts(day, sortedClasses, presolve);
+
+            for (int c = 0; c < sortedClasses.size(); c++) {
+                int[] members = this.sortByHoursWorked(classMembers[classIndexes.get(sortedClasses.get(c))]);
+                int nextMember = 0; // Shifts are rotated through the members so that they are spread evenly
+                for (int i = 0; i < 24; i++) {
+                    for (int x = 0; x < classShifts[c][i]; x++) {
+                        int record = OffHeapSchedule.getRecordOffset(members[nextMember]);
+                        nextMember = (nextMember + 1) % members.length;
+                        int assigned = record + ASSIGNED + day.ordinal() * 4;
+                        this.buffer.putInt(assigned, this.buffer.getInt(assigned) | (1 << i));
+                        this.buffer.putInt(record + HOURS_WORKED, this.buffer.getInt(record + HOURS_WORKED) + 1);
+                    }
+                }
+            }
+        }
+
+        this.buffer.putInt(SOLVED_OFFSET, 1); // Kept in the header, so a schedule file that is opened again knows its results are valid
+        return true;
+    }
+
+    /**
+     * Groups the interchangeable employees into classes, in the order each class first appears in, the same as EmployeeClass.group()
+     * @param employeeClasses list to add the classes to
+     * @return the indexes of the members of each class, in the order of the schedule
+     */
+    private int[][] group(List<EmployeeClass> employeeClasses) {
+        int count = this.size();
+        HashMap<ClassKey, Integer> classIndexes = new HashMap<ClassKey, Integer>();
+        List<ClassKey> keys = new ArrayList<ClassKey>();
+        int[] classOf = new int[count];
+        int[] sizes = new int[16];
+        for (int e = 0; e < count; e++) {
+            int record = OffHeapSchedule.getRecordOffset(e);
+            int[] dayMasks = new int[DAYS];
+            for (int d = 0; d < DAYS; d++) {
+                dayMasks[d] = this.buffer.getInt(record + AVAILABILITY + d * 4);
+            }
+            ClassKey key = new ClassKey(this.buffer.getInt(record + ROLE) != 0, this.buffer.getLong(record + WAGE), dayMasks);
+
+            Integer index = classIndexes.get(key);
+            if (index == null) {
+                index = keys.size();
+                classIndexes.put(key, index);
+                keys.add(key);
+                if (index == sizes.length) {
+                    sizes = Arrays.copyOf(sizes, sizes.length * 2);
+                }
+            }
+            classOf[e] = index;
+            sizes[index]++;
+        }
+
+        int[][] classMembers = new int[keys.size()][];
+        for (int c = 0; c < keys.size(); c++) {
+            ClassKey key = keys.get(c);
+            employeeClasses.add(new EmployeeClass(key.manager, String.format("%.2f", key.wageCents / 100.0), key.dayMasks, sizes[c]));
+            classMembers[c] = new int[sizes[c]];
+            sizes[c] = 0; // Reused as the amount of members placed so far
+        }
+        for (int e = 0; e < count; e++) {
+            classMembers[classOf[e]][sizes[classOf[e]]++] = e;
+        }
+        return classMembers;
+    }
+
+    /**
+     * Orders the members of a class by the hours they have worked, keeping the order of the schedule between members with the same hours
+     * @param members the indexes of the members
+     * @return a new array of the indexes, the least hours worked first
+     */
+    private int[] sortByHoursWorked(int[] members) {
+        int[] hours = new int[members.length];
+        int maxHours = 0;
+        for (int m = 0; m < members.length; m++) {
+            hours[m] = this.buffer.getInt(OffHeapSchedule.getRecordOffset(members[m]) + HOURS_WORKED);
+            maxHours = Math.max(maxHours, hours[m]);
+        }
+
+        int[] starts = new int[maxHours + 2]; // Counting sort, the hours are bounded by the hours in a week
+        for (int h : hours) {
+            starts[h + 1]++;
+        }
+        for (int h = 1; h < starts.length; h++) {
+            starts[h] += starts[h - 1];
+        }
+        int[] sorted = new int[members.length];
+        for (int m = 0; m < members.length; m++) {
+            sorted[starts[hours[m]]++] = members[m];
+        }
+        return sorted;
+    }
+
+    /**
+     * Checks whether the last run of the sorting algorithm filled the schedule, including a run before the schedule file was opened
+     * @return true if the schedule was solved and has not changed since
+     */
+    public boolean isValid() {
+        return this.buffer.getInt(SOLVED_OFFSET) != 0;
+    }
+
+    /**
+     * Hours that do not have enough available employees, found by the last run of the sorting algorithm
+     * The messages are not kept in the schedule file, so they are empty for a schedule that was opened and not solved again.
+     * @return list of messages for the user
+     */
+    public List<String> getShortages() {
+        return this.shortages;
+    }
+
+    /**
+     * Writes any changes to a mapped schedule out to its file, does nothing for a direct buffer
+     */
+    public void force() {
+        if (this.buffer instanceof MappedByteBuffer) {
+            ((MappedByteBuffer) this.buffer).force();
+        }
+    }
+
+    /**
+     * Attributes shared by the members of a class, used to find the class of each employee
+     * @author Charles
+     */
+    private static class ClassKey {
+
+        private boolean manager; // General variable declarations
+        private long wageCents;
+        private int[] dayMasks;
+
+        /**
+         * Creates a key
+         * @param manager whether the employee is a manager
+         * @param wageCents the wage in hundredths
+         * @param dayMasks the availability mask of each day
+         */
+        public ClassKey(boolean manager, long wageCents, int[] dayMasks) {
+            this.manager = manager;
+            this.wageCents = wageCents;
+            this.dayMasks = dayMasks;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof ClassKey)) {
+                return false;
+            }
+            ClassKey other = (ClassKey) object;
+            return this.manager == other.manager && this.wageCents == other.wageCents && Arrays.equals(this.dayMasks, other.dayMasks);
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * Arrays.hashCode(this.dayMasks) + Long.hashCode(this.wageCents)) * 2 + (this.manager ? 1 : 0);
+        }
+    }
+
+    /**
+     * Flyweight over the records of a schedule, reading one employee at a time without creating objects
+     * @author Charles
+     */
+    public static class Cursor {
+
+        private OffHeapSchedule schedule; // General variable declarations
+        private int index;
+        private int record;
+
+        /**
+         * Creates a cursor on the first employee
+         * @param schedule the schedule
+         */
+        private Cursor(OffHeapSchedule schedule) {
+            this.schedule = schedule;
+            this.record = RECORDS_OFFSET;
+        }
+
+        /**
+         * Moves the cursor to an employee
+         * @param index the index of the employee
+         * @return this cursor
+         */
+        public Cursor moveTo(int index) {
+            if (index < 0 || index >= this.schedule.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.schedule.size());
+            }
+            this.index = index;
+            this.record = OffHeapSchedule.getRecordOffset(index);
+            return this;
+        }
+
+        /**
+         * Index of the employee under the cursor
+         * @return the index
+         */
+        public int getIndex() {
+            return this.index;
+        }
+
+        /**
+         * Employee number of the employee under the cursor
+         * @return the employee number
+         */
+        public int getEmployeeNumber() {
+            return this.schedule.buffer.getInt(this.record + NUMBER);
+        }
+
+        /**
+         * Role of the employee under the cursor
+         * @return true for a manager, false for a worker
+         */
+        public boolean isManager() {
+            return this.schedule.buffer.getInt(this.record + ROLE) != 0;
+        }
+
+        /**
+         * Wage of the employee under the cursor
+         * @return the wage in hundredths, per hour for workers and per year for managers
+         */
+        public long getWageCents() {
+            return this.schedule.buffer.getLong(this.record + WAGE);
+        }
+
+        /**
+         * Availability of the employee under the cursor on a day as a bitmask
+         * @param day the day of the week
+         * @return integer where bit i is set if the employee is available during hour i
+         */
+        public int getAvailabilityMask(Day day) {
+            return this.schedule.buffer.getInt(this.record + AVAILABILITY + day.ordinal() * 4);
+        }
+
+        /**
+         * Checks whether the employee under the cursor is available during an hour
+         * @param day the day of the week
+         * @param hour the hour of the day
+         * @return true if the employee is available
+         */
+        public boolean isAvailable(Day day, int hour) {
+            return (this.getAvailabilityMask(day) & (1 << hour)) != 0;
+        }
+
+        /**
+         * Hours the employee under the cursor was given on a day as a bitmask
+         * @param day the day of the week
+         * @return integer where bit i is set if the employee works during hour i, 0 before the schedule is solved
+         */
+        public int getAssignedMask(Day day) {
+            return this.schedule.buffer.getInt(this.record + ASSIGNED + day.ordinal() * 4);
+        }
+
+        /**
+         * Checks whether the employee under the cursor works during an hour
+         * @param day the day of the week
+         * @param hour the hour of the day
+         * @return true if the employee was given the hour
+         */
+        public boolean isAssigned(Day day, int hour) {
+            return (this.getAssignedMask(day) & (1 << hour)) != 0;
+        }
+
+        /**
+         * Hours the employee under the cursor works through the week
+         * @return the amount of hours
+         */
+        public int getHoursWorked() {
+            return this.schedule.buffer.getInt(this.record + HOURS_WORKED);
+        }
+    }
+}
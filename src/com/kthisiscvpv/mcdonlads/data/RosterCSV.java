@@ -0,0 +1,258 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.json.CDL;
+import org.json.JSONException;
+import org.json.JSONTokener;
+
+/**
+ * Reader and writer for employees files in comma delimited (CSV) format
+ * The first row names the columns, which may come in any order. Every other row is one employee, and is turned straight into a Manager or Worker as it is read, so only the current row is ever held as text.
+ * Availability is written as one column per day holding a range expression, such as "9-12 20", the same as the hours typed into the console.
+ * @author Charles
+ */
+public class RosterCSV {
+
+    public static final String EMPLOYEE_NUMBER = "employee_number"; // Names of the columns
+    public static final String FIRST_NAME = "first_name";
+    public static final String LAST_NAME = "last_name";
+    public static final String ADDRESS = "address";
+    public static final String ROLE = "role";
+    public static final String WAGE = "wage";
+
+    private static final String[] REQUIRED_COLUMNS = { EMPLOYEE_NUMBER, FIRST_NAME, LAST_NAME, ADDRESS, ROLE, WAGE }; // Columns every file must have, the day columns may be left out
+
+    /**
+     * Checks whether a file should be read and written as CSV, based on its extension
+     * @param file the file in question
+     * @return true if the file name ends with .csv
+     */
+    public static boolean isCSVFile(File file) {
+        return file.getName().toLowerCase(Locale.ROOT).endsWith(".csv");
+    }
+
+    /**
+     * Returns the name of the column holding the availability of a day
+     * @param day day of the week
+     * @return the name of the day in lower case, such as "monday"
+     */
+    public static String getDayColumn(Day day) {
+        return day.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Reads the employees out of a CSV file, in the same charset that the employees files are written with
+     * @param file the CSV file
+     * @return list of the employees, in the order of the file
+     * @throws IOException the file could not be read or is not a valid employees file
+     */
+    public static List<Employee> read(File file) throws IOException {
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file.toPath()), Charset.defaultCharset())) {
+            return RosterCSV.read(reader);
+        }
+    }
+
+    /**
+     * Reads the employees out of CSV text
+     * @param reader reader of the CSV text, which is consumed in blocks
+     * @return list of the employees, in the order of the text
+     * @throws IOException the text could not be read or is not a valid employees file
+     */
+    public static List<Employee> read(Reader reader) throws IOException {
+        JSONTokener tokener = new JSONTokener(reader); // Buffers the reader and drops each row once it has been read
+        List<Employee> employees = new ArrayList<Employee>();
+        try {
+            int[] columns = RosterCSV.readHeader(tokener);
+            if (columns == null) { // An empty file has no employees
+                return employees;
+            }
+
+            int rowNumber = 1; // The header is the first row
+            String[] row;
+            while ((row = CDL.rowToArray(tokener)) != null) { // Turns each row into an employee as soon as it is read
+                rowNumber++;
+                try {
+                    HashMap<Day, boolean[]> availability = new HashMap<Day, boolean[]>();
+                    for (Day day : Day.values()) {
+                        String hours = value(row, columns[REQUIRED_COLUMNS.length + day.ordinal()]);
+                        availability.put(day, ScheduleParser.toAvailability(hours.isEmpty() ? 0 : ScheduleParser.parseRanges(hours)));
+                    }
+
+                    int number = Integer.parseInt(value(row, columns[0])); // Same order as REQUIRED_COLUMNS
+                    double pay = Double.parseDouble(value(row, columns[5]));
+                    String roleName = value(row, columns[4]);
+                    if (roleName.equalsIgnoreCase("manager")) {
+                        employees.add(new Manager(value(row, columns[1]), value(row, columns[2]), value(row, columns[3]), number, pay, availability));
+                    } else if (roleName.equalsIgnoreCase("worker")) {
+                        employees.add(new Worker(value(row, columns[1]), value(row, columns[2]), value(row, columns[3]), number, pay, availability));
+                    } else {
+                        throw new IOException("Row " + rowNumber + ": Unknown role '" + roleName + "', expected Manager or Worker.");
+                    }
+                } catch (NumberFormatException e) { // Also covers a malformed range expression
+                    throw new IOException("Row " + rowNumber + ": " + e.getMessage(), e);
+                }
+            }
+            if (rowNumber == 1) { // Most likely cut short, an empty roster would replace every employee
+                throw new IOException("The employees file has a header but no employees.");
+            }
+        } catch (JSONException e) { // Badly quoted values
+            throw new IOException(e.getMessage(), e);
+        }
+        return employees;
+    }
+
+    /**
+     * Reads the employees out of a CSV file straight into columns, without creating Employee objects
+     * @param file the CSV file
+     * @return roster of the employees, in the order of the file
+     * @throws IOException the file could not be read or is not a valid employees file
+     */
+    public static ColumnarRoster readColumnar(File file) throws IOException {
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file.toPath()), Charset.defaultCharset())) {
+            return RosterCSV.readColumnar(reader);
+        }
+    }
+
+    /**
+     * Reads the employees out of CSV text straight into columns, without creating Employee objects
+     * @param reader reader of the CSV text, which is consumed in blocks
+     * @return roster of the employees, in the order of the text
+     * @throws IOException the text could not be read or is not a valid employees file
+     */
+    public static ColumnarRoster readColumnar(Reader reader) throws IOException {
+        JSONTokener tokener = new JSONTokener(reader);
+        ColumnarRoster roster = new ColumnarRoster();
+        try {
+            int[] columns = RosterCSV.readHeader(tokener);
+            if (columns == null) {
+                return roster;
+            }
+
+            int[] dayMasks = new int[Day.values().length]; // Reused for every row, the roster copies it
+            int rowNumber = 1;
+            String[] row;
+            while ((row = CDL.rowToArray(tokener)) != null) {
+                rowNumber++;
+                try {
+                    for (Day day : Day.values()) {
+                        String hours = value(row, columns[REQUIRED_COLUMNS.length + day.ordinal()]);
+                        dayMasks[day.ordinal()] = hours.isEmpty() ? 0 : ScheduleParser.parseRanges(hours);
+                    }
+
+                    String roleName = value(row, columns[4]);
+                    boolean manager = roleName.equalsIgnoreCase("manager");
+                    if (!manager && !roleName.equalsIgnoreCase("worker")) {
+                        throw new IOException("Row " + rowNumber + ": Unknown role '" + roleName + "', expected Manager or Worker.");
+                    }
+                    roster.add(manager, Integer.parseInt(value(row, columns[0])), value(row, columns[1]), value(row, columns[2]), value(row, columns[3]), Double.parseDouble(value(row, columns[5])), dayMasks);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Row " + rowNumber + ": " + e.getMessage(), e);
+                }
+            }
+            if (rowNumber == 1) {
+                throw new IOException("The employees file has a header but no employees.");
+            }
+        } catch (JSONException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        return roster;
+    }
+
+    /**
+     * Reads the header row and finds the index of each column
+     * @param tokener the tokener over the CSV text
+     * @return the index of each of the REQUIRED_COLUMNS followed by each day, -1 for the days that were left out, or null if the text is empty
+     * @throws IOException a required column is missing
+     */
+    private static int[] readHeader(JSONTokener tokener) throws IOException {
+        String[] header = CDL.rowToArray(tokener);
+        if (header == null) {
+            return null;
+        }
+
+        Map<String, Integer> columns = new HashMap<String, Integer>(); // Index of each column by its name
+        for (int i = 0; i < header.length; i++) {
+            columns.put(header[i].trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        int[] indexes = new int[REQUIRED_COLUMNS.length + Day.values().length];
+        for (int i = 0; i < REQUIRED_COLUMNS.length; i++) {
+            Integer index = columns.get(REQUIRED_COLUMNS[i]);
+            if (index == null) {
+                throw new IOException("The employees file is missing the '" + REQUIRED_COLUMNS[i] + "' column.");
+            }
+            indexes[i] = index;
+        }
+        for (Day day : Day.values()) { // The day columns may be left out
+            Integer index = columns.get(getDayColumn(day));
+            indexes[REQUIRED_COLUMNS.length + day.ordinal()] = index == null ? -1 : index;
+        }
+        return indexes;
+    }
+
+    /**
+     * Writes employees to a CSV file, in the same charset that the employees files are read with
+     * @param file the CSV file
+     * @param employees the employees to write, in the order they should be written
+     * @throws IOException the file could not be written
+     */
+    public static void write(File file, List<Employee> employees) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file.toPath()), Charset.defaultCharset()), 65536)) {
+            RosterCSV.write(writer, employees);
+        }
+    }
+
+    /**
+     * Writes employees as CSV text, one row at a time
+     * @param writer where the text is written
+     * @param employees the employees to write, in the order they should be written
+     * @throws IOException the text could not be written
+     */
+    public static void write(Writer writer, List<Employee> employees) throws IOException {
+        Day[] days = Day.values();
+        String[] row = new String[REQUIRED_COLUMNS.length + days.length]; // Reused for every row
+
+        System.arraycopy(REQUIRED_COLUMNS, 0, row, 0, REQUIRED_COLUMNS.length); // Writes the header
+        for (Day day : days) {
+            row[REQUIRED_COLUMNS.length + day.ordinal()] = getDayColumn(day);
+        }
+        writer.write(CDL.rowToString(row));
+
+        for (Employee employee : employees) {
+            row[0] = Integer.toString(employee.getEmployeeNumber()); // Same order as REQUIRED_COLUMNS
+            row[1] = employee.getFirstName();
+            row[2] = employee.getLastName();
+            row[3] = employee.getAddress();
+            row[4] = employee instanceof Manager ? "Manager" : "Worker";
+            row[5] = employee.getPayInfo();
+            for (Day day : days) {
+                row[REQUIRED_COLUMNS.length + day.ordinal()] = ScheduleParser.formatRanges(employee.getAvailabilityMask(day));
+            }
+            writer.write(CDL.rowToString(row));
+        }
+    }
+
+    /**
+     * Returns a value of a row, treating missing columns as empty
+     * @param row the values of the row
+     * @param index index of the column, -1 if the file does not have the column
+     * @return the value, never null
+     */
+    private static String value(String[] row, int index) {
+        return index >= 0 && index < row.length && row[index] != null ? row[index] : "";
+    }
+}
@@ -0,0 +1,340 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Differences between the current roster and a new one, matched by employee number, along with the roster that results from merging them
+ * The current employees are put in a hash map once, and each new employee is looked up in it, so comparing two rosters takes time in proportion to their sizes. The merged roster is built during the same pass.
+ * An employee number that appears more than once within a roster is matched by its last employee. The earlier ones are left out of the merged roster and reported as duplicates, so the merged roster never holds an employee number twice.
+ * @author Charles
+ */
+public class RosterDiff {
+
+    /**
+     * How the new roster is merged into the current one
+     * @author Charles
+     */
+    public enum Policy {
+        REPLACE, // The new roster replaces the current one: employees are added, updated, and removed if they are not in the new roster
+        UPSERT, // Employees are added and updated, employees that are not in the new roster are kept
+        ADD_ONLY; // Only employees with new employee numbers are added, the current employees are left as they are
+    }
+
+    private Policy policy; // General variable declarations
+    private List<Employee> added;
+    private List<Change> changes;
+    private List<Employee> removed; // Employees that are only in the current roster, which are only removed by REPLACE
+    private List<Employee> duplicates; // Employees left out because a later employee of the same roster has the same employee number
+    private boolean duplicatesInCurrent;
+    private List<Employee> result;
+    private int availabilityChanges;
+
+    /**
+     * Creates an empty diff
+     * @param policy how the rosters are merged
+     */
+    private RosterDiff(Policy policy) {
+        this.policy = policy;
+        this.added = new ArrayList<Employee>();
+        this.changes = new ArrayList<Change>();
+        this.removed = new ArrayList<Employee>();
+        this.duplicates = new ArrayList<Employee>();
+    }
+
+    /**
+     * Compares the current roster with a new one that replaces it
+     * @param current the current employees
+     * @param incoming the new employees
+     * @return the differences, along with the new roster
+     */
+    public static RosterDiff compare(List<Employee> current, List<Employee> incoming) {
+        return RosterDiff.compare(current, incoming, Policy.REPLACE);
+    }
+
+    /**
+     * Compares the current roster with a new one and merges them
+     * @param current the current employees
+     * @param incoming the new employees
+     * @param policy how the rosters are merged
+     * @return the differences, along with the merged roster
+     */
+    public static RosterDiff compare(List<Employee> current, List<Employee> incoming, Policy policy) {
+        RosterDiff diff = new RosterDiff(policy);
+        HashMap<Integer, Integer> indexByNumber = RosterDiff.indexByNumber(current); // Index of the last current employee with each employee number
+        HashMap<Integer, Integer> incomingByNumber = RosterDiff.indexByNumber(incoming);
+
+        int[] resultIndex = new int[current.size()]; // Index of each current employee in the merged roster
+        if (policy == Policy.REPLACE) { // Merged in the order of the new roster
+            diff.result = new ArrayList<Employee>(incoming.size());
+        } else { // Merged in the order of the current roster, with the added employees after it
+            diff.result = new ArrayList<Employee>(current.size() + incoming.size());
+        }
+        for (int i = 0; i < current.size(); i++) {
+            Employee employee = current.get(i);
+            if (indexByNumber.get(employee.getEmployeeNumber()) != i) { // A later current employee has the same employee number
+                diff.duplicates.add(employee);
+                diff.duplicatesInCurrent = true;
+            } else if (policy != Policy.REPLACE) {
+                resultIndex[i] = diff.result.size();
+                diff.result.add(employee);
+            }
+        }
+
+        boolean[] matched = new boolean[current.size()];
+        for (int i = 0; i < incoming.size(); i++) {
+            Employee employee = incoming.get(i);
+            if (incomingByNumber.get(employee.getEmployeeNumber()) != i) { // A later new employee has the same employee number
+                diff.duplicates.add(employee);
+                continue;
+            }
+
+            Integer index = indexByNumber.get(employee.getEmployeeNumber());
+            if (index == null) { // New employee number
+                diff.added.add(employee);
+                diff.result.add(employee);
+                continue;
+            }
+            matched[index] = true;
+
+            Employee previous = current.get(index);
+            Change change = Change.compare(previous, employee);
+            if (change != null) {
+                diff.changes.add(change);
+                if (!change.getDays().isEmpty()) {
+                    diff.availabilityChanges++;
+                }
+            }
+
+            if (policy == Policy.REPLACE) {
+                diff.result.add(change != null ? employee : previous); // Unchanged employees keep their current object, along with anything that refers to it
+            } else if (policy == Policy.UPSERT && change != null) {
+                diff.result.set(resultIndex[index], employee);
+            }
+        }
+
+        for (int i = 0; i < matched.length; i++) {
+            if (!matched[i] && indexByNumber.get(current.get(i).getEmployeeNumber()) == i) {
+                diff.removed.add(current.get(i));
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * Indexes the employees of a roster by employee number
+     * @param employees the employees
+     * @return the index of the last employee with each employee number
+     */
+    private static HashMap<Integer, Integer> indexByNumber(List<Employee> employees) {
+        HashMap<Integer, Integer> indexByNumber = new HashMap<Integer, Integer>(employees.size() * 2);
+        for (int i = 0; i < employees.size(); i++) {
+            indexByNumber.put(employees.get(i).getEmployeeNumber(), i);
+        }
+        return indexByNumber;
+    }
+
+    /**
+     * Checks whether the rosters hold the same employees
+     * @return true if nothing was added, changed, removed or repeated
+     */
+    public boolean isEmpty() {
+        return this.added.isEmpty() && this.changes.isEmpty() && this.removed.isEmpty() && this.duplicates.isEmpty();
+    }
+
+    /**
+     * Checks whether merging changes the current roster
+     * @return true if the merged roster differs from the current one
+     */
+    public boolean isApplied() {
+        return !this.added.isEmpty() || (this.policy != Policy.ADD_ONLY && !this.changes.isEmpty()) || (this.policy == Policy.REPLACE && !this.removed.isEmpty()) || this.duplicatesInCurrent;
+    }
+
+    /**
+     * How the rosters were merged
+     * @return the merge policy
+     */
+    public Policy getPolicy() {
+        return this.policy;
+    }
+
+    /**
+     * Employees whose employee numbers are only in the new roster
+     * @return list of the added employees
+     */
+    public List<Employee> getAdded() {
+        return this.added;
+    }
+
+    /**
+     * Employees whose data differs between the rosters
+     * @return list of the changes, in the order of the new roster
+     */
+    public List<Change> getChanges() {
+        return this.changes;
+    }
+
+    /**
+     * Employees whose employee numbers are only in the current roster
+     * @return list of the employees, which are only removed from the merged roster by REPLACE
+     */
+    public List<Employee> getRemoved() {
+        return this.removed;
+    }
+
+    /**
+     * Employees left out of the merged roster because a later employee of the same roster has the same employee number
+     * @return list of the employees, from the current roster first and then from the new roster
+     */
+    public List<Employee> getDuplicates() {
+        return this.duplicates;
+    }
+
+    /**
+     * Amount of changed employees whose availability differs
+     * @return the count of availability changes
+     */
+    public int getAvailabilityChanges() {
+        return this.availabilityChanges;
+    }
+
+    /**
+     * The roster after merging, in the order of the new roster for REPLACE, otherwise in the order of the current roster followed by the added employees
+     * Employees that were not changed are the same objects as in the current roster.
+     * @return list of the employees
+     */
+    public List<Employee> getResult() {
+        return this.result;
+    }
+
+    @Override
+    public String toString() {
+        return this.added.size() + " Added, " + this.changes.size() + (this.policy == Policy.ADD_ONLY ? " Changed (Not Applied), " : " Changed (" + this.availabilityChanges + " in Availability), ") + this.removed.size() + (this.policy == Policy.REPLACE ? " Removed" : " Not in the New Roster (Kept)") + (this.duplicates.isEmpty() ? "" : ", " + this.duplicates.size() + " Repeated Employee Numbers (Last Kept)");
+    }
+
+    /**
+     * Differences between the current and the new version of an employee
+     * @author Charles
+     */
+    public static class Change {
+
+        private Employee previous; // General variable declarations
+        private Employee updated;
+        private List<String> fields;
+        private List<Day> days;
+
+        /**
+         * Creates a change
+         * @param previous the current version of the employee
+         * @param updated the new version of the employee
+         * @param fields names of the fields that differ
+         * @param days days of which the availability differs
+         */
+        private Change(Employee previous, Employee updated, List<String> fields, List<Day> days) {
+            this.previous = previous;
+            this.updated = updated;
+            this.fields = fields;
+            this.days = days;
+        }
+
+        /**
+         * Compares two versions of an employee
+         * @param previous the current version
+         * @param updated the new version
+         * @return the differences, or null if both versions hold the same data
+         */
+        public static Change compare(Employee previous, Employee updated) {
+            List<String> fields = null; // Only created once a difference is found, most employees do not change
+            if (previous.getClass() != updated.getClass()) {
+                fields = Change.add(fields, RosterCSV.ROLE);
+            }
+            if (!String.valueOf(previous.getFirstName()).equals(String.valueOf(updated.getFirstName()))) {
+                fields = Change.add(fields, RosterCSV.FIRST_NAME);
+            }
+            if (!String.valueOf(previous.getLastName()).equals(String.valueOf(updated.getLastName()))) {
+                fields = Change.add(fields, RosterCSV.LAST_NAME);
+            }
+            if (!String.valueOf(previous.getAddress()).equals(String.valueOf(updated.getAddress()))) {
+                fields = Change.add(fields, RosterCSV.ADDRESS);
+            }
+            if (Double.compare(previous.getWage(), updated.getWage()) != 0) {
+                fields = Change.add(fields, RosterCSV.WAGE);
+            }
+
+            List<Day> days = null;
+            for (Day day : Day.values()) {
+                if (!Arrays.equals(previous.getSchedule(day), updated.getSchedule(day)) && previous.getAvailabilityMask(day) != updated.getAvailabilityMask(day)) { // The arrays are compared first as that is much quicker, a missing day and a day without hours are still the same
+                    if (days == null) {
+                        days = new ArrayList<Day>();
+                    }
+                    days.add(day);
+                }
+            }
+
+            if (fields == null && days == null) {
+                return null;
+            }
+            return new Change(previous, updated, fields != null ? fields : new ArrayList<String>(), days != null ? days : new ArrayList<Day>());
+        }
+
+        /**
+         * Adds a field to a list, creating the list if needed
+         * @param fields the list, or null
+         * @param field the name of the field
+         * @return the list
+         */
+        private static List<String> add(List<String> fields, String field) {
+            if (fields == null) {
+                fields = new ArrayList<String>();
+            }
+            fields.add(field);
+            return fields;
+        }
+
+        /**
+         * The current version of the employee
+         * @return the employee
+         */
+        public Employee getPrevious() {
+            return this.previous;
+        }
+
+        /**
+         * The new version of the employee
+         * @return the employee
+         */
+        public Employee getUpdated() {
+            return this.updated;
+        }
+
+        /**
+         * Names of the fields that differ, the same as the columns of the CSV file
+         * @return list of the field names, not including availability
+         */
+        public List<String> getFields() {
+            return this.fields;
+        }
+
+        /**
+         * Days of which the availability differs
+         * @return list of the days
+         */
+        public List<Day> getDays() {
+            return this.days;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder("#" + this.updated.getEmployeeNumber() + " " + this.updated.getLastName() + ", " + this.updated.getFirstName() + ":");
+            for (String field : this.fields) {
+                text.append(' ').append(field);
+            }
+            for (Day day : this.days) {
+                text.append(' ').append(RosterCSV.getDayColumn(day)).append(" (").append(ScheduleParser.formatRanges(this.previous.getAvailabilityMask(day))).append(" -> ").append(ScheduleParser.formatRanges(this.updated.getAvailabilityMask(day))).append(')');
+            }
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.json.SymbolTable;
+
+/**
+ * Parser for the contents of an employees file that builds the employees in parallel
+ * A quick first pass only finds where each manager and worker starts and ends. The employees are then parsed and created across a fork-join pool, and are returned in the order of the file.
+ * @author Charles
+ */
+public class RosterParser {
+
+    private static final int SEQUENTIAL_THRESHOLD = 64; // Tasks with at most this many employees build them themselves instead of splitting
+
+    /**
+     * Reads the employees out of an employees file, from its binary snapshot if it has an up to date one
+     * @param file the employees file
+     * @return list of the employees, in the order of the snapshot or the file
+     * @throws IOException the file could not be read or is not a valid employees file
+     */
+    public static List<Employee> read(File file) throws IOException {
+        try {
+            RosterSnapshot snapshot = RosterSnapshot.open(file);
+            if (snapshot != null) {
+                return new ArrayList<Employee>(snapshot.asList()); // Creates every employee now, the snapshot may be rewritten later
+            }
+        } catch (IOException e) { // The snapshot could not be mapped, the file itself is read instead
+            e.printStackTrace();
+        }
+
+        String text = new String(Files.readAllBytes(file.toPath()), Charset.defaultCharset()); // The same charset that the file is written with
+        if (text.trim().length() <= 2) { // An empty file or '{}' has no employees
+            return new ArrayList<Employee>();
+        }
+        try {
+            return RosterParser.parse(text);
+        } catch (JSONException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parses the contents of an employees file with the common fork-join pool
+     * @param text the contents of the employees file
+     * @return list of the managers followed by the workers, in the order of the file
+     * @throws org.json.JSONException the contents are not a valid employees file
+     */
+    public static List<Employee> parse(String text) {
+        return RosterParser.parse(text, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parses the contents of an employees file
+     * @param text the contents of the employees file
+     * @param pool the fork-join pool that the employees are created in
+     * @return list of the managers followed by the workers, in the order of the file
+     * @throws org.json.JSONException the contents are not a valid employees file
+     */
+    public static List<Employee> parse(String text, ForkJoinPool pool) {
+        JSONTokener tokener = new JSONTokener(text);
+        tokener.setLazy(true); // The first pass only records the range of each manager and worker
+        tokener.setSymbolTable(new SymbolTable()); // Shared by all the threads, the repeated keys and values are only kept once
+        JSONObject mainBracket = new JSONObject(tokener);
+
+        JSONArray managers = mainBracket.getJSONArray("managers_info"); // Arrays of unparsed managers and workers
+        JSONArray workers = mainBracket.getJSONArray("workers_info");
+
+        Employee[] employees = new Employee[managers.length() + workers.length()]; // Each task fills in its own slots, which keeps the order of the file
+        pool.invoke(new BuildTask(managers, workers, employees, 0, employees.length));
+        return new ArrayList<Employee>(Arrays.asList(employees));
+    }
+
+    /**
+     * Task that parses and creates the employees in a range of the combined managers and workers
+     * @author Charles
+     */
+    @SuppressWarnings("serial")
+    private static class BuildTask extends RecursiveAction {
+
+        private JSONArray managers; // General variable declarations
+        private JSONArray workers;
+        private Employee[] employees;
+        private int start;
+        private int end;
+
+        /**
+         * Creates a task for a range of the employees
+         * @param managers array of unparsed managers
+         * @param workers array of unparsed workers
+         * @param employees array that the created employees are stored in, managers first
+         * @param start index of the first employee in the range
+         * @param end index after the last employee in the range
+         */
+        public BuildTask(JSONArray managers, JSONArray workers, Employee[] employees, int start, int end) {
+            this.managers = managers;
+            this.workers = workers;
+            this.employees = employees;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.end - this.start <= SEQUENTIAL_THRESHOLD) { // Small enough to do here
+                int managerCount = this.managers.length();
+                for (int i = this.start; i < this.end; i++) {
+                    if (i < managerCount) {
+                        this.employees[i] = new Manager(this.managers.getJSONObject(i)); // Parses the manager's object and creates the manager
+                    } else {
+                        this.employees[i] = new Worker(this.workers.getJSONObject(i - managerCount));
+                    }
+                }
+            } else { // Splits the range in half
+                int middle = (this.start + this.end) >>> 1;
+                invokeAll(new BuildTask(this.managers, this.workers, this.employees, this.start, middle), new BuildTask(this.managers, this.workers, this.employees, middle, this.end));
+            }
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.zip.CRC32;
+
+/**
+ * Fixed-layout binary copy of an employees file that can be memory mapped on startup
+ * The snapshot is made of a header, one fixed size record per employee and a table of the strings used by the records. Employees are only created from their record when they are first accessed.
+ * @author Charles
+ */
+public class RosterSnapshot {
+
+    private static final int MAGIC = 0x4D434452; // "MCDR"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 40; // magic, version, source length, source modified, source checksum, record count, string count
+    private static final int RECORD_COUNT = 32; // Offsets within the header
+    private static final int STRING_COUNT = 36;
+    private static final int RECORD_SIZE = 56; // role, padding, employee number, 3 string indexes, wage, 7 availability masks
+
+    private static final byte MANAGER = 1;
+    private static final byte WORKER = 2;
+
+    private ByteBuffer buffer; // General variable declarations
+    private int recordCount;
+    private int stringTable;
+
+    /**
+     * Creates a snapshot over a mapped buffer whose header has already been verified
+     * @param buffer the mapped snapshot file
+     */
+    private RosterSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.recordCount = buffer.getInt(RECORD_COUNT);
+        this.stringTable = HEADER_SIZE + this.recordCount * RECORD_SIZE;
+    }
+
+    /**
+     * Returns the location of the snapshot that belongs to an employees file
+     * @param source the employees file
+     * @return the snapshot file, next to the employees file with a .bin extension
+     */
+    public static File getSnapshotFile(File source) {
+        String name = source.getName();
+        int extension = name.lastIndexOf('.');
+        return new File(source.getAbsoluteFile().getParentFile(), (extension > 0 ? name.substring(0, extension) : name) + ".bin");
+    }
+
+    /**
+     * Opens the snapshot of an employees file
+     * The contents of the employees file are only checked against the snapshot when its modification time does not come after that of the snapshot, otherwise the recorded size and time are enough.
+     * @param source the employees file
+     * @return the snapshot, or null if there is no snapshot or it was not written from the current version of the employees file
+     * @throws IOException the snapshot could not be mapped
+     */
+    public static RosterSnapshot open(File source) throws IOException {
+        File snapshotFile = getSnapshotFile(source);
+        if (!source.exists() || !snapshotFile.exists() || snapshotFile.length() < HEADER_SIZE) { // Nothing to open
+            return null;
+        }
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // The mapping stays valid after the channel is closed
+        }
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) { // Not a snapshot this program understands
+            return null;
+        }
+        if (buffer.getLong(8) != source.length() || buffer.getLong(16) != source.lastModified()) { // The employees file has changed since the snapshot was written
+            return null;
+        }
+        if (buffer.capacity() < HEADER_SIZE + (long) buffer.getInt(RECORD_COUNT) * RECORD_SIZE + 4L * buffer.getInt(STRING_COUNT)) { // The file was cut short
+            return null;
+        }
+        if (snapshotFile.lastModified() <= source.lastModified()) { // Modification times can be a second or more apart, an edit within the same tick as the snapshot keeps the same time and often the same size
+            long verified = System.currentTimeMillis();
+            if (buffer.getLong(24) != RosterSnapshot.checksum(source)) {
+                return null;
+            }
+            snapshotFile.setLastModified(verified); // Any later edit lands in a later tick than this, so the next open can trust the time alone
+        }
+        return new RosterSnapshot(buffer);
+    }
+
+    /**
+     * Writes the snapshot of an employees file. The employees file must already have been saved, as its size and modification time are recorded.
+     * @param source the employees file the snapshot belongs to
+     * @param employees the employees in the order they should be read back
+     * @return the checksum of the employees file that was recorded
+     * @throws IOException the snapshot could not be written
+     */
+    public static long write(File source, List<Employee> employees) throws IOException {
+        Map<String, Integer> stringIndexes = new HashMap<String, Integer>(); // Strings that repeat are only stored once
+        List<byte[]> strings = new ArrayList<byte[]>();
+        int[][] recordStrings = new int[employees.size()][3];
+        int stringBytes = 0;
+
+        for (int i = 0; i < employees.size(); i++) { // Builds the table of strings
+            Employee employee = employees.get(i);
+            String[] values = { employee.getFirstName(), employee.getLastName(), employee.getAddress() };
+            for (int s = 0; s < values.length; s++) {
+                String value = values[s] == null ? "" : values[s];
+                Integer index = stringIndexes.get(value);
+                if (index == null) {
+                    byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+                    index = strings.size();
+                    stringIndexes.put(value, index);
+                    strings.add(encoded);
+                    stringBytes += 4 + encoded.length;
+                }
+                recordStrings[i][s] = index;
+            }
+        }
+
+        int stringTable = HEADER_SIZE + employees.size() * RECORD_SIZE;
+        long checksum = RosterSnapshot.checksum(source);
+        ByteBuffer buffer = ByteBuffer.allocate(stringTable + strings.size() * 4 + stringBytes);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(source.length()).putLong(source.lastModified()).putLong(checksum).putInt(employees.size()).putInt(strings.size());
+
+        for (int i = 0; i < employees.size(); i++) { // Writes each of the employee records
+            Employee employee = employees.get(i);
+            buffer.put(employee instanceof Manager ? MANAGER : WORKER).put((byte) 0).put((byte) 0).put((byte) 0);
+            buffer.putInt(employee.getEmployeeNumber());
+            buffer.putInt(recordStrings[i][0]).putInt(recordStrings[i][1]).putInt(recordStrings[i][2]);
+            buffer.putDouble(employee.getWage());
+            for (Day day : Day.values()) {
+                buffer.putInt(employee.getAvailabilityMask(day));
+            }
+        }
+
+        int stringOffset = stringTable + strings.size() * 4; // Each string is located through a table of offsets
+        for (byte[] encoded : strings) {
+            buffer.putInt(stringOffset);
+            stringOffset += 4 + encoded.length;
+        }
+        for (byte[] encoded : strings) {
+            buffer.putInt(encoded.length).put(encoded);
+        }
+        buffer.flip();
+
+        Path target = getSnapshotFile(source).toPath();
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp"); // Written to the side first so that a reader never sees half a snapshot
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return checksum;
+    }
+
+    /**
+     * Computes the checksum of the contents of an employees file
+     * @param source the employees file
+     * @return the CRC-32 of the file
+     * @throws IOException the file could not be read
+     */
+    public static long checksum(File source) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer chunk = ByteBuffer.allocateDirect(1 << 20);
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            while (channel.read(chunk) != -1) {
+                chunk.flip();
+                crc.update(chunk);
+                chunk.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Amount of employees in the snapshot
+     * @return integer representation of the amount of records
+     */
+    public int size() {
+        return this.recordCount;
+    }
+
+    /**
+     * Creates the employee stored in a record
+     * @param index index of the record
+     * @return a new Manager or Worker with the data of the record
+     */
+    public Employee read(int index) {
+        int record = HEADER_SIZE + index * RECORD_SIZE;
+        int employeeNumber = this.buffer.getInt(record + 4);
+        String firstName = this.readString(this.buffer.getInt(record + 8));
+        String lastName = this.readString(this.buffer.getInt(record + 12));
+        String address = this.readString(this.buffer.getInt(record + 16));
+        double wage = this.buffer.getDouble(record + 20);
+
+        HashMap<Day, boolean[]> availability = new HashMap<Day, boolean[]>();
+        for (Day day : Day.values()) {
+            availability.put(day, ScheduleParser.toAvailability(this.buffer.getInt(record + 28 + day.ordinal() * 4)));
+        }
+
+        if (this.buffer.get(record) == MANAGER) {
+            return new Manager(firstName, lastName, address, employeeNumber, wage, availability);
+        } else {
+            return new Worker(firstName, lastName, address, employeeNumber, wage, availability);
+        }
+    }
+
+    /**
+     * Returns a modifiable list of the employees in the snapshot which creates each employee on first access
+     * @return list of the employees in the snapshot
+     */
+    public List<Employee> asList() {
+        return new SnapshotList(this);
+    }
+
+    /**
+     * Decodes a string out of the string table
+     * @param index index of the string
+     * @return the decoded string
+     */
+    private String readString(int index) {
+        int offset = this.buffer.getInt(this.stringTable + index * 4);
+        int length = this.buffer.getInt(offset);
+        byte[] encoded = new byte[length];
+        for (int i = 0; i < length; i++) {
+            encoded[i] = this.buffer.get(offset + 4 + i);
+        }
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * List view over a snapshot. Employees are read from the snapshot as they are accessed, and the whole list is copied over to a regular list once it is structurally modified.
+     */
+    private static class SnapshotList extends AbstractList<Employee> implements RandomAccess {
+
+        private RosterSnapshot snapshot;
+        private Employee[] views;
+        private List<Employee> detached;
+
+        private SnapshotList(RosterSnapshot snapshot) {
+            this.snapshot = snapshot;
+            this.views = new Employee[snapshot.size()];
+        }
+
+        @Override
+        public Employee get(int index) {
+            if (this.detached != null) {
+                return this.detached.get(index);
+            }
+            if (this.views[index] == null) { // First access to this employee
+                this.views[index] = this.snapshot.read(index);
+            }
+            return this.views[index];
+        }
+
+        @Override
+        public int size() {
+            return this.detached != null ? this.detached.size() : this.views.length;
+        }
+
+        @Override
+        public Employee set(int index, Employee employee) {
+            if (this.detached != null) {
+                return this.detached.set(index, employee);
+            }
+            Employee previous = this.get(index);
+            this.views[index] = employee;
+            return previous;
+        }
+
+        @Override
+        public void add(int index, Employee employee) {
+            this.detach().add(index, employee);
+            this.modCount++;
+        }
+
+        @Override
+        public Employee remove(int index) {
+            Employee previous = this.detach().remove(index);
+            this.modCount++;
+            return previous;
+        }
+
+        @Override
+        public void clear() {
+            this.detached = new ArrayList<Employee>();
+            this.views = null;
+            this.snapshot = null;
+            this.modCount++;
+        }
+
+        /**
+         * Copies every employee over to a regular list
+         * @return the regular list
+         */
+        private List<Employee> detach() {
+            if (this.detached == null) {
+                List<Employee> employees = new ArrayList<Employee>(this.views.length + 16);
+                for (int i = 0; i < this.views.length; i++) {
+                    employees.add(this.get(i));
+                }
+                this.detached = employees;
+                this.views = null;
+                this.snapshot = null;
+            }
+            return this.detached;
+        }
+    }
+}
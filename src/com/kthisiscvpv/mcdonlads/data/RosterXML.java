@@ -0,0 +1,344 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.json.JSONException;
+import org.json.XML;
+import org.json.XMLTokener;
+
+/**
+ * Event driven reader for employees files in XML format
+ * The document is read tag by tag from an XMLTokener over a reader, and each employee is handed out as soon as its element closes, so only the employee being read is ever held in memory.
+ * Employees are the elements named manager, worker or employee, or managers_info and workers_info as produced by converting an employees file with XML.toString(). Their fields are either attributes or child elements with the same names as the JSON and CSV files. Availability is either a schedule element per day, as in the JSON file, or one element per day holding a range expression, as in the CSV file.
+ * @author Charles
+ */
+public class RosterXML {
+
+    private Consumer<Employee> handler; // General variable declarations
+    private Deque<String> openElements; // Names of the elements that have not been closed yet
+    private StringBuilder text; // Text of the innermost element
+
+    private int recordDepth; // Depth of the employee element being read, -1 outside of an employee
+    private String recordRole; // "manager", "worker", or null if the role is given by a field
+    private int recordCount;
+    private Map<String, String> fields;
+    private HashMap<Day, boolean[]> availability;
+
+    private Day scheduleDay; // Day and hours of the schedule element being read
+    private boolean[] scheduleHours;
+
+    /**
+     * Creates a reader that hands out the employees it reads
+     * @param handler called with each employee as soon as its element closes
+     */
+    private RosterXML(Consumer<Employee> handler) {
+        this.handler = handler;
+        this.openElements = new ArrayDeque<String>();
+        this.text = new StringBuilder();
+        this.recordDepth = -1;
+    }
+
+    /**
+     * Checks whether a file should be read as XML, based on its extension
+     * @param file the file in question
+     * @return true if the file name ends with .xml
+     */
+    public static boolean isXMLFile(File file) {
+        return file.getName().toLowerCase(Locale.ROOT).endsWith(".xml");
+    }
+
+    /**
+     * Reads the employees out of an XML file, in the same charset that the employees files are read with
+     * @param file the XML file
+     * @return list of the employees, in the order of the file
+     * @throws IOException the file could not be read or is not a valid employees file
+     */
+    public static List<Employee> read(File file) throws IOException {
+        final List<Employee> employees = new ArrayList<Employee>();
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file.toPath()), Charset.defaultCharset())) {
+            RosterXML.read(reader, new Consumer<Employee>() {
+                @Override
+                public void accept(Employee employee) {
+                    employees.add(employee);
+                }
+            });
+        }
+        return employees;
+    }
+
+    /**
+     * Reads the employees out of an XML document
+     * @param reader reader of the XML document, which is consumed in blocks
+     * @param handler called with each employee as soon as its element closes, in the order of the document
+     * @throws IOException the document could not be read or is not a valid employees file
+     */
+    public static void read(Reader reader, Consumer<Employee> handler) throws IOException {
+        RosterXML roster = new RosterXML(handler);
+        XMLTokener tokener = new XMLTokener(reader);
+        try {
+            roster.parse(tokener);
+        } catch (JSONException e) { // The document is not well formed
+            throw new IOException(e.getMessage(), e);
+        } catch (NumberFormatException e) { // Also covers a malformed range expression
+            throw new IOException("Employee #" + (roster.recordCount + 1) + ": " + e.getMessage(), e);
+        }
+        if (!roster.openElements.isEmpty()) {
+            throw new IOException("Unclosed element <" + roster.openElements.peek() + ">.");
+        }
+    }
+
+    /**
+     * Reads the whole document, turning each tag into an event
+     * @param x the tokener over the document
+     */
+    private void parse(XMLTokener x) {
+        while (true) {
+            Object content = x.nextContent();
+            if (content == null) { // End of the document
+                return;
+            }
+            if (content != XML.LT) { // Text between tags
+                this.text.append((String) content);
+                continue;
+            }
+
+            Object token = x.nextToken();
+            if (token == XML.BANG) { // Comments, CDATA and declarations, handled the same way as XML.toJSONObject()
+                char c = x.next();
+                if (c == '-') {
+                    if (x.next() == '-') {
+                        x.skipPast("-->");
+                        continue;
+                    }
+                    x.back();
+                } else if (c == '[') {
+                    if ("CDATA".equals(x.nextToken()) && x.next() == '[') {
+                        this.text.append(x.nextCDATA());
+                        continue;
+                    }
+                    throw x.syntaxError("Expected 'CDATA['");
+                }
+                int depth = 1;
+                do {
+                    token = x.nextMeta();
+                    if (token == XML.LT) {
+                        depth++;
+                    } else if (token == XML.GT) {
+                        depth--;
+                    }
+                } while (depth > 0);
+            } else if (token == XML.QUEST) { // Processing instructions
+                x.skipPast("?>");
+            } else if (token == XML.SLASH) { // Close tag
+                token = x.nextToken();
+                if (this.openElements.isEmpty() || !this.openElements.peek().equals(token)) {
+                    throw x.syntaxError("Mismatched close tag " + token);
+                }
+                if (x.nextToken() != XML.GT) {
+                    throw x.syntaxError("Misshaped close tag");
+                }
+                this.endElement();
+            } else if (token instanceof Character) {
+                throw x.syntaxError("Misshaped tag");
+            } else { // Open tag
+                this.startElement((String) token);
+                token = null;
+                while (true) {
+                    if (token == null) {
+                        token = x.nextToken();
+                    }
+                    if (token instanceof String) { // Attribute
+                        String name = (String) token;
+                        token = x.nextToken();
+                        if (token == XML.EQ) {
+                            token = x.nextToken();
+                            if (!(token instanceof String)) {
+                                throw x.syntaxError("Missing value");
+                            }
+                            this.attribute(name, (String) token);
+                            token = null;
+                        } else {
+                            this.attribute(name, "");
+                        }
+                    } else if (token == XML.SLASH) { // Empty tag
+                        if (x.nextToken() != XML.GT) {
+                            throw x.syntaxError("Misshaped tag");
+                        }
+                        this.endElement();
+                        break;
+                    } else if (token == XML.GT) {
+                        break;
+                    } else {
+                        throw x.syntaxError("Misshaped tag");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Called when an element opens
+     * @param name name of the element
+     */
+    private void startElement(String name) {
+        this.openElements.push(name);
+        this.text.setLength(0);
+
+        int depth = this.openElements.size();
+        String key = name.toLowerCase(Locale.ROOT);
+        if (this.recordDepth < 0) {
+            if (key.equals("manager") || key.equals("managers_info")) {
+                this.startRecord(depth, "manager");
+            } else if (key.equals("worker") || key.equals("workers_info")) {
+                this.startRecord(depth, "worker");
+            } else if (key.equals("employee")) {
+                this.startRecord(depth, null);
+            }
+        } else if (depth == this.recordDepth + 1 && key.equals("schedule")) { // One day of the schedule, as in the JSON file
+            this.scheduleDay = null;
+            this.scheduleHours = new boolean[24];
+        }
+    }
+
+    /**
+     * Called for each attribute of the element that was just opened
+     * @param name name of the attribute
+     * @param value value of the attribute
+     */
+    private void attribute(String name, String value) {
+        if (this.recordDepth == this.openElements.size()) { // Attributes of the employee element are fields
+            this.field(name, value);
+        } else if (this.scheduleHours != null && this.recordDepth + 1 == this.openElements.size()) { // <schedule day="MONDAY">
+            this.scheduleField(name, value);
+        }
+    }
+
+    /**
+     * Called when an element closes
+     */
+    private void endElement() {
+        int depth = this.openElements.size();
+        String key = this.openElements.pop().toLowerCase(Locale.ROOT);
+        String value = this.text.toString().trim();
+        this.text.setLength(0);
+
+        if (this.recordDepth < 0 || depth <= this.recordDepth) {
+            if (depth == this.recordDepth) { // The employee is complete
+                this.handler.accept(this.buildEmployee());
+                this.recordCount++;
+                this.recordDepth = -1;
+                this.fields = null;
+                this.availability = null;
+            }
+        } else if (depth == this.recordDepth + 1) { // Fields of the employee
+            if (key.equals("schedule")) {
+                if (this.scheduleDay == null) {
+                    throw new NumberFormatException("Schedule is missing its day.");
+                }
+                this.availability.put(this.scheduleDay, this.scheduleHours);
+                this.scheduleHours = null;
+            } else {
+                this.field(key, value);
+            }
+        } else if (depth == this.recordDepth + 2 && this.scheduleHours != null) { // Hours of a schedule
+            this.scheduleField(key, value);
+        }
+    }
+
+    /**
+     * Starts reading an employee
+     * @param depth depth of the employee element
+     * @param role the role given by the element name, or null
+     */
+    private void startRecord(int depth, String role) {
+        this.recordDepth = depth;
+        this.recordRole = role;
+        this.fields = new HashMap<String, String>();
+        this.availability = new HashMap<Day, boolean[]>();
+        this.scheduleHours = null;
+    }
+
+    /**
+     * Stores a field of the employee being read
+     * @param name name of the field
+     * @param value value of the field
+     */
+    private void field(String name, String value) {
+        String key = name.toLowerCase(Locale.ROOT);
+        for (Day day : Day.values()) {
+            if (key.equals(RosterCSV.getDayColumn(day))) { // A range expression, as in the CSV file
+                this.availability.put(day, ScheduleParser.toAvailability(value.isEmpty() ? 0 : ScheduleParser.parseRanges(value)));
+                return;
+            }
+        }
+        this.fields.put(key, value);
+    }
+
+    /**
+     * Stores the day or one of the hours of the schedule being read
+     * @param name "day" or the hour of the day
+     * @param value the day of the week, or whether the employee is available during the hour
+     */
+    private void scheduleField(String name, String value) {
+        if (name.equalsIgnoreCase("day")) {
+            try {
+                this.scheduleDay = Day.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new NumberFormatException("Unknown day '" + value + "'.");
+            }
+        } else {
+            int hour = Integer.parseInt(name);
+            if (hour < 0 || hour >= this.scheduleHours.length) {
+                throw new NumberFormatException("Hour must be between 0 and 23.");
+            }
+            this.scheduleHours[hour] = value.equalsIgnoreCase("true");
+        }
+    }
+
+    /**
+     * Creates the employee out of the fields that were read
+     * @return a new Manager or Worker
+     */
+    private Employee buildEmployee() {
+        for (Day day : Day.values()) { // Days that were left out are unavailable
+            if (!this.availability.containsKey(day)) {
+                this.availability.put(day, new boolean[24]);
+            }
+        }
+
+        String role = this.recordRole != null ? this.recordRole : this.value("role").toLowerCase(Locale.ROOT);
+        int employeeNumber = Integer.parseInt(this.value(RosterCSV.EMPLOYEE_NUMBER));
+        String wage = this.fields.containsKey(RosterCSV.WAGE) ? this.value(RosterCSV.WAGE) : this.value("pay_info"); // The JSON file calls the wage pay_info
+        double pay = Double.parseDouble(wage);
+
+        if (role.equals("manager")) {
+            return new Manager(this.value(RosterCSV.FIRST_NAME), this.value(RosterCSV.LAST_NAME), this.value(RosterCSV.ADDRESS), employeeNumber, pay, this.availability);
+        } else if (role.equals("worker")) {
+            return new Worker(this.value(RosterCSV.FIRST_NAME), this.value(RosterCSV.LAST_NAME), this.value(RosterCSV.ADDRESS), employeeNumber, pay, this.availability);
+        }
+        throw new NumberFormatException("Unknown role '" + role + "', expected Manager or Worker.");
+    }
+
+    /**
+     * Returns a field of the employee being read, treating missing fields as empty
+     * @param name name of the field
+     * @return the value, never null
+     */
+    private String value(String name) {
+        String value = this.fields.get(name);
+        return value != null ? value : "";
+    }
+}
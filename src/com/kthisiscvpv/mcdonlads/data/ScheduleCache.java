@@ -0,0 +1,377 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Content addressed cache of solved schedules and their rendered outputs
+ * Entries are keyed by a SHA-256 hash of everything that the result depends on: the roster, the demand and the version of the algorithm. A changed roster or demand file gives a different key, so entries never have to be invalidated.
+ * The memory tier is a least recently used map bounded by the total size of its entries. The optional disk tier keeps every entry as a file in a directory, bounded the same way, and survives restarts.
+ * @author Charles
+ */
+public class ScheduleCache {
+
+    public static final long DEFAULT_MEMORY_LIMIT = 64L * 1024 * 1024; // Default size of the memory tier, 64 MB
+    public static final long DEFAULT_DISK_LIMIT = 512L * 1024 * 1024; // Default size of the disk tier, 512 MB
+
+    public static final String SCHEDULE = ".schedule"; // Kinds of entries, appended to the key
+    public static final String WORKBOOK = ".xls";
+    public static final String JSON = ".json";
+
+    private static final int SOLVER_VERSION = 1; // Changed whenever the sorting algorithm or the rendered outputs change, so that older entries are no longer found
+
+    private LinkedHashMap<String, byte[]> entries; // General variable declarations
+    private long memoryLimit;
+    private long memoryBytes;
+    private File directory;
+    private long diskLimit;
+    private long diskBytes; // Size of the disk tier, -1 until it has been measured
+    private final Object diskLock; // Guards the files of the disk tier and diskBytes, separately from the memory tier
+
+    private long hits;
+    private long diskHits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a cache that only keeps entries in memory
+     * @param memoryLimit the most bytes of entries to keep in memory
+     */
+    public ScheduleCache(long memoryLimit) {
+        this(memoryLimit, null, 0);
+    }
+
+    /**
+     * Creates a cache with a disk tier
+     * @param memoryLimit the most bytes of entries to keep in memory
+     * @param directory the directory the disk tier is kept in, null for no disk tier
+     * @param diskLimit the most bytes of entries to keep on disk
+     */
+    public ScheduleCache(long memoryLimit, File directory, long diskLimit) {
+        this.entries = new LinkedHashMap<String, byte[]>(16, 0.75f, true); // Access order, the eldest entry is the least recently used
+        this.memoryLimit = memoryLimit;
+        this.directory = directory;
+        this.diskLimit = diskLimit;
+        this.diskBytes = -1;
+        this.diskLock = new Object();
+    }
+
+    /**
+     * Computes the key of a roster and its demand
+     * @param employees the employees, in the order they are scheduled and rendered in
+     * @param demand the required employees of each hour, indexed by day ordinal then hour
+     * @return a hexadecimal SHA-256 hash, to which the kind of entry is appended
+     */
+    public static String key(List<Employee> employees, int[][] demand) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + employees.size() * 96);
+        DataOutputStream data = new DataOutputStream(bytes);
+        try {
+            data.writeInt(SOLVER_VERSION);
+            for (int[] dayDemand : demand) { // Parsed demand, so that the layout of the demand file does not matter
+                for (int required : dayDemand) {
+                    data.writeInt(required);
+                }
+            }
+
+            data.writeInt(employees.size());
+            for (Employee employee : employees) { // Every field that appears in the results
+                data.writeBoolean(employee instanceof Manager);
+                data.writeInt(employee.getEmployeeNumber());
+                data.writeUTF(String.valueOf(employee.getFirstName()));
+                data.writeUTF(String.valueOf(employee.getLastName()));
+                data.writeUTF(String.valueOf(employee.getAddress()));
+                data.writeUTF(employee.getPayInfo());
+                for (Day day : Day.values()) {
+                    data.writeInt(employee.getAvailabilityMask(day));
+                }
+            }
+        } catch (IOException e) { // Never thrown by a byte array
+            throw new IllegalStateException(e);
+        }
+
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes.toByteArray());
+            StringBuilder key = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) { // Every JVM is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Looks up an entry, first in memory and then on disk
+     * Only the memory tier is looked up while holding the lock of the cache, so that a lookup never waits behind disk reads or writes.
+     * @param key the key of the roster and demand followed by the kind of entry, such as key + ".xls"
+     * @return the entry, or null if it is not cached
+     */
+    public byte[] get(String key) {
+        synchronized (this) {
+            byte[] value = this.entries.get(key);
+            if (value != null) {
+                this.hits++;
+                return value;
+            }
+            if (this.directory == null) {
+                this.misses++;
+                return null;
+            }
+        }
+
+        byte[] value = this.getDisk(key);
+        synchronized (this) {
+            if (value != null) {
+                this.diskHits++;
+                this.putMemory(key, value); // Promotes the entry back into memory
+            } else {
+                this.misses++;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Stores an entry in memory and, if there is a disk tier, on disk
+     * The entry must not be modified afterwards.
+     * @param key the key of the roster and demand followed by the kind of entry
+     * @param value the entry
+     */
+    public void put(String key, byte[] value) {
+        synchronized (this) {
+            this.putMemory(key, value);
+        }
+        if (this.directory != null && value.length <= this.diskLimit) {
+            try {
+                this.putDisk(key, value);
+            } catch (IOException e) { // The disk tier is optional, the entry is still kept in memory
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Removes an entry from memory and from disk, such as one that could not be decoded
+     * @param key the key of the roster and demand followed by the kind of entry
+     */
+    public void remove(String key) {
+        synchronized (this) {
+            byte[] previous = this.entries.remove(key);
+            if (previous != null) {
+                this.memoryBytes -= previous.length;
+            }
+        }
+        if (this.directory != null) {
+            synchronized (this.diskLock) {
+                this.deleteDisk(new File(this.directory, key));
+            }
+        }
+    }
+
+    /**
+     * Stores an entry in memory and evicts the least recently used entries until the memory tier fits its limit
+     * @param key the key of the entry
+     * @param value the entry
+     */
+    private void putMemory(String key, byte[] value) {
+        if (value.length > this.memoryLimit) { // Would push out everything else
+            return;
+        }
+
+        byte[] previous = this.entries.put(key, value);
+        this.memoryBytes += value.length - (previous != null ? previous.length : 0);
+
+        Iterator<Map.Entry<String, byte[]>> iterator = this.entries.entrySet().iterator();
+        while (this.memoryBytes > this.memoryLimit && iterator.hasNext()) {
+            Map.Entry<String, byte[]> eldest = iterator.next();
+            if (eldest.getKey().equals(key)) { // Never evicts the entry that was just added
+                continue;
+            }
+            this.memoryBytes -= eldest.getValue().length;
+            iterator.remove();
+            this.evictions++;
+        }
+    }
+
+    /**
+     * Reads an entry from the disk tier
+     * @param key the key of the entry
+     * @return the entry, or null if there is no such file or it could not be read
+     */
+    private byte[] getDisk(String key) {
+        synchronized (this.diskLock) {
+            File file = new File(this.directory, key);
+            if (!file.isFile()) {
+                return null;
+            }
+            try {
+                byte[] value = Files.readAllBytes(file.toPath());
+                file.setLastModified(System.currentTimeMillis()); // Marks the file as recently used for the disk tier eviction
+                return value;
+            } catch (IOException e) { // An unreadable file is treated as a miss
+                this.deleteDisk(file);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Writes an entry to the disk tier and deletes the least recently used files once the tier is over its limit
+     * The size of the tier is only measured by listing the directory the first time, and is kept up to date afterwards.
+     * @param key the key of the entry
+     * @param value the entry
+     * @throws IOException the entry could not be written
+     */
+    private void putDisk(String key, byte[] value) throws IOException {
+        synchronized (this.diskLock) {
+            if (this.diskBytes < 0) {
+                this.diskBytes = this.measureDisk();
+            }
+
+            Files.createDirectories(this.directory.toPath());
+            File file = new File(this.directory, key);
+            Path target = file.toPath();
+            Path temporary = target.resolveSibling(key + ".tmp"); // Written to the side first so that a reader never sees half an entry
+            long previous = file.length(); // 0 if there is no such file
+            Files.write(temporary, value);
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            this.diskBytes += value.length - previous;
+
+            if (this.diskBytes > this.diskLimit) {
+                this.evictDisk(key);
+            }
+        }
+    }
+
+    /**
+     * Adds up the size of every file in the disk tier
+     * @return the amount of bytes
+     */
+    private long measureDisk() {
+        File[] files = this.directory.listFiles();
+        long diskBytes = 0;
+        if (files != null) {
+            for (File file : files) {
+                diskBytes += file.length();
+            }
+        }
+        return diskBytes;
+    }
+
+    /**
+     * Deletes the least recently used files until the disk tier is down to three quarters of its limit, so that the directory is only listed again once another quarter has been written
+     * @param key the key of the entry that was just written, which is kept
+     */
+    private void evictDisk(String key) {
+        File[] files = this.directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        this.diskBytes = 0; // Measured again, in case files were changed by something else
+        for (File file : files) {
+            this.diskBytes += file.length();
+        }
+
+        Arrays.sort(files, new Comparator<File>() { // Oldest files first
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        long target = this.diskLimit - this.diskLimit / 4;
+        for (File file : files) {
+            if (this.diskBytes <= target) {
+                break;
+            }
+            if (!file.getName().equals(key)) {
+                this.deleteDisk(file);
+            }
+        }
+    }
+
+    /**
+     * Deletes a file of the disk tier, keeping the size of the tier up to date
+     * @param file the file of the entry
+     */
+    private void deleteDisk(File file) {
+        long length = file.length();
+        if (file.delete() && this.diskBytes >= 0) {
+            this.diskBytes -= length;
+        }
+    }
+
+    /**
+     * Removes every entry from memory. Files in the disk tier are kept.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.memoryBytes = 0;
+    }
+
+    /**
+     * Amount of lookups that were found in memory
+     * @return the count of memory hits
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Amount of lookups that were found on disk after missing in memory
+     * @return the count of disk hits
+     */
+    public synchronized long getDiskHits() {
+        return this.diskHits;
+    }
+
+    /**
+     * Amount of lookups that were not found at all
+     * @return the count of misses
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Amount of entries pushed out of memory to stay within the limit
+     * @return the count of evictions
+     */
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Amount of entries held in memory
+     * @return the count of entries
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Total size of the entries held in memory
+     * @return the amount of bytes
+     */
+    public synchronized long getMemoryBytes() {
+        return this.memoryBytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ScheduleCache[entries=" + this.entries.size() + ", bytes=" + this.memoryBytes + ", hits=" + this.hits + ", diskHits=" + this.diskHits + ", misses=" + this.misses + ", evictions=" + this.evictions + "]";
+    }
+}
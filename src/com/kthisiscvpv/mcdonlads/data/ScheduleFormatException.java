@@ -0,0 +1,40 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+/**
+ * Thrown when a schedule input file or an availability range expression cannot be parsed
+ * @author Charles
+ */
+@SuppressWarnings("serial")
+public class ScheduleFormatException extends NumberFormatException {
+
+    private int line; // General variable declarations
+    private int column;
+
+    /**
+     * Creates an exception pointing at the location of the error
+     * @param message description of the error
+     * @param line line of the input the error occurred on, starting at 1
+     * @param column column of the input the error occurred on, starting at 1
+     */
+    public ScheduleFormatException(String message, int line, int column) {
+        super(message + " (line " + line + ", column " + column + ")");
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Line of the input the error occurred on
+     * @return line number, starting at 1
+     */
+    public int getLine() {
+        return this.line;
+    }
+
+    /**
+     * Column of the input the error occurred on
+     * @return column number, starting at 1
+     */
+    public int getColumn() {
+        return this.column;
+    }
+}
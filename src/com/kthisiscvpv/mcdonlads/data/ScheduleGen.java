@@ -1,15 +1,25 @@
 package com.kthisiscvpv.mcdonlads.data;
 
 import java.awt.Desktop;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Scanner;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import com.kthisiscvpv.mcdonlads.events.ScheduleWriteEvent;
 
 import jxl.CellView;
 import jxl.Workbook;
@@ -28,11 +38,14 @@ import jxl.write.WriteException;
  * The Main Schedule Generator Object
  * @author Charles
  */
-@SuppressWarnings({ "resource", "deprecation" })
+@SuppressWarnings("deprecation")
 public class ScheduleGen {
 
     private HashMap<Day, TimeTable> dayTables; // General variable declarations
     private HashMap<Employee, Integer> hoursWorked;
+    private List<Employee> employees;
+    private Day[] daysOfWeek;
+    private List<String> shortages; // Hours that do not have enough available employees, as messages for the user
 
     /**
      * Generate a schedule with no given output file (a default will be used)
@@ -42,7 +55,19 @@ public class ScheduleGen {
      * @throws WriteException Excel data writing error occurs
      */
     public ScheduleGen(File inputFile, List<Employee> employees) throws IOException, WriteException {
-        this(inputFile, new File(new SimpleDateFormat("MM-dd-yyyy hh-mm-ss").format(System.currentTimeMillis()) + ".xls"), employees); // Default output file will be named according to the current date of the launch
+        this(inputFile, employees, null);
+    }
+
+    /**
+     * Generate a schedule with no given output file (a default will be used), reusing the schedule and the workbook of an earlier run with the same roster and demand
+     * @param inputFile input file
+     * @param employees list of employees
+     * @param cache cache of solved schedules and workbooks, null to always solve and render
+     * @throws IOException File writing error occurs
+     * @throws WriteException Excel data writing error occurs
+     */
+    public ScheduleGen(File inputFile, List<Employee> employees, ScheduleCache cache) throws IOException, WriteException {
+        this(inputFile, ScheduleGen.getDefaultOutputFile(), employees, cache);
     }
 
     /**
@@ -54,66 +79,168 @@ public class ScheduleGen {
      * @throws WriteException Excel data writing error occurs
      */
     public ScheduleGen(File inputFile, File outputFile, List<Employee> employees) throws IOException, WriteException {
-        if (inputFile == null || !inputFile.exists()) { // Check if the file does not exit
-            throw new IOException("Unable to generate schedule! The specified input file does not exist!"); // Throw an error if it does not exist
-        }
+        this(inputFile, outputFile, employees, null);
+    }
 
-        this.dayTables = new HashMap<Day, TimeTable>(); // Declaration of the map containing each of the time tables for each of the day
-        Day[] daysOfWeek = Day.values(); // Array containing each day of the week
-        List<Day> tempList = Arrays.asList(daysOfWeek); // List declaration of the array containing the days of the week
-        Collections.reverse(tempList); // Reverse the list from Monday -> Sunday to Sunday -> Monday. We want to render the last date first for excel order.
-        daysOfWeek = (Day[]) tempList.toArray(); // Reverses the list back to an array to iterate from using integer representations
+    /**
+     * Generate a schedule using the data from the input file and the employees in the list to the output file, reusing the schedule and the workbook of an earlier run with the same roster and demand
+     * @param inputFile input file
+     * @param outputFile output file
+     * @param employees list of employees
+     * @param cache cache of solved schedules and workbooks, null to always solve and render
+     * @throws IOException File writing error occurs
+     * @throws WriteException Excel data writing error occurs
+     */
+    public ScheduleGen(File inputFile, File outputFile, List<Employee> employees, ScheduleCache cache) throws IOException, WriteException {
+        this(ScheduleGen.readDemand(inputFile), outputFile, employees, cache);
+    }
 
-        this.hoursWorked = new HashMap<Employee, Integer>(); // Declarations of a map of the hours worked per client
-        for (Employee employee : employees) { // Loop through each client on the map
-            hoursWorked.put(employee, 0); // Defines a default value to each of the client
+    /**
+     * Generate a schedule from demand that has already been parsed to the output file, reusing the schedule and the workbook of an earlier run with the same roster and demand
+     * @param demand the required employees of each hour, indexed by day ordinal then hour, as returned by ScheduleParser.parseDemand()
+     * @param outputFile output file
+     * @param employees list of employees
+     * @param cache cache of solved schedules and workbooks, null to always solve and render
+     * @throws IOException File writing error occurs
+     * @throws WriteException Excel data writing error occurs
+     */
+    public ScheduleGen(int[][] demand, File outputFile, List<Employee> employees, ScheduleCache cache) throws IOException, WriteException {
+        String key = cache != null ? ScheduleCache.key(employees, demand) : null;
+        this.solve(demand, employees, cache, key); // Runs the sorting algorithm, unless the schedule is cached
+
+        if (!this.isValid()) { // Check if the schedule has been invalidated
+            System.out.println("The algorithm has failed to generate the appropriate schedule!"); // Letting user know of the initial fail
+            for (String shortage : this.shortages) {
+                System.out.println(shortage); // Gives the user an action of suggestion
+            }
+            return; // Stops the algorithm
         }
 
-        for (Day day : daysOfWeek) { // Loop through each day of the week
-            TimeTable timeTable = new TimeTable(day, employees, hoursWorked); // Defines a default time table for each day of the week
-            this.dayTables.put(day, timeTable); // Puts the default time table into the origional map
+        byte[] workbook = cache != null ? cache.get(key + ScheduleCache.WORKBOOK) : null;
+        if (workbook != null) { // The same schedule has already been rendered
+            Files.write(outputFile.toPath(), workbook);
+        } else {
+            this.writeWorkbook(outputFile); // Renders the schedule into the output file
+            if (cache != null) {
+                cache.put(key + ScheduleCache.WORKBOOK, Files.readAllBytes(outputFile.toPath()));
+            }
         }
+        Desktop.getDesktop().open(outputFile); // Attempts to open the spreadsheet using the default system file
+    }
 
-        Scanner scanner = new Scanner(inputFile); // Scanner for the input file
-        Day currentDay = null; // The current day the file is reading
+    /**
+     * Generate a schedule from demand that has already been parsed, without writing any file
+     * @param demand the required employees of each hour, indexed by day ordinal then hour, as returned by ScheduleParser.parseDemand()
+     * @param employees list of employees
+     */
+    public ScheduleGen(int[][] demand, List<Employee> employees) {
+        this.solve(demand, employees);
+    }
 
-        while (scanner.hasNextLine()) { // Iterates as long as the scanner has another line
-            String nextLine = scanner.nextLine(); // Retrieves the next line in the flie
-            if (nextLine.trim().length() == 0) { // Makes sure that it is not an empty line (Ex. a space)
-                continue; // Continues if it is as there's nothing to analyse
-            }
+    /**
+     * Generate a schedule for a columnar roster from demand that has already been parsed, without writing any file
+     * The sorting algorithm is run over the employee classes straight from the availability masks and wages of the roster, see OffHeapSchedule. Each employee is then created once to hold the results, and a schedule that cannot be filled never creates any Employee objects.
+     * @param demand the required employees of each hour, indexed by day ordinal then hour, as returned by ScheduleParser.parseDemand()
+     * @param roster the employees in columns
+     */
+    public ScheduleGen(int[][] demand, ColumnarRoster roster) {
+        OffHeapSchedule schedule = OffHeapSchedule.of(roster, demand);
+        if (!schedule.solve()) {
+            this.prepare(demand, new ArrayList<Employee>(), new ArrayList<EmployeeClass>());
+            this.shortages = schedule.getShortages();
+            return;
+        }
 
-            if (nextLine.length() == 1) { // Check if the length of the line in 1 character long, assuming that it is a day declaration
-                currentDay = Day.fromChar(nextLine.charAt(0)); // Retrieves the day from the character
-                if (currentDay == null) { // Check if it is an invalid declaration
-                    throw new NumberFormatException("Unable to identify date from value '" + nextLine + "'."); // Throw an error to the user
-                }
-            } else { // Length is greater than one, assuming that it was a time declaration
-                if (currentDay == null) { // Verify that a day has been declared before the time
-                    throw new NumberFormatException("Day of the week has not been defined! Cannot begin processing schedule!"); // Throw an error if date was not declared
+        List<Employee> employees = roster.toList();
+        this.prepare(demand, employees, new ArrayList<EmployeeClass>()); // The sorting algorithm has already been run, so the employees are not grouped again
+        OffHeapSchedule.Cursor cursor = schedule.cursor();
+        for (int e = 0; e < employees.size(); e++) {
+            Employee employee = employees.get(e);
+            cursor.moveTo(e);
+            this.hoursWorked.put(employee, cursor.getHoursWorked());
+            for (Day day : this.daysOfWeek) {
+                TimeTable timeTable = this.dayTables.get(day);
+                int assigned = cursor.getAssignedMask(day);
+                while (assigned != 0) { // Only visits the hours the employee was given
+                    timeTable.addEmployee(employee, Integer.numberOfTrailingZeros(assigned));
+                    assigned &= assigned - 1;
                 }
+            }
+        }
+    }
 
-                TimeTable timeTable = this.dayTables.get(currentDay); // Get the time table of the day
-                String[] scheduleArgs = nextLine.split(" "); // Split the argument up by the space
-                int employeesNeeded = Integer.parseInt(scheduleArgs[1]); // Integer representation of the amount of workers needed within that frame
+    /**
+     * Generate a schedule from demand that has already been parsed, reusing the schedule of an earlier run with the same roster and demand
+     * @param demand the required employees of each hour, indexed by day ordinal then hour, as returned by ScheduleParser.parseDemand()
+     * @param employees list of employees
+     * @param cache cache of solved schedules
+     * @param key the key of the roster and demand, as returned by ScheduleCache.key()
+     */
+    public ScheduleGen(int[][] demand, List<Employee> employees, ScheduleCache cache, String key) {
+        this.solve(demand, employees, cache, key);
+    }
 
-                String[] timeArguments = scheduleArgs[0].split("-"); // Split the time up by the 'to' symbol, start to finish
-                int startHour = timeArguments[0].contains(":") ? Integer.parseInt(timeArguments[0].split(":")[0]) : Integer.parseInt(timeArguments[0]); // We only care about the hour interval so only the numbers before the ':' are concerned. This is the start time in argument 0.
-                int endHour = timeArguments[1].contains(":") ? Integer.parseInt(timeArguments[1].split(":")[0]) : Integer.parseInt(timeArguments[1]); // Same reasoning as above, this is the end time in argument 1.
+    /**
+     * Returns the output file used when none is given
+     * @return a file in the working directory named according to the current date and time
+     */
+    public static File getDefaultOutputFile() {
+        return new File(new SimpleDateFormat("MM-dd-yyyy hh-mm-ss").format(System.currentTimeMillis()) + ".xls");
+    }
 
-                for (int i = startHour; i < endHour; i++) { // Iterates from the start hour to the end hour
-                    timeTable.setRequiredEmployees(i, employeesNeeded); // Sets the amount of employees required to the value that was read.
-                }
-            }
+    /**
+     * Reads the required employees of each hour out of a schedule input file
+     * @param inputFile input file
+     * @return the required employees of each hour, indexed by day ordinal then hour
+     * @throws IOException the input file does not exist or could not be read
+     */
+    private static int[][] readDemand(File inputFile) throws IOException {
+        if (inputFile == null || !inputFile.exists()) { // Check if the file does not exit
+            throw new IOException("Unable to generate schedule! The specified input file does not exist!"); // Throw an error if it does not exist
         }
+        return ScheduleParser.parseDemand(Files.readAllBytes(inputFile.toPath())); // Parses the required employees of each hour out of the input file
+    }
 
-        scanner.close(); // No more need to scan the file. Closes the scanner.
+    /**
+     * Looks the schedule up in the cache, and only runs the sorting algorithm if it is not there
+     * @param demand the required employees of each hour, indexed by day ordinal then hour
+     * @param employees list of employees
+     * @param cache cache of solved schedules, null to always solve
+     * @param key the key of the roster and demand
+     */
+    private void solve(int[][] demand, List<Employee> employees, ScheduleCache cache, String key) {
+        if (cache == null) {
+            this.solve(demand, employees);
+            return;
+        }
 
-        HashMap<Employee, Integer> employeeColIndex = new HashMap<Employee, Integer>(); // This value maps the relationship between employee and their column on the table outputted below. This value remains unchanged.
-        for (Employee employee : employees) { // Iterates through each of the employees
-            employeeColIndex.put(employee, employeeColIndex.size() + 1); // Assigns each employee a value on the table
+        byte[] solved = cache.get(key + ScheduleCache.SCHEDULE);
+        if (solved != null) {
+            try {
+                this.restore(demand, employees, solved);
+                return;
+            } catch (IOException e) { // Truncated, corrupt or does not match the roster, treated as a miss and solved again below
+                cache.remove(key + ScheduleCache.SCHEDULE);
+            } catch (RuntimeException e) {
+                cache.remove(key + ScheduleCache.SCHEDULE);
+            }
         }
 
+        this.solve(demand, employees);
+        if (this.isValid()) { // Invalid schedules are cheap to find again
+            cache.put(key + ScheduleCache.SCHEDULE, this.toBytes());
+        }
+    }
+
+    /**
+     * Builds the time tables of each day and runs the sorting algorithm on them, unless there are not enough employees to fill the schedule
+     * @param demand the required employees of each hour, indexed by day ordinal then hour
+     * @param employees list of employees
+     */
+    private void solve(int[][] demand, List<Employee> employees) {
+        this.prepare(demand, employees, EmployeeClass.group(employees)); // Groups the interchangeable employees together so the algorithm only has to solve for each group
+        Day[] daysOfWeek = this.daysOfWeek;
+
         for (Day day : daysOfWeek) { // Iterates through each day of the week
             TimeTable timeTable = this.dayTables.get(day); // Retrieves the timetable of that day of the week
             for (Employee employee : employees) { // Iterates through each of the employees
@@ -125,26 +252,160 @@ public class ScheduleGen {
             }
         }
 
-        boolean validSchedule = true; // Boolean that checks whether the schedule is valid or not
         for (Day day : daysOfWeek) { // Iterates through each day of the week
             TimeTable timeTable = this.dayTables.get(day); // Retrieves the schedule of the day
             for (int i = 0; i < 24; i++) { // Iterates through each hour of the day
-                if (timeTable.getEmployees(i).size() < timeTable.getRequiredEmployees(i)) { // Check if the amount of employees available during that period fits the amount of required employees
-                    if (validSchedule) { // Checks if the schedule being valid has already been declared
-                        validSchedule = false; // Scheduling algorithm has failed, toggling boolean
-                        System.out.println("The algorithm has failed to generate the appropriate schedule!"); // Letting user know of the initial fail
+                this.checkShortage(day, i, timeTable.getEmployees(i).size());
+            }
+        }
+
+        if (!this.isValid()) { // Scheduling algorithm has failed
+            return; // Stops the algorithm
+        }
+
+        for (Day day : daysOfWeek) { // Iterates through each day of the week
+            this.dayTables.get(day).filter(); // Calls a method to sort the employees into their appropriate time slot (sorting algorithm happens here)
+        }
+    }
+
+    /**
+     * Records a shortage if there are fewer employees available during an hour than required
+     * @param day day of the week
+     * @param hour hour of the day
+     * @param available the amount of employees available during the hour
+     */
+    private void checkShortage(Day day, int hour, int available) {
+        int required = this.dayTables.get(day).getRequiredEmployees(hour);
+        if (available < required) { // Check if the amount of employees available during that period fits the amount of required employees
+            int requiredEmployees = required - available; // Calculates the amount of employees that are needed
+            this.shortages.add("There are not enough employees in " + day + " @ " + hour + ":00! Please hire " + requiredEmployees + " more people!");
+        }
+    }
+
+    /**
+     * Builds the empty time tables of each day, holding the required employees of each hour
+     * @param demand the required employees of each hour, indexed by day ordinal then hour
+     * @param employees list of employees
+     * @param employeeClasses the employees grouped into their equivalence classes, which are only needed to run the sorting algorithm
+     */
+    private void prepare(int[][] demand, List<Employee> employees, List<EmployeeClass> employeeClasses) {
+        this.employees = employees;
+        this.shortages = new ArrayList<String>();
+
+        this.dayTables = new HashMap<Day, TimeTable>(); // Declaration of the map containing each of the time tables for each of the day
+        Day[] daysOfWeek = Day.values(); // Array containing each day of the week
+        List<Day> tempList = Arrays.asList(daysOfWeek); // List declaration of the array containing the days of the week
+        Collections.reverse(tempList); // Reverse the list from Monday -> Sunday to Sunday -> Monday. We want to render the last date first for excel order.
+        daysOfWeek = tempList.toArray(new Day[tempList.size()]); // Reverses the list back to an array to iterate from using integer representations
+        this.daysOfWeek = daysOfWeek;
+
+        this.hoursWorked = new HashMap<Employee, Integer>(); // Declarations of a map of the hours worked per client
+        for (Employee employee : employees) { // Loop through each client on the map
+            hoursWorked.put(employee, 0); // Defines a default value to each of the client
+        }
+
+        for (Day day : daysOfWeek) { // Loop through each day of the week
+            TimeTable timeTable = new TimeTable(day, employees, employeeClasses, hoursWorked); // Defines a default time table for each day of the week
+            this.dayTables.put(day, timeTable); // Puts the default time table into the origional map
+        }
+
+        for (Day day : daysOfWeek) { // Loop through each day of the week
+            TimeTable timeTable = this.dayTables.get(day); // Get the time table of the day
+            for (int i = 0; i < 24; i++) { // Iterates through each hour of the day
+                timeTable.setRequiredEmployees(i, demand[day.ordinal()][i]); // Sets the amount of employees required to the value that was read.
+            }
+        }
+    }
+
+    /**
+     * Rebuilds a solved schedule out of the bytes written by toBytes(), without running the sorting algorithm
+     * @param demand the required employees of each hour, indexed by day ordinal then hour
+     * @param employees list of employees, in the same order as when the schedule was solved
+     * @param solved the bytes of the solved schedule
+     * @throws IOException the bytes are truncated, corrupt or do not belong to this roster
+     */
+    private void restore(int[][] demand, List<Employee> employees, byte[] solved) throws IOException {
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(solved));
+        if (data.readInt() != employees.size()) {
+            throw new IOException("The cached schedule belongs to a different roster.");
+        }
+
+        this.prepare(demand, employees, new ArrayList<EmployeeClass>()); // The sorting algorithm is not run, so the employees are not grouped
+        for (Day day : Day.values()) {
+            TimeTable timeTable = this.dayTables.get(day);
+            for (int i = 0; i < 24; i++) { // The employees working each hour, as indices into the roster
+                int count = data.readInt();
+                if (count < 0 || count > employees.size()) {
+                    throw new IOException("The cached schedule is corrupt.");
+                }
+                for (int x = 0; x < count; x++) {
+                    int index = data.readInt();
+                    if (index < 0 || index >= employees.size()) {
+                        throw new IOException("The cached schedule is corrupt.");
                     }
+                    timeTable.addEmployee(employees.get(index), i);
+                }
+            }
+        }
+        for (Employee employee : employees) {
+            this.hoursWorked.put(employee, data.readInt());
+        }
+        if (data.read() != -1) {
+            throw new IOException("The cached schedule is corrupt.");
+        }
+    }
+
+    /**
+     * Writes the solved schedule as bytes, so that it can be cached and rebuilt later
+     * @return the employees working each hour of each day as indices into the roster, followed by the hours worked by each employee
+     */
+    public byte[] toBytes() {
+        HashMap<Employee, Integer> indices = new HashMap<Employee, Integer>();
+        for (Employee employee : this.employees) {
+            indices.put(employee, indices.size());
+        }
 
-                    int requiredEmployees = timeTable.getRequiredEmployees(i) - timeTable.getEmployees(i).size(); // Calculates the amount of employees that are needed
-                    System.out.println("There are not enough employees in " + day + " @ " + i + ":00! Please hire " + requiredEmployees + " more people!"); // Gives the user an action of suggestion
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(bytes);
+        try {
+            data.writeInt(this.employees.size());
+            for (Day day : Day.values()) {
+                TimeTable timeTable = this.dayTables.get(day);
+                for (int i = 0; i < 24; i++) {
+                    List<Employee> working = timeTable.getEmployees(i);
+                    data.writeInt(working.size());
+                    for (Employee employee : working) {
+                        data.writeInt(indices.get(employee));
+                    }
                 }
             }
+            for (Employee employee : this.employees) {
+                data.writeInt(this.hoursWorked.get(employee));
+            }
+        } catch (IOException e) { // Never thrown by a byte array
+            throw new IllegalStateException(e);
         }
+        return bytes.toByteArray();
+    }
 
-        if (!validSchedule) { // Check if the schedule has been invalidated
-            return; // Stops the algorithm
+    /**
+     * Renders the solved schedule into an Excel workbook
+     * @param outputFile output file
+     * @throws IOException File writing error occurs
+     * @throws WriteException Excel data writing error occurs
+     */
+    public void writeWorkbook(File outputFile) throws IOException, WriteException {
+        List<Employee> employees = this.employees;
+        Day[] daysOfWeek = this.daysOfWeek;
+
+        HashMap<Employee, Integer> employeeColIndex = new HashMap<Employee, Integer>(); // This value maps the relationship between employee and their column on the table outputted below. This value remains unchanged.
+        for (Employee employee : employees) { // Iterates through each of the employees
+            employeeColIndex.put(employee, employeeColIndex.size() + 1); // Assigns each employee a value on the table
         }
 
+        ScheduleWriteEvent writeEvent = new ScheduleWriteEvent(); // Flight Recorder event timing the rendering of the workbook
+        writeEvent.begin();
+
         WorkbookSettings wbSettings = new WorkbookSettings(); // Declaration of a MS Excel Document Setting
         wbSettings.setLocale(new Locale("en", "EN")); // Sets the Locale to English
         WritableWorkbook workbook = Workbook.createWorkbook(outputFile, wbSettings); // Declares a MS Excel Document based on the settings
@@ -152,7 +413,6 @@ public class ScheduleGen {
         for (Day day : daysOfWeek) { // Iterates through each day of the week
             WritableSheet sheet = workbook.createSheet(day.name(), 0); // Create a sheet on the document based on the day of the week
             TimeTable timeTable = this.dayTables.get(day); // Retrieves the time table of the day of the week
-            timeTable.filter(); // Calls a method to sort the employees into their appropriate time slot (sorting algorithm happens here)
 
             // Prints the X Axis Border onto the Table (Time Slots)
             for (int i = 0; i < 24; i++) { // Iterates through each hour of the day
@@ -217,7 +477,14 @@ public class ScheduleGen {
         workbook.write(); // Write the workbook to the output file
         workbook.close(); // Closes the workbook as we no longer need it
 
-        Desktop.getDesktop().open(outputFile); // Attempts to open the spreadsheet using the default system file
+        writeEvent.end();
+        if (writeEvent.shouldCommit()) {
+            writeEvent.path = outputFile.getPath();
+            writeEvent.rosterSize = employees.size();
+            writeEvent.dayCount = daysOfWeek.length;
+            writeEvent.bytesWritten = outputFile.length();
+            writeEvent.commit();
+        }
     }
 
     /**
@@ -228,4 +495,68 @@ public class ScheduleGen {
     public int getHoursWorked(Employee employee) {
         return this.hoursWorked.get(employee);
     }
+
+    /**
+     * Gets the total hours worked by every employee on the schedule
+     * @return the hours worked by each employee, in the order of the roster the schedule was solved for, so that a ColumnarRoster can work out the payroll from it
+     */
+    public int[] getHoursWorked() {
+        int[] hours = new int[this.employees.size()];
+        for (int i = 0; i < hours.length; i++) {
+            hours[i] = this.hoursWorked.get(this.employees.get(i));
+        }
+        return hours;
+    }
+
+    /**
+     * Gets the amount of days on which every employee works at least one hour of the schedule
+     * @return the days worked by each employee, in the order of the roster the schedule was solved for, which is what managers are paid by
+     */
+    public int[] getDaysWorked() {
+        HashMap<Employee, Integer> indices = new HashMap<Employee, Integer>();
+        for (Employee employee : this.employees) {
+            indices.put(employee, indices.size());
+        }
+
+        int[] days = new int[this.employees.size()];
+        int[] lastDay = new int[days.length]; // The last day each employee was counted on, plus one
+        for (Day day : this.daysOfWeek) {
+            TimeTable timeTable = this.dayTables.get(day);
+            for (int i = 0; i < 24; i++) {
+                for (Employee employee : timeTable.getEmployees(i)) {
+                    int index = indices.get(employee);
+                    if (lastDay[index] != day.ordinal() + 1) {
+                        lastDay[index] = day.ordinal() + 1;
+                        days[index]++;
+                    }
+                }
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Checks whether there were enough employees to fill every hour of the schedule
+     * @return true if the sorting algorithm was run, false if the schedule could not be filled
+     */
+    public boolean isValid() {
+        return this.shortages.isEmpty();
+    }
+
+    /**
+     * Describes the hours that do not have enough available employees
+     * @return list of messages, empty if the schedule is valid
+     */
+    public List<String> getShortages() {
+        return this.shortages;
+    }
+
+    /**
+     * Gets the time table of a day of the week
+     * @param day the day of the week
+     * @return the time table, holding the employees working each hour once the schedule has been solved
+     */
+    public TimeTable getTimeTable(Day day) {
+        return this.dayTables.get(day);
+    }
 }
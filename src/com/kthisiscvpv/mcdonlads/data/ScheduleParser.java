@@ -0,0 +1,276 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Parser for schedule input files and availability range expressions
+ * Works directly on the bytes of the input and compiles hour ranges straight into 24-bit masks, where bit i represents hour i of the day.
+ * @author Charles
+ */
+public class ScheduleParser {
+
+    private byte[] data; // General variable declarations
+    private int position;
+    private int end;
+    private int line;
+    private int lineStart;
+
+    /**
+     * Creates a parser over a section of a byte array
+     * @param data the input bytes
+     * @param offset index of the first byte to parse
+     * @param length amount of bytes to parse
+     */
+    public ScheduleParser(byte[] data, int offset, int length) {
+        this.data = data;
+        this.position = offset;
+        this.end = offset + length;
+        this.line = 1;
+        this.lineStart = offset;
+    }
+
+    /**
+     * Parses the contents of a schedule input file
+     * @param data the contents of the file
+     * @return the required employees of each hour, indexed by day ordinal then hour. Hours that were not declared are -1 (store closed).
+     * @throws ScheduleFormatException the contents are not in the schedule format
+     */
+    public static int[][] parseDemand(byte[] data) {
+        return new ScheduleParser(data, 0, data.length).readDemand();
+    }
+
+    /**
+     * Parses an availability range expression, such as "9-12 13:00-17:00 20"
+     * @param expression the range expression
+     * @return mask of the hours covered by the expression
+     * @throws ScheduleFormatException the expression is not valid
+     */
+    public static int parseRanges(String expression) {
+        byte[] data = expression.getBytes(StandardCharsets.ISO_8859_1);
+        ScheduleParser parser = new ScheduleParser(data, 0, data.length);
+        return parser.readRanges(data.length);
+    }
+
+    /**
+     * Converts a mask of hours into the boolean representation used by the employees
+     * @param mask mask of the hours
+     * @return array where index i is true if bit i of the mask is set
+     */
+    public static boolean[] toAvailability(int mask) {
+        boolean[] available = new boolean[24];
+        for (int i = 0; i < available.length; i++) {
+            available[i] = (mask & (1 << i)) != 0;
+        }
+        return available;
+    }
+
+    /**
+     * Converts a mask of hours back into a range expression that parseRanges() reads as the same mask
+     * @param mask mask of the hours
+     * @return space separated hours and time frames, such as "9-12 20", or an empty string if no hours are set
+     */
+    public static String formatRanges(int mask) {
+        StringBuilder builder = new StringBuilder();
+        int hour = 0;
+        while (hour < 24) {
+            if ((mask & (1 << hour)) == 0) { // Skips the hours that are not set
+                hour++;
+                continue;
+            }
+
+            int startHour = hour;
+            while (hour < 24 && (mask & (1 << hour)) != 0) { // Finds the end of the run of set hours
+                hour++;
+            }
+
+            if (builder.length() > 0) {
+                builder.append(' ');
+            }
+            builder.append(startHour);
+            if (hour - startHour > 1) { // A single hour is written on its own, the same as it is read
+                builder.append('-').append(hour);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Reads a whole schedule input file, one day declaration or time declaration per line
+     * @return the required employees of each hour, indexed by day ordinal then hour
+     */
+    public int[][] readDemand() {
+        int[][] demand = new int[Day.values().length][24];
+        for (int[] dayDemand : demand) {
+            Arrays.fill(dayDemand, -1); // -1 represents that the store is closed
+        }
+
+        Day currentDay = null; // The current day the file is reading
+        while (this.position < this.end) { // Iterates through each line
+            int lineEnd = this.position;
+            while (lineEnd < this.end && this.data[lineEnd] != '\n') {
+                lineEnd++;
+            }
+
+            this.skipBlanks(lineEnd);
+            int contentEnd = lineEnd;
+            while (contentEnd > this.position && isBlank(this.data[contentEnd - 1])) { // Trims the trailing spaces and carriage returns
+                contentEnd--;
+            }
+
+            if (contentEnd - this.position == 1) { // A single character is a day declaration
+                currentDay = Day.fromChar((char) (this.data[this.position] & 0xFF));
+                if (currentDay == null) {
+                    throw this.error("Unable to identify date from value '" + (char) (this.data[this.position] & 0xFF) + "'.");
+                }
+            } else if (contentEnd > this.position) { // Anything longer is a time declaration
+                if (currentDay == null) {
+                    throw this.error("Day of the week has not been defined! Cannot begin processing schedule!");
+                }
+
+                int startHour = this.readHour(23); // A time frame has to start before the end of the day
+                int endHour = startHour + 1;
+                if (this.position < contentEnd && this.data[this.position] == '-') { // A 'to' sign gives the end of the time frame
+                    this.position++;
+                    endHour = this.readHour(24);
+                }
+                if (endHour <= startHour) {
+                    throw this.error("The end of the time frame must come after its start.");
+                }
+
+                if (this.position >= contentEnd || !isBlank(this.data[this.position])) {
+                    throw this.error("Expected the amount of employees needed after the time frame.");
+                }
+                this.skipBlanks(contentEnd);
+                int employeesNeeded = this.readCount();
+                if (this.position != contentEnd) {
+                    throw this.error("Unexpected character '" + (char) (this.data[this.position] & 0xFF) + "'.");
+                }
+
+                for (int i = startHour; i < endHour; i++) { // Iterates from the start hour to the end hour
+                    demand[currentDay.ordinal()][i] = employeesNeeded;
+                }
+            }
+
+            this.position = lineEnd + 1; // Moves onto the next line
+            this.line++;
+            this.lineStart = this.position;
+        }
+        return demand;
+    }
+
+    /**
+     * Reads space separated hours and time frames up to a limit
+     * @param limit index to stop reading at
+     * @return mask of the hours covered
+     */
+    public int readRanges(int limit) {
+        int mask = 0;
+        while (true) {
+            this.skipBlanks(limit);
+            if (this.position >= limit) {
+                return mask;
+            }
+
+            int startHour = this.readHour(23);
+            int endHour = startHour + 1; // A single hour assumes a 1 hour grace period (Ex. 3:00 -> 4:00)
+            if (this.position < limit && this.data[this.position] == '-') {
+                this.position++;
+                endHour = this.readHour(24);
+                if (endHour <= startHour) {
+                    throw this.error("The end of the time frame must come after its start.");
+                }
+            }
+
+            if (this.position < limit && !isBlank(this.data[this.position])) {
+                throw this.error("Unexpected character '" + (char) (this.data[this.position] & 0xFF) + "'.");
+            }
+
+            mask |= (int) ((1L << endHour) - (1L << startHour)); // Sets every bit from the start hour up to the end hour
+        }
+    }
+
+    /**
+     * Reads an hour of the day, optionally followed by minutes which are ignored (Ex. 9 or 09:30)
+     * @param maximum the largest hour allowed
+     * @return the hour that was read
+     */
+    private int readHour(int maximum) {
+        int hourStart = this.position;
+        int hour = this.readDigits(2);
+        if (hour > maximum) {
+            this.position = hourStart;
+            throw this.error("Hour must be between 0 and " + maximum + ".");
+        }
+
+        if (this.position < this.end && this.data[this.position] == ':') { // We only care about the hour, thus the minute hand is ignored
+            this.position++;
+            int minuteStart = this.position;
+            int minutes = this.readDigits(2);
+            if (this.position - minuteStart != 2 || minutes > 59) {
+                this.position = minuteStart;
+                throw this.error("Minutes must be two digits between 00 and 59.");
+            }
+        }
+        return hour;
+    }
+
+    /**
+     * Reads the amount of employees needed, which may be negative
+     * @return the amount that was read
+     */
+    private int readCount() {
+        boolean negative = this.position < this.end && this.data[this.position] == '-';
+        if (negative) {
+            this.position++;
+        }
+        int count = this.readDigits(9);
+        return negative ? -count : count;
+    }
+
+    /**
+     * Reads a run of decimal digits
+     * @param maximumDigits the most digits allowed
+     * @return the value of the digits
+     */
+    private int readDigits(int maximumDigits) {
+        int start = this.position;
+        int value = 0;
+        while (this.position < this.end && this.position - start < maximumDigits) {
+            int digit = this.data[this.position] - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            value = value * 10 + digit;
+            this.position++;
+        }
+
+        if (this.position == start) {
+            throw this.error(this.position < this.end ? "Expected a number but found '" + (char) (this.data[this.position] & 0xFF) + "'." : "Expected a number.");
+        }
+        return value;
+    }
+
+    /**
+     * Moves past any spaces, tabs and carriage returns
+     * @param limit index to stop at
+     */
+    private void skipBlanks(int limit) {
+        while (this.position < limit && isBlank(this.data[this.position])) {
+            this.position++;
+        }
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    /**
+     * Creates an exception at the current location of the parser
+     * @param message description of the error
+     * @return the exception to throw
+     */
+    private ScheduleFormatException error(String message) {
+        return new ScheduleFormatException(message, this.line, this.position - this.lineStart + 1);
+    }
+}
@@ -0,0 +1,176 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import java.util.List;
+
+/**
+ * Presolve stage of the sorting algorithm for a single day
+ * Hours where every available employee is required are fixed before the main algorithm runs, and employee classes that can no longer receive a shift are left out of it.
+ * @author Charles
+ */
+public class SchedulePresolve {
+
+    private int[][] fixedShifts; // General variable declarations
+    private int[] residualSlots;
+    private int[] placementHours;
+    private boolean[] active;
+
+    private int originalSlots;
+    private int forcedSlots;
+    private int originalShifts;
+    private int forcedShifts;
+    private int originalClasses;
+    private int residualClasses;
+
+    /**
+     * Runs the presolve stage over the classes of a day
+     * @param day day of the week being scheduled
+     * @param employeeClasses the classes in the order the main algorithm will visit them
+     * @param openSlots the amount of shifts required in each hour
+     * @param averageHours the amount of hours each employee "should" work that day
+     */
+    public SchedulePresolve(Day day, List<EmployeeClass> employeeClasses, int[] openSlots, int averageHours) {
+        int classCount = employeeClasses.size();
+        this.fixedShifts = new int[classCount][24]; // The shifts that were forced onto each class
+        this.residualSlots = openSlots.clone(); // The shifts left over for the main algorithm
+        this.placementHours = new int[classCount];
+        this.active = new boolean[classCount];
+        this.originalClasses = classCount;
+
+        int forcedMask = 0; // Bitmask of the hours that were fixed
+        for (int i = 0; i < 24; i++) { // Iterates through each hour of the day
+            if (openSlots[i] <= 0) { // Nothing is required during that hour
+                continue;
+            }
+
+            this.originalSlots++;
+            this.originalShifts += openSlots[i];
+
+            int availableCount = 0; // Amount of employees available during that hour
+            for (EmployeeClass employeeClass : employeeClasses) {
+                if ((employeeClass.getAvailabilityMask(day) & (1 << i)) != 0) {
+                    availableCount += employeeClass.size();
+                }
+            }
+
+            if (availableCount <= openSlots[i]) { // Every available employee has to work, so there is nothing left to decide
+                for (int c = 0; c < classCount; c++) {
+                    EmployeeClass employeeClass = employeeClasses.get(c);
+                    if ((employeeClass.getAvailabilityMask(day) & (1 << i)) != 0) {
+                        this.fixedShifts[c][i] = employeeClass.size();
+                    }
+                }
+                forcedMask |= 1 << i;
+                this.forcedSlots++;
+                this.forcedShifts += availableCount;
+                this.residualSlots[i] = 0;
+            }
+        }
+
+        int residualMask = 0; // Bitmask of the hours that still need employees
+        for (int i = 0; i < 24; i++) {
+            if (this.residualSlots[i] > 0) {
+                residualMask |= 1 << i;
+            }
+        }
+
+        for (int c = 0; c < classCount; c++) { // Iterates through each class to propagate the fixed shifts
+            int availableMask = employeeClasses.get(c).getAvailabilityMask(day);
+            int forcedHours = Integer.bitCount(availableMask & forcedMask); // Each member of the class already works these hours
+            this.placementHours[c] = Math.max(0, Math.min(Integer.bitCount(availableMask), averageHours) - forcedHours); // Reduces the hours left for the member to be placed in
+            this.active[c] = (availableMask & residualMask) != 0; // Classes that are not available in any remaining hour are dominated and can be skipped
+            if (this.active[c]) {
+                this.residualClasses++;
+            }
+        }
+    }
+
+    /**
+     * Returns the shifts that were fixed by the presolve stage
+     * @return the amount of members of each class working each hour
+     */
+    public int[][] getFixedShifts() {
+        return this.fixedShifts;
+    }
+
+    /**
+     * Returns the shifts left over for the main algorithm
+     * @return the amount of shifts still required in each hour
+     */
+    public int[] getResidualSlots() {
+        return this.residualSlots;
+    }
+
+    /**
+     * Returns the amount of hours each member of a class should still be placed in
+     * @param classIndex index of the class
+     * @return the reduced daily placement hours
+     */
+    public int getPlacementHours(int classIndex) {
+        return this.placementHours[classIndex];
+    }
+
+    /**
+     * Checks whether a class can still receive a shift from the main algorithm
+     * @param classIndex index of the class
+     * @return true if the class takes part in the residual problem
+     */
+    public boolean isActive(int classIndex) {
+        return this.active[classIndex];
+    }
+
+    /**
+     * Amount of hours that required employees before the presolve stage
+     * @return integer representation of the slots before presolving
+     */
+    public int getOriginalSlots() {
+        return this.originalSlots;
+    }
+
+    /**
+     * Amount of hours that were fixed by the presolve stage
+     * @return integer representation of the forced slots
+     */
+    public int getForcedSlots() {
+        return this.forcedSlots;
+    }
+
+    /**
+     * Amount of shifts that were required before the presolve stage
+     * @return integer representation of the shifts before presolving
+     */
+    public int getOriginalShifts() {
+        return this.originalShifts;
+    }
+
+    /**
+     * Amount of shifts that were fixed by the presolve stage
+     * @return integer representation of the forced shifts
+     */
+    public int getForcedShifts() {
+        return this.forcedShifts;
+    }
+
+    /**
+     * Amount of classes before the presolve stage
+     * @return integer representation of the classes before presolving
+     */
+    public int getOriginalClasses() {
+        return this.originalClasses;
+    }
+
+    /**
+     * Amount of classes left for the main algorithm
+     * @return integer representation of the classes after presolving
+     */
+    public int getResidualClasses() {
+        return this.residualClasses;
+    }
+
+    /**
+     * Returns a summary of how much the presolve stage shrank the problem
+     */
+    @Override
+    public String toString() {
+        return "Presolve fixed " + this.forcedSlots + "/" + this.originalSlots + " slots (" + this.forcedShifts + "/" + this.originalShifts + " shifts), " + this.residualClasses + "/" + this.originalClasses + " classes remain";
+    }
+}
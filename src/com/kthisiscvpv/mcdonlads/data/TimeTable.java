@@ -5,6 +5,9 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+
+import com.kthisiscvpv.mcdonlads.events.ScheduleFilterEvent;
 
 /**
  * Schedule object for each day of the week
@@ -16,9 +19,11 @@ public class TimeTable {
 
     private Day day; // General variable declarations
     private List<Employee> allEmployees;
+    private List<EmployeeClass> employeeClasses;
     private List<Employee>[] hourlyEmployees;
     private int[] requiredEmployees;
     private HashMap<Employee, Integer> hoursWorked;
+    private SchedulePresolve presolve;
 
     /**
      * Main constructor for a timetable
@@ -27,8 +32,20 @@ public class TimeTable {
      * @param hoursWorked a map of the hours that each employee has worked
      */
     public TimeTable(Day day, List<Employee> allEmployees, HashMap<Employee, Integer> hoursWorked) {
+        this(day, allEmployees, EmployeeClass.group(allEmployees), hoursWorked);
+    }
+
+    /**
+     * Constructor for a timetable whose employees have already been grouped into classes
+     * @param day day of the week the table represents
+     * @param allEmployees a list of all employees to be assigned
+     * @param employeeClasses the employees grouped into their equivalence classes
+     * @param hoursWorked a map of the hours that each employee has worked
+     */
+    public TimeTable(Day day, List<Employee> allEmployees, List<EmployeeClass> employeeClasses, HashMap<Employee, Integer> hoursWorked) {
         this.day = day; // General variable assignments
         this.allEmployees = allEmployees;
+        this.employeeClasses = employeeClasses;
         this.hoursWorked = hoursWorked;
 
         this.hourlyEmployees = new List[24]; // Creates a new array for each hour of the day
@@ -45,72 +62,163 @@ public class TimeTable {
     /**
      * Deploy the sorting algorithm with the information set.
      * Employees will be sorted into their respective categories and employees will be removed due to their hourly slots.
+     * The algorithm is solved over the employee classes, deciding how many members of each class work each hour, and the shifts are then handed out to the members of each class.
      */
     public void filter() {
+        ScheduleFilterEvent event = new ScheduleFilterEvent(); // Flight Recorder event timing this day's sorting algorithm
+        event.begin();
+
         int totalHours = 0; // Integer presentation of the total amount of hours accumulated on the schedule
+        int openHours = 0; // Integer presentation of the amount of hours the store is open for
+        int[] openSlots = new int[24]; // The amount of shifts that still need to be handed out in each hour
         for (int i = 0; i < this.requiredEmployees.length; i++) { // Iterates through the length of the required employees list
             if (this.requiredEmployees[i] != -1) { // Checks that the store is not closed
                 totalHours += this.requiredEmployees[i]; // Adds the required amount of employees onto the total hours number
+                openSlots[i] = this.requiredEmployees[i];
+                openHours++;
+            }
+        }
+
+        int averageHours = (int) Math.floor(((double) totalHours) / ((double) this.allEmployees.size())); // This number represents the total amount of hours an employee "should" work
+
+        List<EmployeeClass> sortedClasses = new ArrayList<EmployeeClass>(this.employeeClasses); // Duplicates the original list of classes to prevent concurrent modification errors
+        HashMap<EmployeeClass, Long> classHoursWorked = new HashMap<EmployeeClass, Long>(); // Total hours worked by all the members of each class through the entire program
+        for (EmployeeClass employeeClass : sortedClasses) {
+            long hours = 0;
+            for (Employee employee : employeeClass.getMembers()) {
+                hours += this.hoursWorked.get(employee);
             }
+            classHoursWorked.put(employeeClass, hours);
         }
 
+        TimeTable.sortClasses(this.day, sortedClasses, classHoursWorked);
+        this.presolve = new SchedulePresolve(this.day, sortedClasses, openSlots, averageHours); // Fixes the hours where every available employee is required
+        int[][] classShifts = TimeTable.assignShifts(this.day, sortedClasses, this.presolve); // The amount of members of each class that work in each hour
+
         List<Employee>[] newSchedule = new List[24]; // Creates a new schedule to work off from (different from the main array) to avoid concurrent modification errors
         for (int i = 0; i < newSchedule.length; i++) { // Iterates through the new array
             newSchedule[i] = new ArrayList<Employee>(); // Defines a blank array for each hour in the new array
         }
 
-        int averageHours = (int) Math.floor(((double) totalHours) / ((double) this.allEmployees.size())); // This number represents the total amount of hours an employee "should" work
+        // Hand out the shifts of each class to its members.
+        for (int c = 0; c < sortedClasses.size(); c++) { // Iterates through each of the classes
+            List<Employee> members = new ArrayList<Employee>(sortedClasses.get(c).getMembers());
+            Collections.sort(members, new Comparator<Employee>() { // Members with the least hours worked receive the first shifts
+                @Override
+                public int compare(Employee a, Employee b) {
+                    return Integer.compare(hoursWorked.get(a), hoursWorked.get(b));
+                }
+            });
+
+            int nextMember = 0; // Shifts are rotated through the members so that they are spread evenly
+            for (int i = 0; i < 24; i++) { // Iterates through each hour of the day
+                for (int x = 0; x < classShifts[c][i]; x++) { // A class never has more shifts in an hour than it has members, so the rotation never repeats a member within the hour
+                    Employee employee = members.get(nextMember);
+                    nextMember = (nextMember + 1) % members.size();
+                    newSchedule[i].add(employee); // Gives the employee the shift
+                    this.hoursWorked.put(employee, this.hoursWorked.get(employee) + 1); // Increments the hours the employee has worked
+                }
+            }
+        }
+
+        this.hourlyEmployees = newSchedule; // Defines the new updated schedule that was just parsed
+
+        event.end();
+        if (event.shouldCommit()) { // Only fill in the fields when the event is enabled and above its threshold
+            int assignedShifts = 0;
+            for (List<Employee> currentEmployees : newSchedule) {
+                assignedShifts += currentEmployees.size();
+            }
+            event.day = this.day.name();
+            event.rosterSize = this.allEmployees.size();
+            event.classCount = this.employeeClasses.size();
+            event.residualClassCount = this.presolve.getResidualClasses();
+            event.slotCount = openHours;
+            event.forcedSlotCount = this.presolve.getForcedSlots();
+            event.requiredShifts = totalHours;
+            event.assignedShifts = assignedShifts;
+            event.commit();
+        }
+    }
 
-        List<Employee> sortedList = new ArrayList<Employee>(this.allEmployees); // Duplicates the original array of employees to prevent concurrent modification errors 
-        Collections.sort(sortedList, new Comparator<Employee>() { // Sort the list of employees based on an custom comparator (different from the one in their respective classes)
+    /**
+     * Sorts the classes into the order the algorithm visits them, the same ordering the employees themselves would have been given
+     * @param day day of the week being scheduled
+     * @param employeeClasses the classes to sort
+     * @param classHoursWorked total hours worked by all the members of each class through the entire program
+     */
+    static void sortClasses(final Day day, List<EmployeeClass> employeeClasses, final Map<EmployeeClass, Long> classHoursWorked) {
+        Collections.sort(employeeClasses, new Comparator<EmployeeClass>() { // Sort the classes based on an custom comparator
             @Override
-            public int compare(Employee a, Employee b) {
-                int totalHoursCompare = Integer.compare(hoursWorked.get(a), hoursWorked.get(b)); // First compare the total hours that each employee has worked (through the entire program, not just this day schedule). We want the workers with less hours to be assigned first.
-                if (totalHoursCompare == 0) { // If the total amount of time worked is the same, then it is a useless comparison and we will compare their "versatility". We want the less versatile workers to be assigned first.
-                    return Integer.compare(getHoursWorked(a, hourlyEmployees), getHoursWorked(b, hourlyEmployees));
+            public int compare(EmployeeClass a, EmployeeClass b) {
+                int totalHoursCompare = Long.compare(classHoursWorked.get(a) * b.size(), classHoursWorked.get(b) * a.size()); // First compare the average hours that the members of each class have worked. We want the classes with less hours to be assigned first.
+                if (totalHoursCompare == 0) { // If the average amount of time worked is the same, we will compare their "versatility". We want the less versatile classes to be assigned first.
+                    return Integer.compare(Integer.bitCount(a.getAvailabilityMask(day)), Integer.bitCount(b.getAvailabilityMask(day)));
                 } else {
-                    return totalHoursCompare; // Total hour comparison was different and will be returned.
+                    return totalHoursCompare; // Average hour comparison was different and will be returned.
                 }
             }
         });
+    }
+
+    /**
+     * Decides how many members of each class work each hour of the day, without deciding which members
+     * @param day day of the week being scheduled
+     * @param sortedClasses the classes in the order given by sortClasses()
+     * @param presolve the presolve stage over the sorted classes, whose fixed shifts and residual slots are filled in further
+     * @return the amount of members of each class working each hour
+     */
+    static int[][] assignShifts(Day day, List<EmployeeClass> sortedClasses, SchedulePresolve presolve) {
+        int[][] classShifts = presolve.getFixedShifts(); // Starts from the shifts fixed by the presolve stage
+        int[] openSlots = presolve.getResidualSlots(); // Only the residual hours are left for the algorithm below
 
-        // Begin assigning the employee hours based on their versatility comparison done above.
-        for (Employee employee : sortedList) { // Iterates through each of the employees in the sorted list. The sorted list tells us which employees should be assigned first.
-            int placementHours = getHoursWorked(employee, this.hourlyEmployees); // This variable represents the total amount of hours that the employee can work.
-            if (placementHours > averageHours) { // If the total hours that the employee can work is greater than the maximum 'average' hours, we lower the count.
-                placementHours = averageHours; // Update the new amount of hours
+        // Begin assigning the class hours based on their versatility comparison done above.
+        for (int c = 0; c < sortedClasses.size(); c++) { // Iterates through each of the classes in the sorted list.
+            if (!presolve.isActive(c)) { // The class cannot be given any of the remaining shifts
+                continue;
             }
 
-            for (int hours = 0; hours < placementHours; hours++) { // Iterates through each of the placement hours. We will assign these amount of placement slots to the employee initially.
-                for (int i = 0; i < 24; i++) { // We will now find the next available time slot of the employee. Begin by iterating through each day of the week.
-                    List<Employee> currentEmployees = newSchedule[i]; // Returns the schedule on that day of the week.
-                    if (currentEmployees.size() < this.getRequiredEmployees(i) && !currentEmployees.contains(employee) && employee.isAvailable(this.day, i)) { // Check that the shift is available to the employee and does not break the schedule
-                        currentEmployees.add(employee); // Gives the employee the shift
-                        this.hoursWorked.put(employee, this.hoursWorked.get(employee) + 1); // Increments the hours the employee has worked
-                        break;
+            EmployeeClass employeeClass = sortedClasses.get(c);
+            int availableMask = employeeClass.getAvailabilityMask(day);
+            int placementHours = presolve.getPlacementHours(c); // The amount of hours each member can work, lowered to the 'average' hours minus their fixed hours.
+
+            int remainingMembers = employeeClass.size(); // Members that have not yet been given their placement slots
+            int[] placement = new int[24];
+            while (remainingMembers > 0 && placementHours > 0) { // Every remaining member would pick the same earliest open slots, so they are given out in batches
+                int placementCount = 0;
+                int batchSize = remainingMembers;
+                for (int i = 0; i < 24 && placementCount < placementHours; i++) { // Find the next available time slots of the members
+                    if (openSlots[i] > 0 && (availableMask & (1 << i)) != 0) {
+                        placement[placementCount++] = i;
+                        batchSize = Math.min(batchSize, openSlots[i]); // The batch ends as soon as one of the slots fills up
                     }
                 }
+
+                if (placementCount == 0) { // There is nowhere left for the members to go
+                    break;
+                }
+
+                for (int p = 0; p < placementCount; p++) { // Gives the batch their shifts
+                    openSlots[placement[p]] -= batchSize;
+                    classShifts[c][placement[p]] += batchSize;
+                }
+                remainingMembers -= batchSize;
             }
         }
 
-        // Fill in the gaps in the schedule after the employees have been scattered.
+        // Fill in the gaps in the schedule after the classes have been scattered.
         for (int i = 0; i < 24; i++) { // Iterates through each hour of the day
-            List<Employee> currentEmployees = newSchedule[i]; // Retrieves the employees working in that hour of the day
-            if (currentEmployees.size() < this.getRequiredEmployees(i)) { // Checks whether employees need to be added
-                int amountRequired = this.getRequiredEmployees(i) - currentEmployees.size(); // Counts the amount of employees that need to be added
-                for (int x = 0; x < amountRequired; x++) { // Iterates through the amount of employees that need to be added
-                    for (Employee employee : sortedList) { // Iterate through every employee
-                        if (employee.isAvailable(this.day, i) && !currentEmployees.contains(employee)) { // Check if the employee is available during that shift
-                            currentEmployees.add(employee); // Give the employee the shift
-                            this.hoursWorked.put(employee, this.hoursWorked.get(employee) + 1); // Increments the hours the employee has worked
-                            break;
-                        }
-                    }
+            for (int c = 0; c < sortedClasses.size() && openSlots[i] > 0; c++) { // Iterate through every class until the hour is filled
+                EmployeeClass employeeClass = sortedClasses.get(c);
+                if (presolve.isActive(c) && (employeeClass.getAvailabilityMask(day) & (1 << i)) != 0) { // Check if the class is available during that shift
+                    int added = Math.min(openSlots[i], employeeClass.size() - classShifts[c][i]); // Members of the class that are not yet working in that hour
+                    classShifts[c][i] += added;
+                    openSlots[i] -= added;
                 }
             }
         }
 
-        this.hourlyEmployees = newSchedule; // Defines the new updated schedule that was just parsed
+        return classShifts;
     }
 
     /**
@@ -130,6 +238,14 @@ public class TimeTable {
         return count; // Return the count value
     }
 
+    /**
+     * Returns the presolve stage of the last run of the sorting algorithm
+     * @return the presolve stage, null if the algorithm has not been run
+     */
+    public SchedulePresolve getPresolve() {
+        return this.presolve;
+    }
+
     /**
      * Returns the day of the week the time table represents
      * @return Day of the wee the timetable represents
@@ -52,6 +52,16 @@ public class Worker extends Employee implements Comparable<Worker> {
         return String.format("%.2f", this.hourlyWage);
     }
 
+    @Override
+    public double getWage() {
+        return this.hourlyWage;
+    }
+
+    @Override
+    public Worker copy() {
+        return new Worker(this.getFirstName(), this.getLastName(), this.getAddress(), this.getEmployeeNumber(), this.hourlyWage, this.copyWeeklySchedule());
+    }
+
     /**
      * Compare one employee to another through their wages
      */
@@ -0,0 +1,29 @@
+package com.kthisiscvpv.mcdonlads.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering the loading of an employees data file
+ * @author Charles
+ */
+@Name("com.kthisiscvpv.mcdonlads.EmployeesLoad")
+@Label("Employees File Load")
+@Category({ "McDonlads", "Persistence" })
+@Description("Reading and parsing of an employees data file")
+public class EmployeesLoadEvent extends Event {
+
+    @Label("Path")
+    public String path; // Location of the employees file
+
+    @Label("Roster Size")
+    public int rosterSize; // Amount of employees loaded
+
+    @Label("Bytes Read")
+    @DataAmount(DataAmount.BYTES)
+    public long bytesRead; // Size of the data that was read
+}
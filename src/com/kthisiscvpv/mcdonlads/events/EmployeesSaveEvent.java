@@ -0,0 +1,29 @@
+package com.kthisiscvpv.mcdonlads.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering the saving of an employees data file
+ * @author Charles
+ */
+@Name("com.kthisiscvpv.mcdonlads.EmployeesSave")
+@Label("Employees File Save")
+@Category({ "McDonlads", "Persistence" })
+@Description("Serialization and writing of an employees data file")
+public class EmployeesSaveEvent extends Event {
+
+    @Label("Path")
+    public String path; // Location of the employees file
+
+    @Label("Roster Size")
+    public int rosterSize; // Amount of employees saved
+
+    @Label("Bytes Written")
+    @DataAmount(DataAmount.BYTES)
+    public long bytesWritten; // Size of the data that was written
+}
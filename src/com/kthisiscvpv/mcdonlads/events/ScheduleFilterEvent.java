@@ -0,0 +1,42 @@
+package com.kthisiscvpv.mcdonlads.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering the sorting algorithm of a single day's time table
+ * @author Charles
+ */
+@Name("com.kthisiscvpv.mcdonlads.ScheduleFilter")
+@Label("Schedule Filter")
+@Category({ "McDonlads", "Scheduling" })
+@Description("Assignment of employees into the hourly slots of one day")
+public class ScheduleFilterEvent extends Event {
+
+    @Label("Day")
+    public String day; // Day of the week being filtered
+
+    @Label("Roster Size")
+    public int rosterSize; // Amount of employees considered
+
+    @Label("Class Count")
+    public int classCount; // Amount of employee equivalence classes the roster was compressed into
+
+    @Label("Residual Class Count")
+    public int residualClassCount; // Amount of classes left after the presolve stage
+
+    @Label("Slot Count")
+    public int slotCount; // Amount of hours the store is open on that day
+
+    @Label("Forced Slot Count")
+    public int forcedSlotCount; // Amount of hours fixed by the presolve stage
+
+    @Label("Required Shifts")
+    public int requiredShifts; // Sum of the employees required through each open hour
+
+    @Label("Assigned Shifts")
+    public int assignedShifts; // Amount of shifts handed out by the algorithm
+}
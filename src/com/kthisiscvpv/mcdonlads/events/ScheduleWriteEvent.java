@@ -0,0 +1,32 @@
+package com.kthisiscvpv.mcdonlads.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering the rendering of the schedule into an Excel workbook
+ * @author Charles
+ */
+@Name("com.kthisiscvpv.mcdonlads.ScheduleWrite")
+@Label("Schedule Workbook Write")
+@Category({ "McDonlads", "Scheduling" })
+@Description("Rendering and writing of the weekly schedule spreadsheet")
+public class ScheduleWriteEvent extends Event {
+
+    @Label("Path")
+    public String path; // Location of the output workbook
+
+    @Label("Roster Size")
+    public int rosterSize; // Amount of employee columns on each sheet
+
+    @Label("Day Count")
+    public int dayCount; // Amount of sheets written
+
+    @Label("Bytes Written")
+    @DataAmount(DataAmount.BYTES)
+    public long bytesWritten; // Size of the output workbook
+}
@@ -0,0 +1,447 @@
+package com.kthisiscvpv.mcdonlads.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.kthisiscvpv.mcdonlads.data.Day;
+import com.kthisiscvpv.mcdonlads.data.Employee;
+import com.kthisiscvpv.mcdonlads.data.EmployeeStore;
+import com.kthisiscvpv.mcdonlads.data.Manager;
+import com.kthisiscvpv.mcdonlads.data.ScheduleCache;
+import com.kthisiscvpv.mcdonlads.data.ScheduleFormatException;
+import com.kthisiscvpv.mcdonlads.data.ScheduleGen;
+import com.kthisiscvpv.mcdonlads.data.ScheduleParser;
+import com.kthisiscvpv.mcdonlads.data.TimeTable;
+import com.kthisiscvpv.mcdonlads.data.Worker;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local HTTP service exposing the roster and the scheduling algorithm as JSON
+ * Endpoints:
+ *  GET /employees, POST /employees - lists all the employees, or adds a new one
+ *  GET, PUT, DELETE /employees/{number} - reads, adds or replaces, or removes one employee
+ *  POST /schedule - solves a schedule for the demand in the body, written the same way as a schedule input file
+ *  GET /schedule/stats - counters of the schedule cache
+ * Employees are sent in the same format as the employees file, with an extra "role" of Manager or Worker.
+ * Each request is handled on its own virtual thread when the JVM supports them, otherwise on a cached thread pool.
+ * @author Charles
+ */
+public class ScheduleServer {
+
+    public static final int DEFAULT_PORT = 8080; // Port used when none is given
+
+    private static final int MAX_BODY_SIZE = 16 * 1024 * 1024; // Largest request body that is accepted
+
+    private EmployeeStore store; // General variable declarations
+    private ScheduleCache cache;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Creates a service over a roster, listening on the loopback interface
+     * @param store the roster that requests read and update
+     * @param port the port to listen on, 0 for any free port
+     * @throws IOException the port could not be bound
+     */
+    public ScheduleServer(EmployeeStore store, int port) throws IOException {
+        this(store, null, port);
+    }
+
+    /**
+     * Creates a service over a roster, listening on the loopback interface, that answers repeated schedule requests out of a cache
+     * @param store the roster that requests read and update
+     * @param cache cache of solved schedules, null to solve every request
+     * @param port the port to listen on, 0 for any free port
+     * @throws IOException the port could not be bound
+     */
+    public ScheduleServer(EmployeeStore store, ScheduleCache cache, int port) throws IOException {
+        this.store = store;
+        this.cache = cache;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.createContext("/employees", new EmployeesHandler());
+        this.server.createContext("/schedule", new ScheduleHandler());
+        this.executor = ScheduleServer.newRequestExecutor();
+        this.server.setExecutor(this.executor);
+    }
+
+    /**
+     * Creates the executor that requests are handled on
+     * Virtual threads are looked up reflectively, so the program still runs on JVMs without them.
+     * @return an executor that starts a virtual thread per task, or a cached thread pool
+     */
+    public static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) { // Virtual threads are not available
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Starts accepting requests in the background
+     */
+    public void start() {
+        this.server.start();
+    }
+
+    /**
+     * Stops accepting requests and waits for the current ones to finish
+     * @param delay the most seconds to wait for the current requests
+     */
+    public void stop(int delay) {
+        this.server.stop(delay);
+        this.executor.shutdown();
+    }
+
+    /**
+     * Address the service is listening on
+     * @return the bound address and port
+     */
+    public InetSocketAddress getAddress() {
+        return this.server.getAddress();
+    }
+
+    /**
+     * Converts an employee to JSON, the same as in the employees file with its role added
+     * @param employee the employee
+     * @return JSONObject of the employee
+     */
+    public static JSONObject toJSON(Employee employee) {
+        JSONObject json = employee.toJSON();
+        json.put("role", employee instanceof Manager ? "Manager" : "Worker");
+        return json;
+    }
+
+    /**
+     * Creates an employee out of JSON sent by a client
+     * @param json the employee in the format of the employees file, with a role of Manager or Worker
+     * @return a new Manager or Worker
+     * @throws RequestException the JSON does not describe an employee
+     */
+    public static Employee toEmployee(JSONObject json) throws RequestException {
+        String role = json.optString("role");
+        Employee employee;
+        try {
+            if (role.equalsIgnoreCase("manager")) {
+                employee = new Manager(json);
+            } else if (role.equalsIgnoreCase("worker")) {
+                employee = new Worker(json);
+            } else {
+                throw new RequestException(400, "The role must be Manager or Worker.");
+            }
+        } catch (JSONException | IllegalArgumentException e) { // Missing fields or an unknown day
+            throw new RequestException(400, e.getMessage());
+        }
+
+        for (Day day : Day.values()) { // Days that were left out are unavailable
+            if (employee.getSchedule(day) == null) {
+                employee.getWeeklySchedule().put(day, new boolean[24]);
+            }
+        }
+        return employee;
+    }
+
+    /**
+     * Converts a solved schedule to JSON
+     * @param schedule the schedule
+     * @param employees the employees the schedule was solved for
+     * @return JSONObject with the validity, shortages, the employees working each hour and the hours worked by each employee
+     */
+    public static JSONObject toJSON(ScheduleGen schedule, List<Employee> employees) {
+        JSONObject json = new JSONObject();
+        json.put("valid", schedule.isValid());
+        JSONArray shortages = new JSONArray();
+        for (String shortage : schedule.getShortages()) {
+            shortages.put(shortage);
+        }
+        json.put("shortages", shortages);
+
+        JSONArray days = new JSONArray();
+        for (Day day : Day.values()) {
+            TimeTable timeTable = schedule.getTimeTable(day);
+            JSONArray required = new JSONArray();
+            JSONArray hours = new JSONArray();
+            for (int i = 0; i < 24; i++) {
+                required.put(timeTable.getRequiredEmployees(i)); // -1 when the store is closed
+                JSONArray working = new JSONArray();
+                if (schedule.isValid()) { // The hours are only filled in once the algorithm has been run
+                    for (Employee employee : timeTable.getEmployees(i)) {
+                        working.put(employee.getEmployeeNumber());
+                    }
+                }
+                hours.put(working);
+            }
+            days.put(new JSONObject().put("day", day.name()).put("required", required).put("employees", hours));
+        }
+        json.put("days", days);
+
+        JSONArray hoursWorked = new JSONArray();
+        for (Employee employee : employees) {
+            hoursWorked.put(new JSONObject().put("employee_number", employee.getEmployeeNumber()).put("hours", schedule.getHoursWorked(employee)));
+        }
+        json.put("hours_worked", hoursWorked);
+        return json;
+    }
+
+    /**
+     * Reads the whole body of a request
+     * @param exchange the request
+     * @return the bytes of the body
+     * @throws IOException the body could not be read
+     * @throws RequestException the body is too large
+     */
+    private static byte[] readBody(HttpExchange exchange) throws IOException, RequestException {
+        InputStream input = exchange.getRequestBody();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            if (body.size() + read > MAX_BODY_SIZE) {
+                throw new RequestException(413, "The request body is too large.");
+            }
+            body.write(buffer, 0, read);
+        }
+        return body.toByteArray();
+    }
+
+    /**
+     * Reads the body of a request as a JSONObject
+     * @param exchange the request
+     * @return the JSONObject that was sent
+     * @throws IOException the body could not be read
+     * @throws RequestException the body is not a JSONObject
+     */
+    private static JSONObject readJSON(HttpExchange exchange) throws IOException, RequestException {
+        try {
+            return new JSONObject(new String(readBody(exchange), StandardCharsets.UTF_8));
+        } catch (JSONException e) {
+            throw new RequestException(400, e.getMessage());
+        }
+    }
+
+    /**
+     * Sends a JSON response and closes the exchange
+     * @param exchange the request
+     * @param status the HTTP status code
+     * @param body a JSONObject or JSONArray
+     * @throws IOException the response could not be sent
+     */
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        send(exchange, status, body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends a JSON response that has already been encoded and closes the exchange
+     * @param exchange the request
+     * @param status the HTTP status code
+     * @param bytes the JSON text in UTF-8
+     * @throws IOException the response could not be sent
+     */
+    private static void send(HttpExchange exchange, int status, byte[] bytes) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Thrown to answer a request with an error status
+     * @author Charles
+     */
+    @SuppressWarnings("serial")
+    public static class RequestException extends Exception {
+
+        private int status;
+
+        /**
+         * Creates an error response
+         * @param status the HTTP status code
+         * @param message description of the error, sent to the client
+         */
+        public RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        /**
+         * HTTP status code of the error
+         * @return the status code
+         */
+        public int getStatus() {
+            return this.status;
+        }
+    }
+
+    /**
+     * Handler that turns errors into JSON error responses
+     * @author Charles
+     */
+    private abstract class JSONHandler implements HttpHandler {
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                this.respond(exchange);
+            } catch (RequestException e) {
+                send(exchange, e.getStatus(), new JSONObject().put("error", e.getMessage()));
+            } catch (IOException e) { // The roster could not be saved, or the client went away
+                send(exchange, 500, new JSONObject().put("error", String.valueOf(e.getMessage())));
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                send(exchange, 500, new JSONObject().put("error", e.toString()));
+            } finally {
+                exchange.close();
+            }
+        }
+
+        /**
+         * Answers a request
+         * @param exchange the request
+         * @throws IOException the response could not be sent
+         * @throws RequestException the request cannot be answered
+         */
+        protected abstract void respond(HttpExchange exchange) throws IOException, RequestException;
+    }
+
+    /**
+     * Handler for /employees and /employees/{number}
+     * @author Charles
+     */
+    private class EmployeesHandler extends JSONHandler {
+
+        @Override
+        protected void respond(HttpExchange exchange) throws IOException, RequestException {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath().substring("/employees".length());
+            if (path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+
+            if (path.isEmpty()) { // The whole roster
+                if (method.equals("GET")) {
+                    JSONArray employees = new JSONArray();
+                    for (Employee employee : store.getEmployees()) {
+                        employees.put(ScheduleServer.toJSON(employee));
+                    }
+                    send(exchange, 200, employees);
+                } else if (method.equals("POST")) {
+                    Employee employee = ScheduleServer.toEmployee(readJSON(exchange));
+                    if (!store.addEmployee(employee)) {
+                        throw new RequestException(409, "Employee #" + employee.getEmployeeNumber() + " already exists.");
+                    }
+                    send(exchange, 201, ScheduleServer.toJSON(employee));
+                } else {
+                    exchange.getResponseHeaders().set("Allow", "GET, POST");
+                    throw new RequestException(405, "Method " + method + " is not allowed.");
+                }
+                return;
+            }
+
+            int employeeNumber;
+            try {
+                employeeNumber = Integer.parseInt(path.substring(1));
+            } catch (NumberFormatException e) {
+                throw new RequestException(404, "No such resource.");
+            }
+
+            if (method.equals("GET")) {
+                Employee employee = store.getEmployee(employeeNumber);
+                if (employee == null) {
+                    throw new RequestException(404, "Employee #" + employeeNumber + " does not exist.");
+                }
+                send(exchange, 200, ScheduleServer.toJSON(employee));
+            } else if (method.equals("PUT")) {
+                JSONObject json = readJSON(exchange);
+                json.put("employee_number", employeeNumber); // The number in the path wins
+                Employee employee = ScheduleServer.toEmployee(json);
+                Employee previous = store.putEmployee(employee);
+                send(exchange, previous == null ? 201 : 200, ScheduleServer.toJSON(employee));
+            } else if (method.equals("DELETE")) {
+                Employee employee = store.removeEmployee(employeeNumber);
+                if (employee == null) {
+                    throw new RequestException(404, "Employee #" + employeeNumber + " does not exist.");
+                }
+                send(exchange, 200, ScheduleServer.toJSON(employee));
+            } else {
+                exchange.getResponseHeaders().set("Allow", "GET, PUT, DELETE");
+                throw new RequestException(405, "Method " + method + " is not allowed.");
+            }
+        }
+    }
+
+    /**
+     * Handler for /schedule and /schedule/stats
+     * @author Charles
+     */
+    private class ScheduleHandler extends JSONHandler {
+
+        @Override
+        protected void respond(HttpExchange exchange) throws IOException, RequestException {
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/schedule/stats")) {
+                if (!exchange.getRequestMethod().equals("GET")) {
+                    exchange.getResponseHeaders().set("Allow", "GET");
+                    throw new RequestException(405, "Method " + exchange.getRequestMethod() + " is not allowed.");
+                }
+                JSONObject stats = new JSONObject().put("enabled", cache != null);
+                if (cache != null) {
+                    stats.put("entries", cache.size()).put("bytes", cache.getMemoryBytes()).put("hits", cache.getHits()).put("disk_hits", cache.getDiskHits()).put("misses", cache.getMisses()).put("evictions", cache.getEvictions());
+                }
+                send(exchange, 200, stats);
+                return;
+            } else if (!path.equals("/schedule") && !path.equals("/schedule/")) {
+                throw new RequestException(404, "No such resource " + path + ".");
+            }
+
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                throw new RequestException(405, "Method " + exchange.getRequestMethod() + " is not allowed.");
+            }
+
+            int[][] demand;
+            try {
+                demand = ScheduleParser.parseDemand(readBody(exchange)); // The body is written the same way as a schedule input file
+            } catch (ScheduleFormatException e) {
+                throw new RequestException(400, e.getMessage());
+            }
+
+            List<Employee> employees = store.getEmployees(); // Solved against a copy, so the roster can keep changing
+            if (cache == null) {
+                ScheduleGen schedule = new ScheduleGen(demand, employees);
+                send(exchange, schedule.isValid() ? 200 : 422, ScheduleServer.toJSON(schedule, employees));
+                return;
+            }
+
+            String key = ScheduleCache.key(employees, demand);
+            byte[] response = cache.get(key + ScheduleCache.JSON);
+            if (response != null) { // The same roster and demand have already been answered
+                send(exchange, 200, response);
+                return;
+            }
+
+            ScheduleGen schedule = new ScheduleGen(demand, employees, cache, key);
+            response = ScheduleServer.toJSON(schedule, employees).toString().getBytes(StandardCharsets.UTF_8);
+            if (schedule.isValid()) { // Only valid schedules are cached
+                cache.put(key + ScheduleCache.JSON, response);
+            }
+            send(exchange, schedule.isValid() ? 200 : 422, response);
+        }
+    }
+}
@@ -24,6 +24,9 @@ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
 SOFTWARE.
 */
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * This provides static methods to convert comma delimited text into a
  * JSONArray, and to convert a JSONArray into comma delimited text. Comma
@@ -31,9 +34,10 @@ SOFTWARE.
  * understood by most database, spreadsheet, and organizer programs.
  * <p>
  * Each row of text represents a row in a table or a data record. Each row
- * ends with a NEWLINE character. Each row contains one or more values.
- * Values are separated by commas. A value can contain any character except
- * for comma, unless is is wrapped in single quotes or double quotes.
+ * ends with a NEWLINE character, CRLF or CR. Each row contains one or more
+ * values. Values are separated by commas. A value can contain any character
+ * except for comma, unless is is wrapped in single quotes or double quotes.
+ * Double quoted values follow RFC 4180.
  * <p>
  * The first row usually contains the names of the columns.
  * <p>
@@ -47,7 +51,8 @@ public class CDL {
 
     /**
      * Get the next value. The value can be wrapped in quotes. The value can
-     * be empty.
+     * be empty. A value wrapped in double quotes follows RFC 4180: it can
+     * hold commas and line breaks, and a doubled quote stands for one quote.
      * @param x A JSONTokener of the source text.
      * @return The value string, or null if empty.
      * @throws JSONException if the quoted string is badly formed.
@@ -55,7 +60,7 @@ public class CDL {
     private static String getValue(JSONTokener x) throws JSONException {
         char c;
         char q;
-        StringBuffer sb;
+        StringBuilder sb;
         do {
             c = x.next();
         } while (c == ' ' || c == '\t');
@@ -65,13 +70,23 @@ public class CDL {
         case '"':
         case '\'':
             q = c;
-            sb = new StringBuffer();
+            sb = new StringBuilder();
             for (;;) {
                 c = x.next();
                 if (c == q) {
+                    if (q == '"') {
+                        c = x.next();
+                        if (c == '"') {
+                            sb.append(c);
+                            continue;
+                        }
+                        if (c != 0) {
+                            x.back();
+                        }
+                    }
                     break;
                 }
-                if (c == 0 || c == '\n' || c == '\r') {
+                if (c == 0 || (q == '\'' && (c == '\n' || c == '\r'))) {
                     throw x.syntaxError("Missing close quote '" + q + "'.");
                 }
                 sb.append(c);
@@ -93,28 +108,72 @@ public class CDL {
      * @throws JSONException
      */
     public static JSONArray rowToJSONArray(JSONTokener x) throws JSONException {
+        List<String> row = new ArrayList<String>();
+        if (!readRow(x, row)) {
+            return null;
+        }
         JSONArray ja = new JSONArray();
+        for (int i = 0; i < row.size(); i += 1) {
+            ja.put(row.get(i));
+        }
+        return ja;
+    }
+
+    /**
+     * Produce an array of strings from a row of comma delimited values,
+     * without building a JSONArray. Rows can be read one after another from
+     * a JSONTokener over a Reader, so only the current row is held in memory.
+     * @param x A JSONTokener of the source text.
+     * @return An array of strings, or null at the end of the text.
+     * @throws JSONException
+     */
+    public static String[] rowToArray(JSONTokener x) throws JSONException {
+        List<String> row = new ArrayList<String>();
+        if (!readRow(x, row)) {
+            return null;
+        }
+        return row.toArray(new String[row.size()]);
+    }
+
+    /**
+     * Read a row of comma delimited values into a list. A row ends at
+     * "\r\n", "\r" or "\n", and blank lines between rows are skipped.
+     * @param x A JSONTokener of the source text.
+     * @param row The list that the values are added to.
+     * @return false if there is no row left to read.
+     * @throws JSONException
+     */
+    private static boolean readRow(JSONTokener x, List<String> row)
+            throws JSONException {
+        char c;
+        do {
+            c = x.next();
+        } while (c == '\n' || c == '\r' || c == ' ' || c == '\t');
+        if (c == 0) {
+            return false;
+        }
+        x.back();
         for (;;) {
             String value = getValue(x);
-            char c = x.next();
-            if (value == null ||
-                    (ja.length() == 0 && value.length() == 0 && c != ',')) {
-                return null;
+            row.add(value == null ? "" : value);
+            do {
+                c = x.next();
+            } while (c == ' ' || c == '\t');
+            if (c == ',') {
+                continue;
             }
-            ja.put(value);
-            for (;;) {
-                if (c == ',') {
-                    break;
-                }
-                if (c != ' ') {
-                    if (c == '\n' || c == '\r' || c == 0) {
-                        return ja;
-                    }
-                    throw x.syntaxError("Bad character '" + c + "' (" +
-                            (int)c + ").");
-                }
+            if (c == '\r') {
                 c = x.next();
+                if (c != '\n' && c != 0) {
+                    x.back();
+                }
+                return true;
+            }
+            if (c == '\n' || c == 0) {
+                return true;
             }
+            throw x.syntaxError("Bad character '" + c + "' (" +
+                    (int)c + ").");
         }
     }
 
@@ -135,9 +194,8 @@ public class CDL {
     }
 
     /**
-     * Produce a comma delimited text row from a JSONArray. Values containing
-     * the comma character will be quoted. Troublesome characters may be
-     * removed.
+     * Produce a comma delimited text row from a JSONArray. Values are quoted
+     * as RFC 4180 does when they need it.
      * @param ja A JSONArray of strings.
      * @return A string ending in NEWLINE.
      */
@@ -149,28 +207,67 @@ public class CDL {
             }
             Object object = ja.opt(i);
             if (object != null) {
-                String string = object.toString();
-                if (string.length() > 0 && (string.indexOf(',') >= 0 ||
-                        string.indexOf('\n') >= 0 || string.indexOf('\r') >= 0 ||
-                        string.indexOf(0) >= 0 || string.charAt(0) == '"')) {
-                    sb.append('"');
-                    int length = string.length();
-                    for (int j = 0; j < length; j += 1) {
-                        char c = string.charAt(j);
-                        if (c >= ' ' && c != '"') {
-                            sb.append(c);
-                        }
-                    }
-                    sb.append('"');
-                } else {
-                    sb.append(string);
-                }
+                appendValue(sb, object.toString());
+            }
+        }
+        sb.append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * Produce a comma delimited text row from an array of strings, without
+     * building a JSONArray. Values are quoted the same way as rowToString
+     * does for a JSONArray.
+     * @param values An array of strings. Null values are left empty.
+     * @return A string ending in NEWLINE.
+     */
+    public static String rowToString(String[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i += 1) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            if (values[i] != null) {
+                appendValue(sb, values[i]);
             }
         }
         sb.append('\n');
         return sb.toString();
     }
 
+    /**
+     * Append a value to a row, quoting it as RFC 4180 does. A value is
+     * wrapped in double quotes if it holds a comma, a quote or a line break,
+     * starts with a single quote, or starts or ends with a space, so that it
+     * reads back unchanged. Quotes within it are doubled. The NUL character
+     * ends the text when read back, so it is removed.
+     * @param sb The row being built.
+     * @param string The value.
+     */
+    private static void appendValue(StringBuilder sb, String string) {
+        int length = string.length();
+        if (length > 0 && (string.indexOf(',') >= 0 ||
+                string.indexOf('"') >= 0 || string.indexOf('\n') >= 0 ||
+                string.indexOf('\r') >= 0 || string.charAt(0) == '\'' ||
+                string.charAt(0) <= ' ' || string.charAt(length - 1) <= ' ')) {
+            sb.append('"');
+            for (int j = 0; j < length; j += 1) {
+                char c = string.charAt(j);
+                if (c == '"') {
+                    sb.append('"');
+                }
+                if (c != 0) {
+                    sb.append(c);
+                }
+            }
+            sb.append('"');
+        } else if (string.indexOf(0) >= 0) {
+            sb.append(string.replace("\0", ""));
+        } else {
+            sb.append(string);
+        }
+    }
+
     /**
      * Produce a JSONArray of JSONObjects from a comma delimited text string,
      * using the first row as a source of names.
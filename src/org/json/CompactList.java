@@ -0,0 +1,495 @@
+package org.json;
+
+/*
+ Copyright (c) 2002 JSON.org
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ The Software shall be used for Good, not Evil.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The list that holds the elements of a JSONArray. As long as every element
+ * is an Integer, every element is a Long, every element is a Double or every
+ * element is a Boolean, the elements are kept unboxed in an array of the
+ * matching primitive type. The first element of a different type moves the
+ * whole list into an Object array. Elements are boxed again as they are
+ * read, so the list behaves exactly like an ArrayList of the same values,
+ * while arrays of numbers and booleans cost a fraction of the memory and can
+ * be copied out and written without boxing.
+ */
+class CompactList extends AbstractList<Object> implements RandomAccess {
+
+    private static final int EMPTY = 0;
+    private static final int INTS = 1;
+    private static final int LONGS = 2;
+    private static final int DOUBLES = 3;
+    private static final int BOOLEANS = 4;
+    private static final int OBJECTS = 5;
+
+    /**
+     * The kind of storage in use, one of the constants above.
+     */
+    private int kind;
+
+    /**
+     * The number of elements.
+     */
+    private int size;
+
+    private int[] ints;
+    private long[] longs;
+    private double[] doubles;
+    private boolean[] booleans;
+    private Object[] objects;
+
+    /**
+     * Construct an empty list.
+     */
+    CompactList() {
+        this.kind = EMPTY;
+    }
+
+    /**
+     * Get the kind of storage that a value can be kept in.
+     *
+     * @param value
+     *            A value.
+     * @return The kind of storage.
+     */
+    private static int kindOf(Object value) {
+        if (value instanceof Integer) {
+            return INTS;
+        }
+        if (value instanceof Long) {
+            return LONGS;
+        }
+        if (value instanceof Double) {
+            return DOUBLES;
+        }
+        if (value instanceof Boolean) {
+            return BOOLEANS;
+        }
+        return OBJECTS;
+    }
+
+    /**
+     * Switch to a kind of storage if the list is empty.
+     *
+     * @param kind
+     *            The kind of storage wanted.
+     * @return true if the list now uses that kind of storage.
+     */
+    private boolean adopt(int kind) {
+        if (this.kind == kind) {
+            return true;
+        }
+        if (this.size == 0) {
+            this.release();
+            this.kind = kind;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Drop all of the storage arrays.
+     */
+    private void release() {
+        this.ints = null;
+        this.longs = null;
+        this.doubles = null;
+        this.booleans = null;
+        this.objects = null;
+    }
+
+    /**
+     * Move the elements into an Object array, boxing them.
+     */
+    private void toObjects() {
+        Object[] objects = new Object[Math.max(8, this.size + (this.size >> 1))];
+        for (int i = 0; i < this.size; i += 1) {
+            objects[i] = this.get(i);
+        }
+        this.release();
+        this.objects = objects;
+        this.kind = OBJECTS;
+    }
+
+    /**
+     * Get the capacity of the current storage array.
+     */
+    private int capacity() {
+        switch (this.kind) {
+        case INTS:
+            return this.ints == null ? 0 : this.ints.length;
+        case LONGS:
+            return this.longs == null ? 0 : this.longs.length;
+        case DOUBLES:
+            return this.doubles == null ? 0 : this.doubles.length;
+        case BOOLEANS:
+            return this.booleans == null ? 0 : this.booleans.length;
+        case OBJECTS:
+            return this.objects == null ? 0 : this.objects.length;
+        default:
+            return 0;
+        }
+    }
+
+    /**
+     * Make room for one more element in the current storage array.
+     */
+    private void grow() {
+        int capacity = this.capacity();
+        if (this.size < capacity) {
+            return;
+        }
+        capacity = Math.max(8, capacity + (capacity >> 1));
+        switch (this.kind) {
+        case INTS:
+            this.ints = this.ints == null ? new int[capacity] : Arrays.copyOf(this.ints, capacity);
+            break;
+        case LONGS:
+            this.longs = this.longs == null ? new long[capacity] : Arrays.copyOf(this.longs, capacity);
+            break;
+        case DOUBLES:
+            this.doubles = this.doubles == null ? new double[capacity] : Arrays.copyOf(this.doubles, capacity);
+            break;
+        case BOOLEANS:
+            this.booleans = this.booleans == null ? new boolean[capacity] : Arrays.copyOf(this.booleans, capacity);
+            break;
+        default:
+            this.objects = this.objects == null ? new Object[capacity] : Arrays.copyOf(this.objects, capacity);
+        }
+    }
+
+    /**
+     * Store a value in a slot of the current storage array. The value must
+     * fit the kind of storage.
+     */
+    private void store(int index, Object value) {
+        switch (this.kind) {
+        case INTS:
+            this.ints[index] = ((Integer) value).intValue();
+            break;
+        case LONGS:
+            this.longs[index] = ((Long) value).longValue();
+            break;
+        case DOUBLES:
+            this.doubles[index] = ((Double) value).doubleValue();
+            break;
+        case BOOLEANS:
+            this.booleans[index] = ((Boolean) value).booleanValue();
+            break;
+        default:
+            this.objects[index] = value;
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Object get(int index) {
+        this.checkIndex(index);
+        switch (this.kind) {
+        case INTS:
+            return Integer.valueOf(this.ints[index]);
+        case LONGS:
+            return Long.valueOf(this.longs[index]);
+        case DOUBLES:
+            return Double.valueOf(this.doubles[index]);
+        case BOOLEANS:
+            return this.booleans[index] ? Boolean.TRUE : Boolean.FALSE;
+        default:
+            return this.objects[index];
+        }
+    }
+
+    @Override
+    public boolean add(Object value) {
+        if (!this.adopt(kindOf(value)) && this.kind != OBJECTS) {
+            this.toObjects();
+        }
+        this.grow();
+        this.store(this.size, value);
+        this.size += 1;
+        this.modCount += 1;
+        return true;
+    }
+
+    /**
+     * Append an int without boxing it, if the list holds ints.
+     *
+     * @param value
+     *            The value.
+     */
+    void addInt(int value) {
+        if (this.adopt(INTS)) {
+            this.grow();
+            this.ints[this.size] = value;
+            this.size += 1;
+            this.modCount += 1;
+        } else {
+            this.add(Integer.valueOf(value));
+        }
+    }
+
+    /**
+     * Append a long without boxing it, if the list holds longs.
+     *
+     * @param value
+     *            The value.
+     */
+    void addLong(long value) {
+        if (this.adopt(LONGS)) {
+            this.grow();
+            this.longs[this.size] = value;
+            this.size += 1;
+            this.modCount += 1;
+        } else {
+            this.add(Long.valueOf(value));
+        }
+    }
+
+    /**
+     * Append a double without boxing it, if the list holds doubles.
+     *
+     * @param value
+     *            The value.
+     */
+    void addDouble(double value) {
+        if (this.adopt(DOUBLES)) {
+            this.grow();
+            this.doubles[this.size] = value;
+            this.size += 1;
+            this.modCount += 1;
+        } else {
+            this.add(Double.valueOf(value));
+        }
+    }
+
+    /**
+     * Append a boolean without boxing it, if the list holds booleans.
+     *
+     * @param value
+     *            The value.
+     */
+    void addBoolean(boolean value) {
+        if (this.adopt(BOOLEANS)) {
+            this.grow();
+            this.booleans[this.size] = value;
+            this.size += 1;
+            this.modCount += 1;
+        } else {
+            this.add(value ? Boolean.TRUE : Boolean.FALSE);
+        }
+    }
+
+    @Override
+    public Object set(int index, Object value) {
+        Object old = this.get(index);
+        if (kindOf(value) != this.kind && this.kind != OBJECTS) {
+            this.toObjects();
+        }
+        this.store(index, value);
+        return old;
+    }
+
+    @Override
+    public Object remove(int index) {
+        Object old = this.get(index);
+        int moved = this.size - index - 1;
+        if (moved > 0) {
+            switch (this.kind) {
+            case INTS:
+                System.arraycopy(this.ints, index + 1, this.ints, index, moved);
+                break;
+            case LONGS:
+                System.arraycopy(this.longs, index + 1, this.longs, index, moved);
+                break;
+            case DOUBLES:
+                System.arraycopy(this.doubles, index + 1, this.doubles, index, moved);
+                break;
+            case BOOLEANS:
+                System.arraycopy(this.booleans, index + 1, this.booleans, index, moved);
+                break;
+            default:
+                System.arraycopy(this.objects, index + 1, this.objects, index, moved);
+            }
+        }
+        this.size -= 1;
+        if (this.kind == OBJECTS) {
+            this.objects[this.size] = null;
+        }
+        this.modCount += 1;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        this.release();
+        this.kind = EMPTY;
+        this.size = 0;
+        this.modCount += 1;
+    }
+
+    /**
+     * Copy the elements out as ints, if they are all Integers.
+     *
+     * @return The values, or null if the list holds anything else.
+     */
+    int[] toIntArray() {
+        if (this.size == 0) {
+            return new int[0];
+        }
+        return this.kind == INTS ? Arrays.copyOf(this.ints, this.size) : null;
+    }
+
+    /**
+     * Copy the elements out as longs, if they are all Integers or all
+     * Longs.
+     *
+     * @return The values, or null if the list holds anything else.
+     */
+    long[] toLongArray() {
+        if (this.size == 0) {
+            return new long[0];
+        }
+        if (this.kind == LONGS) {
+            return Arrays.copyOf(this.longs, this.size);
+        }
+        if (this.kind == INTS) {
+            long[] values = new long[this.size];
+            for (int i = 0; i < this.size; i += 1) {
+                values[i] = this.ints[i];
+            }
+            return values;
+        }
+        return null;
+    }
+
+    /**
+     * Copy the elements out as doubles, if they are all Integers, all
+     * Longs or all Doubles.
+     *
+     * @return The values, or null if the list holds anything else.
+     */
+    double[] toDoubleArray() {
+        if (this.size == 0) {
+            return new double[0];
+        }
+        if (this.kind == DOUBLES) {
+            return Arrays.copyOf(this.doubles, this.size);
+        }
+        if (this.kind == INTS || this.kind == LONGS) {
+            double[] values = new double[this.size];
+            for (int i = 0; i < this.size; i += 1) {
+                values[i] = this.kind == INTS ? this.ints[i] : this.longs[i];
+            }
+            return values;
+        }
+        return null;
+    }
+
+    /**
+     * Copy the elements out as booleans, if they are all Booleans.
+     *
+     * @return The values, or null if the list holds anything else.
+     */
+    boolean[] toBooleanArray() {
+        if (this.size == 0) {
+            return new boolean[0];
+        }
+        return this.kind == BOOLEANS ? Arrays.copyOf(this.booleans, this.size) : null;
+    }
+
+    /**
+     * Write an element as JSON text straight from its primitive storage.
+     *
+     * @param writer
+     *            The writer.
+     * @param index
+     *            The index of the element.
+     * @return true if the element was written, false if it is kept as an
+     *         Object and has to be written by JSONObject.writeValue.
+     * @throws JSONException
+     *             If the element is a non-finite double.
+     * @throws IOException
+     */
+    boolean writePrimitive(Writer writer, int index) throws JSONException, IOException {
+        switch (this.kind) {
+        case INTS:
+            writer.write(Integer.toString(this.ints[index]));
+            return true;
+        case LONGS:
+            writer.write(Long.toString(this.longs[index]));
+            return true;
+        case DOUBLES:
+            writer.write(doubleToString(this.doubles[index]));
+            return true;
+        case BOOLEANS:
+            writer.write(this.booleans[index] ? "true" : "false");
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Produce the same text as JSONObject.numberToString for a double.
+     *
+     * @param d
+     *            A double.
+     * @return The text of the number.
+     * @throws JSONException
+     *             If the double is not finite.
+     */
+    private static String doubleToString(double d) throws JSONException {
+        if (Double.isInfinite(d) || Double.isNaN(d)) {
+            throw new JSONException("JSON does not allow non-finite numbers.");
+        }
+        String string = Double.toString(d);
+        if (string.indexOf('.') > 0 && string.indexOf('E') < 0) {
+            int end = string.length();
+            while (string.charAt(end - 1) == '0') {
+                end -= 1;
+            }
+            if (string.charAt(end - 1) == '.') {
+                end -= 1;
+            }
+            string = string.substring(0, end);
+        }
+        return string;
+    }
+}
@@ -0,0 +1,363 @@
+package org.json;
+
+/*
+ Copyright (c) 2002 JSON.org
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ The Software shall be used for Good, not Evil.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The map that holds the members of a JSONObject. Most JSON objects have only
+ * a handful of keys, so they are kept in flat parallel arrays of keys, cached
+ * key hash codes and values, searched linearly. This avoids the table and the
+ * per-entry node that a HashMap allocates for every member. Once an object
+ * grows past MAX_FLAT_SIZE keys its members are moved into a LinkedHashMap.
+ * In both forms the members are iterated in insertion order.
+ */
+class CompactMap extends AbstractMap<String, Object> {
+
+    /**
+     * The largest number of keys that are kept in the flat arrays.
+     */
+    static final int MAX_FLAT_SIZE = 32;
+
+    private static final String[] EMPTY_KEYS = new String[0];
+    private static final Object[] EMPTY_VALUES = new Object[0];
+    private static final int[] EMPTY_HASHES = new int[0];
+
+    /**
+     * The hash codes of the keys, in insertion order.
+     */
+    private int[] hashes;
+
+    /**
+     * The keys, in insertion order.
+     */
+    private String[] keys;
+
+    /**
+     * The values, parallel to the keys.
+     */
+    private Object[] values;
+
+    /**
+     * The number of members held in the flat arrays.
+     */
+    private int size;
+
+    /**
+     * The map that takes over once there are more than MAX_FLAT_SIZE keys,
+     * or null while the flat arrays are in use.
+     */
+    private Map<String, Object> large;
+
+    /**
+     * The number of structural changes, to detect modification during
+     * iteration.
+     */
+    private int modCount;
+
+    /**
+     * Construct an empty map.
+     */
+    CompactMap() {
+        this.hashes = EMPTY_HASHES;
+        this.keys = EMPTY_KEYS;
+        this.values = EMPTY_VALUES;
+    }
+
+    /**
+     * Construct an empty map with room for a number of keys.
+     *
+     * @param capacity
+     *            The expected number of keys.
+     */
+    CompactMap(int capacity) {
+        if (capacity > MAX_FLAT_SIZE) {
+            this.large = new LinkedHashMap<String, Object>(capacity * 4 / 3 + 1);
+        } else if (capacity > 0) {
+            this.hashes = new int[capacity];
+            this.keys = new String[capacity];
+            this.values = new Object[capacity];
+        } else {
+            this.hashes = EMPTY_HASHES;
+            this.keys = EMPTY_KEYS;
+            this.values = EMPTY_VALUES;
+        }
+    }
+
+    /**
+     * Find the position of a key in the flat arrays.
+     *
+     * @param key
+     *            The key to look for.
+     * @return The index of the key, or -1 if it is not present.
+     */
+    private int indexOf(Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+        int hash = key.hashCode();
+        int[] hashes = this.hashes;
+        String[] keys = this.keys;
+        for (int i = 0; i < this.size; i += 1) {
+            if (hashes[i] == hash && (keys[i] == key || keys[i].equals(key))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Remove the member at a position in the flat arrays, shifting the later
+     * members down to keep the insertion order.
+     *
+     * @param index
+     *            The position to remove.
+     * @return The value that was removed.
+     */
+    private Object removeAt(int index) {
+        Object old = this.values[index];
+        int moved = this.size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(this.hashes, index + 1, this.hashes, index, moved);
+            System.arraycopy(this.keys, index + 1, this.keys, index, moved);
+            System.arraycopy(this.values, index + 1, this.values, index, moved);
+        }
+        this.size -= 1;
+        this.keys[this.size] = null;
+        this.values[this.size] = null;
+        this.modCount += 1;
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return this.large != null ? this.large.size() : this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.large != null ? this.large.containsKey(key) : this.indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (this.large != null) {
+            return this.large.get(key);
+        }
+        int index = this.indexOf(key);
+        return index >= 0 ? this.values[index] : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (this.large != null) {
+            return this.large.put(key, value);
+        }
+        int hash = key.hashCode();
+        for (int i = 0; i < this.size; i += 1) {
+            if (this.hashes[i] == hash && (this.keys[i] == key || this.keys[i].equals(key))) {
+                Object old = this.values[i];
+                this.values[i] = value;
+                return old;
+            }
+        }
+        if (this.size == MAX_FLAT_SIZE) {
+            Map<String, Object> large = new LinkedHashMap<String, Object>(MAX_FLAT_SIZE * 4);
+            for (int i = 0; i < this.size; i += 1) {
+                large.put(this.keys[i], this.values[i]);
+            }
+            large.put(key, value);
+            this.large = large;
+            this.hashes = EMPTY_HASHES;
+            this.keys = EMPTY_KEYS;
+            this.values = EMPTY_VALUES;
+            this.size = 0;
+            this.modCount += 1;
+            return null;
+        }
+        if (this.size == this.keys.length) {
+            int capacity = Math.min(MAX_FLAT_SIZE, Math.max(4, this.size * 2));
+            int[] hashes = new int[capacity];
+            String[] keys = new String[capacity];
+            Object[] values = new Object[capacity];
+            System.arraycopy(this.hashes, 0, hashes, 0, this.size);
+            System.arraycopy(this.keys, 0, keys, 0, this.size);
+            System.arraycopy(this.values, 0, values, 0, this.size);
+            this.hashes = hashes;
+            this.keys = keys;
+            this.values = values;
+        }
+        this.hashes[this.size] = hash;
+        this.keys[this.size] = key;
+        this.values[this.size] = value;
+        this.size += 1;
+        this.modCount += 1;
+        return null;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (this.large != null) {
+            return this.large.remove(key);
+        }
+        int index = this.indexOf(key);
+        return index >= 0 ? this.removeAt(index) : null;
+    }
+
+    @Override
+    public void clear() {
+        this.large = null;
+        this.hashes = EMPTY_HASHES;
+        this.keys = EMPTY_KEYS;
+        this.values = EMPTY_VALUES;
+        this.size = 0;
+        this.modCount += 1;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                if (CompactMap.this.large != null) {
+                    return CompactMap.this.large.entrySet().iterator();
+                }
+                return new FlatIterator();
+            }
+
+            @Override
+            public int size() {
+                return CompactMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * An iterator over the members in the flat arrays.
+     */
+    private class FlatIterator implements Iterator<Entry<String, Object>> {
+        private int next;
+        private int last = -1;
+        private int expectedModCount = CompactMap.this.modCount;
+
+        @Override
+        public boolean hasNext() {
+            return this.next < CompactMap.this.size;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (CompactMap.this.modCount != this.expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (this.next >= CompactMap.this.size) {
+                throw new NoSuchElementException();
+            }
+            this.last = this.next;
+            this.next += 1;
+            return new FlatEntry(this.last);
+        }
+
+        @Override
+        public void remove() {
+            if (this.last < 0) {
+                throw new IllegalStateException();
+            }
+            if (CompactMap.this.modCount != this.expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            CompactMap.this.removeAt(this.last);
+            this.next = this.last;
+            this.last = -1;
+            this.expectedModCount = CompactMap.this.modCount;
+        }
+    }
+
+    /**
+     * A member in the flat arrays. Setting its value writes through to the
+     * map.
+     */
+    private class FlatEntry implements Entry<String, Object> {
+        private final int index;
+        private final String key;
+
+        FlatEntry(int index) {
+            this.index = index;
+            this.key = CompactMap.this.keys[index];
+        }
+
+        @Override
+        public String getKey() {
+            return this.key;
+        }
+
+        @Override
+        public Object getValue() {
+            return CompactMap.this.values[this.index];
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object old = CompactMap.this.values[this.index];
+            CompactMap.this.values[this.index] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> e = (Entry<?, ?>) o;
+            Object value = this.getValue();
+            return this.key.equals(e.getKey())
+                    && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = this.getValue();
+            return this.key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return this.key + "=" + this.getValue();
+        }
+    }
+}
@@ -28,10 +28,11 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.reflect.Array;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * A JSONArray is an ordered sequence of values. Its external text form is a string wrapped in square brackets with commas separating the values. The internal form is an object having <code>get</code> and <code>opt</code> methods for accessing the values by index, and <code>put</code> methods for adding or replacing values. The values can be any of these types: <code>Boolean</code>, <code>JSONArray</code>, <code>JSONObject</code>, <code>Number</code>, <code>String</code>, or the <code>JSONObject.NULL object</code>.
@@ -56,15 +57,15 @@ import java.util.Map;
 public class JSONArray implements Iterable<Object> {
 
 	/**
-	 * The arrayList where the JSONArray's properties are kept.
+	 * The list where the JSONArray's properties are kept. Arrays of only numbers or only booleans are kept unboxed.
 	 */
-	private final ArrayList<Object> myArrayList;
+	private final CompactList myArrayList;
 
 	/**
 	 * Construct an empty JSONArray.
 	 */
 	public JSONArray() {
-		this.myArrayList = new ArrayList<Object>();
+		this.myArrayList = new CompactList();
 	}
 
 	/**
@@ -125,7 +126,7 @@ public class JSONArray implements Iterable<Object> {
 	 *            A Collection.
 	 */
 	public JSONArray(Collection<Object> collection) {
-		this.myArrayList = new ArrayList<Object>();
+		this.myArrayList = new CompactList();
 		if (collection != null) {
 			Iterator<Object> iter = collection.iterator();
 			while (iter.hasNext()) {
@@ -154,6 +155,10 @@ public class JSONArray implements Iterable<Object> {
 
 	@Override
 	public Iterator<Object> iterator() {
+		// Parse any lazy values so that they cannot leak out of the iterator.
+		for (int i = 0; i < this.myArrayList.size(); i += 1) {
+			this.opt(i);
+		}
 		return myArrayList.iterator();
 	}
 
@@ -184,13 +189,11 @@ public class JSONArray implements Iterable<Object> {
 	 *             If there is no value for the index or if the value is not convertible to boolean.
 	 */
 	public boolean getBoolean(int index) throws JSONException {
-		Object object = this.get(index);
-		if (object.equals(Boolean.FALSE) || (object instanceof String && ((String) object).equalsIgnoreCase("false"))) {
-			return false;
-		} else if (object.equals(Boolean.TRUE) || (object instanceof String && ((String) object).equalsIgnoreCase("true"))) {
-			return true;
+		Boolean value = JSONObject.toBoolean(this.get(index));
+		if (value == null) {
+			throw new JSONException("JSONArray[" + index + "] is not a boolean.");
 		}
-		throw new JSONException("JSONArray[" + index + "] is not a boolean.");
+		return value.booleanValue();
 	}
 
 	/**
@@ -204,8 +207,14 @@ public class JSONArray implements Iterable<Object> {
 	 */
 	public double getDouble(int index) throws JSONException {
 		Object object = this.get(index);
+		if (object instanceof Number) {
+			return ((Number) object).doubleValue();
+		}
+		if (object instanceof String && JSONObject.isDecimalNumber((String) object)) {
+			return Double.parseDouble((String) object);
+		}
 		try {
-			return object instanceof Number ? ((Number) object).doubleValue() : Double.parseDouble((String) object);
+			return Double.parseDouble((String) object);
 		} catch (Exception e) {
 			throw new JSONException("JSONArray[" + index + "] is not a number.");
 		}
@@ -222,6 +231,15 @@ public class JSONArray implements Iterable<Object> {
 	 */
 	public int getInt(int index) throws JSONException {
 		Object object = this.get(index);
+		if (object instanceof Number) {
+			return ((Number) object).intValue();
+		}
+		if (object instanceof String) {
+			long value = JSONObject.parseDecimal((String) object, Integer.MIN_VALUE, Integer.MAX_VALUE, Long.MIN_VALUE);
+			if (value != Long.MIN_VALUE) {
+				return (int) value;
+			}
+		}
 		try {
 			return object instanceof Number ? ((Number) object).intValue() : Integer.parseInt((String) object);
 		} catch (Exception e) {
@@ -274,6 +292,15 @@ public class JSONArray implements Iterable<Object> {
 	 */
 	public long getLong(int index) throws JSONException {
 		Object object = this.get(index);
+		if (object instanceof Number) {
+			return ((Number) object).longValue();
+		}
+		if (object instanceof String) {
+			long value = JSONObject.parseDecimal((String) object, Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE);
+			if (value != Long.MIN_VALUE) {
+				return value;
+			}
+		}
 		try {
 			return object instanceof Number ? ((Number) object).longValue() : Long.parseLong((String) object);
 		} catch (Exception e) {
@@ -326,11 +353,59 @@ public class JSONArray implements Iterable<Object> {
 			if (i > 0) {
 				sb.append(separator);
 			}
-			sb.append(JSONObject.valueToString(this.myArrayList.get(i)));
+			sb.append(JSONObject.valueToString(this.opt(i)));
 		}
 		return sb.toString();
 	}
 
+	/**
+	 * Parse all of the lazy values in the JSONArray, splitting the work across a ForkJoinPool. The lazy values of an array read by a lazy JSONTokener each hold their own range of the text, so they can be parsed independently and in any order; the results are stored in their original positions. Values nested inside the elements stay lazy. The JSONArray must not be used by other threads while this runs.
+	 *
+	 * @param pool
+	 *            The pool to parse the values in.
+	 * @return this.
+	 * @throws JSONException
+	 *             If the text of a value is not valid.
+	 */
+	public JSONArray materialize(ForkJoinPool pool) throws JSONException {
+		pool.invoke(new MaterializeTask(this, 0, this.length()));
+		return this;
+	}
+
+	/**
+	 * Parses the lazy values in a range of a JSONArray, splitting large ranges in half.
+	 */
+	@SuppressWarnings("serial")
+	private static final class MaterializeTask extends RecursiveAction {
+
+		/**
+		 * Ranges of at most this many values are parsed by a single task.
+		 */
+		private static final int THRESHOLD = 64;
+
+		private final JSONArray array;
+		private final int start;
+		private final int end;
+
+		MaterializeTask(JSONArray array, int start, int end) {
+			this.array = array;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.end - this.start <= THRESHOLD) {
+				for (int i = this.start; i < this.end; i += 1) {
+					this.array.opt(i);
+				}
+			} else {
+				int middle = (this.start + this.end) >>> 1;
+				invokeAll(new MaterializeTask(this.array, this.start, middle), new MaterializeTask(this.array, middle, this.end));
+			}
+		}
+	}
+
 	/**
 	 * Get the number of elements in the JSONArray, included nulls.
 	 *
@@ -348,7 +423,15 @@ public class JSONArray implements Iterable<Object> {
 	 * @return An object value, or null if there is no object at that index.
 	 */
 	public Object opt(int index) {
-		return (index < 0 || index >= this.length()) ? null : this.myArrayList.get(index);
+		if (index < 0 || index >= this.length()) {
+			return null;
+		}
+		Object object = this.myArrayList.get(index);
+		if (object instanceof LazyValue) {
+			object = ((LazyValue) object).get();
+			this.myArrayList.set(index, object);
+		}
+		return object;
 	}
 
 	/**
@@ -372,11 +455,8 @@ public class JSONArray implements Iterable<Object> {
 	 * @return The truth.
 	 */
 	public boolean optBoolean(int index, boolean defaultValue) {
-		try {
-			return this.getBoolean(index);
-		} catch (Exception e) {
-			return defaultValue;
-		}
+		Boolean value = JSONObject.toBoolean(this.opt(index));
+		return value == null ? defaultValue : value.booleanValue();
 	}
 
 	/**
@@ -400,11 +480,14 @@ public class JSONArray implements Iterable<Object> {
 	 * @return The value.
 	 */
 	public double optDouble(int index, double defaultValue) {
-		try {
-			return this.getDouble(index);
-		} catch (Exception e) {
-			return defaultValue;
+		Object object = this.opt(index);
+		if (object instanceof Number) {
+			return ((Number) object).doubleValue();
+		}
+		if (object instanceof String) {
+			return JSONObject.toDouble((String) object, defaultValue);
 		}
+		return defaultValue;
 	}
 
 	/**
@@ -428,11 +511,14 @@ public class JSONArray implements Iterable<Object> {
 	 * @return The value.
 	 */
 	public int optInt(int index, int defaultValue) {
-		try {
-			return this.getInt(index);
-		} catch (Exception e) {
-			return defaultValue;
+		Object object = this.opt(index);
+		if (object instanceof Number) {
+			return ((Number) object).intValue();
 		}
+		if (object instanceof String) {
+			return (int) JSONObject.parseDecimal((String) object, Integer.MIN_VALUE, Integer.MAX_VALUE, defaultValue);
+		}
+		return defaultValue;
 	}
 
 	/**
@@ -480,11 +566,14 @@ public class JSONArray implements Iterable<Object> {
 	 * @return The value.
 	 */
 	public long optLong(int index, long defaultValue) {
-		try {
-			return this.getLong(index);
-		} catch (Exception e) {
-			return defaultValue;
+		Object object = this.opt(index);
+		if (object instanceof Number) {
+			return ((Number) object).longValue();
+		}
+		if (object instanceof String) {
+			return JSONObject.parseDecimal((String) object, Long.MIN_VALUE, Long.MAX_VALUE, defaultValue);
 		}
+		return defaultValue;
 	}
 
 	/**
@@ -520,7 +609,7 @@ public class JSONArray implements Iterable<Object> {
 	 * @return this.
 	 */
 	public JSONArray put(boolean value) {
-		this.put(value ? Boolean.TRUE : Boolean.FALSE);
+		this.myArrayList.addBoolean(value);
 		return this;
 	}
 
@@ -546,9 +635,10 @@ public class JSONArray implements Iterable<Object> {
 	 * @return this.
 	 */
 	public JSONArray put(double value) throws JSONException {
-		Double d = new Double(value);
-		JSONObject.testValidity(d);
-		this.put(d);
+		if (Double.isInfinite(value) || Double.isNaN(value)) {
+			throw new JSONException("JSON does not allow non-finite numbers.");
+		}
+		this.myArrayList.addDouble(value);
 		return this;
 	}
 
@@ -560,7 +650,7 @@ public class JSONArray implements Iterable<Object> {
 	 * @return this.
 	 */
 	public JSONArray put(int value) {
-		this.put(new Integer(value));
+		this.myArrayList.addInt(value);
 		return this;
 	}
 
@@ -572,7 +662,7 @@ public class JSONArray implements Iterable<Object> {
 	 * @return this.
 	 */
 	public JSONArray put(long value) {
-		this.put(new Long(value));
+		this.myArrayList.addLong(value);
 		return this;
 	}
 
@@ -731,7 +821,11 @@ public class JSONArray implements Iterable<Object> {
 	 * @return The value that was associated with the index, or null if there was no value.
 	 */
 	public Object remove(int index) {
-		return index >= 0 && index < this.length() ? this.myArrayList.remove(index) : null;
+		Object object = this.opt(index);
+		if (object != null) {
+			this.myArrayList.remove(index);
+		}
+		return object;
 	}
 
 	/**
@@ -767,6 +861,60 @@ public class JSONArray implements Iterable<Object> {
 		return true;
 	}
 
+	/**
+	 * Copy the values of the JSONArray into a boolean array.
+	 *
+	 * @return A boolean array with one value for each element.
+	 * @throws JSONException
+	 *             If any of the values are not a Boolean or the String "true" or "false".
+	 */
+	public boolean[] toBooleanArray() throws JSONException {
+		boolean[] values = this.myArrayList.toBooleanArray();
+		if (values == null) {
+			values = new boolean[this.length()];
+			for (int i = 0; i < values.length; i += 1) {
+				values[i] = this.getBoolean(i);
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Copy the values of the JSONArray into a double array.
+	 *
+	 * @return A double array with one value for each element.
+	 * @throws JSONException
+	 *             If any of the values cannot be converted to a number.
+	 */
+	public double[] toDoubleArray() throws JSONException {
+		double[] values = this.myArrayList.toDoubleArray();
+		if (values == null) {
+			values = new double[this.length()];
+			for (int i = 0; i < values.length; i += 1) {
+				values[i] = this.getDouble(i);
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Copy the values of the JSONArray into an int array.
+	 *
+	 * @return An int array with one value for each element.
+	 * @throws JSONException
+	 *             If any of the values cannot be converted to a number.
+	 */
+	public int[] toIntArray() throws JSONException {
+		int[] values = this.myArrayList.toIntArray();
+		if (values == null) {
+			values = new int[this.length()];
+			for (int i = 0; i < values.length; i += 1) {
+				values[i] = this.getInt(i);
+			}
+		}
+		return values;
+	}
+
 	/**
 	 * Produce a JSONObject by combining a JSONArray of names with the values of this JSONArray.
 	 *
@@ -787,6 +935,24 @@ public class JSONArray implements Iterable<Object> {
 		return jo;
 	}
 
+	/**
+	 * Copy the values of the JSONArray into a long array.
+	 *
+	 * @return A long array with one value for each element.
+	 * @throws JSONException
+	 *             If any of the values cannot be converted to a number.
+	 */
+	public long[] toLongArray() throws JSONException {
+		long[] values = this.myArrayList.toLongArray();
+		if (values == null) {
+			values = new long[this.length()];
+			for (int i = 0; i < values.length; i += 1) {
+				values[i] = this.getLong(i);
+			}
+		}
+		return values;
+	}
+
 	/**
 	 * Make a JSON text of this JSONArray. For compactness, no unnecessary whitespace is added. If it is not possible to produce a syntactically correct JSON text then null will be returned instead. This could occur if the array contains an invalid number.
 	 * <p>
@@ -848,7 +1014,7 @@ public class JSONArray implements Iterable<Object> {
 			writer.write('[');
 
 			if (length == 1) {
-				JSONObject.writeValue(writer, this.myArrayList.get(0), indentFactor, indent);
+				this.writeElement(writer, 0, indentFactor, indent);
 			} else if (length != 0) {
 				final int newindent = indent + indentFactor;
 
@@ -860,7 +1026,7 @@ public class JSONArray implements Iterable<Object> {
 						writer.write('\n');
 					}
 					JSONObject.indent(writer, newindent);
-					JSONObject.writeValue(writer, this.myArrayList.get(i), indentFactor, newindent);
+					this.writeElement(writer, i, indentFactor, newindent);
 					commanate = true;
 				}
 				if (indentFactor > 0) {
@@ -874,4 +1040,13 @@ public class JSONArray implements Iterable<Object> {
 			throw new JSONException(e);
 		}
 	}
+
+	/**
+	 * Write one element, straight from its primitive storage when it has one.
+	 */
+	private void writeElement(Writer writer, int index, int indentFactor, int indent) throws JSONException, IOException {
+		if (!this.myArrayList.writePrimitive(writer, index)) {
+			JSONObject.writeValue(writer, this.myArrayList.get(index), indentFactor, indent);
+		}
+	}
 }
@@ -27,13 +27,17 @@ package org.json;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -140,6 +144,31 @@ public class JSONObject {
      */
     private final Map<String, Object> map;
 
+    /**
+     * The escape sequences of the ASCII characters that quote must always
+     * escape, indexed by character. The other ASCII characters are null.
+     */
+    private static final String[] ESCAPES = new String[128];
+
+    /**
+     * Spaces to indent with, written in bulk.
+     */
+    private static final String SPACES = "                                ";
+
+    static {
+        for (int c = 0; c < ' '; c += 1) {
+            String hhhh = Integer.toHexString(c);
+            ESCAPES[c] = "\\u" + "0000".substring(hhhh.length()) + hhhh;
+        }
+        ESCAPES['\b'] = "\\b";
+        ESCAPES['\t'] = "\\t";
+        ESCAPES['\n'] = "\\n";
+        ESCAPES['\f'] = "\\f";
+        ESCAPES['\r'] = "\\r";
+        ESCAPES['"'] = "\\\"";
+        ESCAPES['\\'] = "\\\\";
+    }
+
     /**
      * It is sometimes more convenient and less ambiguous to have a
      * <code>NULL</code> object than to use Java's <code>null</code> value.
@@ -152,7 +181,7 @@ public class JSONObject {
      * Construct an empty JSONObject.
      */
     public JSONObject() {
-        this.map = new HashMap<String, Object>();
+        this.map = new CompactMap();
     }
 
     /**
@@ -243,7 +272,7 @@ public class JSONObject {
      * @throws JSONException
      */
     public JSONObject(Map<String, Object> map) {
-        this.map = new HashMap<String, Object>();
+        this.map = new CompactMap(map == null ? 0 : map.size());
         if (map != null) {
             Iterator<Entry<String, Object>> i = map.entrySet().iterator();
             while (i.hasNext()) {
@@ -489,18 +518,12 @@ public class JSONObject {
      *             "false".
      */
     public boolean getBoolean(String key) throws JSONException {
-        Object object = this.get(key);
-        if (object.equals(Boolean.FALSE)
-                || (object instanceof String && ((String) object)
-                        .equalsIgnoreCase("false"))) {
-            return false;
-        } else if (object.equals(Boolean.TRUE)
-                || (object instanceof String && ((String) object)
-                        .equalsIgnoreCase("true"))) {
-            return true;
+        Boolean value = toBoolean(this.get(key));
+        if (value == null) {
+            throw new JSONException("JSONObject[" + quote(key)
+                    + "] is not a Boolean.");
         }
-        throw new JSONException("JSONObject[" + quote(key)
-                + "] is not a Boolean.");
+        return value.booleanValue();
     }
 
     /**
@@ -515,9 +538,14 @@ public class JSONObject {
      */
     public double getDouble(String key) throws JSONException {
         Object object = this.get(key);
+        if (object instanceof Number) {
+            return ((Number) object).doubleValue();
+        }
+        if (object instanceof String && isDecimalNumber((String) object)) {
+            return Double.parseDouble((String) object);
+        }
         try {
-            return object instanceof Number ? ((Number) object).doubleValue()
-                    : Double.parseDouble((String) object);
+            return Double.parseDouble((String) object);
         } catch (Exception e) {
             throw new JSONException("JSONObject[" + quote(key)
                     + "] is not a number.");
@@ -536,6 +564,16 @@ public class JSONObject {
      */
     public int getInt(String key) throws JSONException {
         Object object = this.get(key);
+        if (object instanceof Number) {
+            return ((Number) object).intValue();
+        }
+        if (object instanceof String) {
+            long value = parseDecimal((String) object, Integer.MIN_VALUE,
+                    Integer.MAX_VALUE, Long.MIN_VALUE);
+            if (value != Long.MIN_VALUE) {
+                return (int) value;
+            }
+        }
         try {
             return object instanceof Number ? ((Number) object).intValue()
                     : Integer.parseInt((String) object);
@@ -593,6 +631,16 @@ public class JSONObject {
      */
     public long getLong(String key) throws JSONException {
         Object object = this.get(key);
+        if (object instanceof Number) {
+            return ((Number) object).longValue();
+        }
+        if (object instanceof String) {
+            long value = parseDecimal((String) object, Long.MIN_VALUE,
+                    Long.MAX_VALUE, Long.MIN_VALUE);
+            if (value != Long.MIN_VALUE) {
+                return value;
+            }
+        }
         try {
             return object instanceof Number ? ((Number) object).longValue()
                     : Long.parseLong((String) object);
@@ -796,7 +844,15 @@ public class JSONObject {
      * @return An object which is the value, or null if there is no value.
      */
     public Object opt(String key) {
-        return key == null ? null : this.map.get(key);
+        if (key == null) {
+            return null;
+        }
+        Object object = this.map.get(key);
+        if (object instanceof LazyValue) {
+            object = ((LazyValue) object).get();
+            this.map.put(key, object);
+        }
+        return object;
     }
 
     /**
@@ -823,11 +879,8 @@ public class JSONObject {
      * @return The truth.
      */
     public boolean optBoolean(String key, boolean defaultValue) {
-        try {
-            return this.getBoolean(key);
-        } catch (Exception e) {
-            return defaultValue;
-        }
+        Boolean value = toBoolean(this.opt(key));
+        return value == null ? defaultValue : value.booleanValue();
     }
 
     /**
@@ -855,11 +908,14 @@ public class JSONObject {
      * @return An object which is the value.
      */
     public double optDouble(String key, double defaultValue) {
-        try {
-            return this.getDouble(key);
-        } catch (Exception e) {
-            return defaultValue;
+        Object object = this.opt(key);
+        if (object instanceof Number) {
+            return ((Number) object).doubleValue();
+        }
+        if (object instanceof String) {
+            return toDouble((String) object, defaultValue);
         }
+        return defaultValue;
     }
 
     /**
@@ -887,11 +943,15 @@ public class JSONObject {
      * @return An object which is the value.
      */
     public int optInt(String key, int defaultValue) {
-        try {
-            return this.getInt(key);
-        } catch (Exception e) {
-            return defaultValue;
+        Object object = this.opt(key);
+        if (object instanceof Number) {
+            return ((Number) object).intValue();
         }
+        if (object instanceof String) {
+            return (int) parseDecimal((String) object, Integer.MIN_VALUE,
+                    Integer.MAX_VALUE, defaultValue);
+        }
+        return defaultValue;
     }
 
     /**
@@ -945,11 +1005,15 @@ public class JSONObject {
      * @return An object which is the value.
      */
     public long optLong(String key, long defaultValue) {
-        try {
-            return this.getLong(key);
-        } catch (Exception e) {
-            return defaultValue;
+        Object object = this.opt(key);
+        if (object instanceof Number) {
+            return ((Number) object).longValue();
+        }
+        if (object instanceof String) {
+            return parseDecimal((String) object, Long.MIN_VALUE,
+                    Long.MAX_VALUE, defaultValue);
         }
+        return defaultValue;
     }
 
     /**
@@ -981,47 +1045,119 @@ public class JSONObject {
     }
 
     private void populateMap(Object bean) {
-        Class<?> klass = bean.getClass();
+        BeanProperty[] properties = BEAN_PROPERTIES.get(bean.getClass());
+        for (int i = 0; i < properties.length; i += 1) {
+            Object result = properties[i].get(bean);
+            if (result != null) {
+                this.map.put(properties[i].key, wrap(result));
+            }
+        }
+    }
 
-// If klass is a System class then set includeSuperClass to false.
+    /**
+     * The bean properties of each class, found the first time an object of
+     * the class is given to populateMap.
+     */
+    private static final ClassValue<BeanProperty[]> BEAN_PROPERTIES = new ClassValue<BeanProperty[]>() {
+        @Override
+        protected BeanProperty[] computeValue(Class<?> klass) {
+            return BeanProperty.of(klass);
+        }
+    };
 
-        boolean includeSuperClass = klass.getClassLoader() != null;
+    /**
+     * A bean getter and the key it is stored under. The getter is called
+     * through a MethodHandle when the class is accessible, and through
+     * reflection otherwise.
+     */
+    private static final class BeanProperty {
+        private static final MethodType GETTER_TYPE = MethodType.methodType(
+                Object.class, Object.class);
 
-        Method[] methods = includeSuperClass ? klass.getMethods() : klass
-                .getDeclaredMethods();
-        for (int i = 0; i < methods.length; i += 1) {
-            try {
+        private final String key;
+        private final MethodHandle handle;
+        private final Method method;
+
+        private BeanProperty(String key, MethodHandle handle, Method method) {
+            this.key = key;
+            this.handle = handle;
+            this.method = method;
+        }
+
+        /**
+         * Find the bean properties of a class. These are the public methods
+         * with no parameters whose names start with "get" or "is" followed
+         * by an uppercase letter. If klass is a System class then only its
+         * declared methods are used.
+         *
+         * @param klass
+         *            The class of the bean.
+         * @return The properties of the class.
+         */
+        static BeanProperty[] of(Class<?> klass) {
+            boolean includeSuperClass = klass.getClassLoader() != null;
+
+            Method[] methods = includeSuperClass ? klass.getMethods() : klass
+                    .getDeclaredMethods();
+            List<BeanProperty> properties = new ArrayList<BeanProperty>();
+            for (int i = 0; i < methods.length; i += 1) {
                 Method method = methods[i];
-                if (Modifier.isPublic(method.getModifiers())) {
-                    String name = method.getName();
-                    String key = "";
-                    if (name.startsWith("get")) {
-                        if ("getClass".equals(name)
-                                || "getDeclaringClass".equals(name)) {
-                            key = "";
-                        } else {
-                            key = name.substring(3);
-                        }
-                    } else if (name.startsWith("is")) {
-                        key = name.substring(2);
+                if (!Modifier.isPublic(method.getModifiers())) {
+                    continue;
+                }
+                String name = method.getName();
+                String key = "";
+                if (name.startsWith("get")) {
+                    if ("getClass".equals(name)
+                            || "getDeclaringClass".equals(name)) {
+                        key = "";
+                    } else {
+                        key = name.substring(3);
                     }
-                    if (key.length() > 0
-                            && Character.isUpperCase(key.charAt(0))
-                            && method.getParameterTypes().length == 0) {
-                        if (key.length() == 1) {
-                            key = key.toLowerCase();
-                        } else if (!Character.isUpperCase(key.charAt(1))) {
-                            key = key.substring(0, 1).toLowerCase()
-                                    + key.substring(1);
-                        }
-
-                        Object result = method.invoke(bean, (Object[]) null);
-                        if (result != null) {
-                            this.map.put(key, wrap(result));
-                        }
+                } else if (name.startsWith("is")) {
+                    key = name.substring(2);
+                }
+                if (key.length() > 0
+                        && Character.isUpperCase(key.charAt(0))
+                        && method.getParameterTypes().length == 0) {
+                    if (key.length() == 1) {
+                        key = key.toLowerCase();
+                    } else if (!Character.isUpperCase(key.charAt(1))) {
+                        key = key.substring(0, 1).toLowerCase()
+                                + key.substring(1);
+                    }
+
+                    MethodHandle handle;
+                    try {
+                        handle = MethodHandles.publicLookup().unreflect(method)
+                                .asType(GETTER_TYPE);
+                    } catch (Exception e) {
+                        handle = null;
                     }
+                    properties.add(new BeanProperty(key, handle, method));
                 }
-            } catch (Exception ignore) {
+            }
+            return properties.toArray(new BeanProperty[properties.size()]);
+        }
+
+        /**
+         * Call the getter on a bean.
+         *
+         * @param bean
+         *            The bean.
+         * @return The value of the property, or null if the getter threw an
+         *         exception or could not be called.
+         */
+        Object get(Object bean) {
+            try {
+                if (this.handle != null) {
+                    return (Object) this.handle.invokeExact(bean);
+                }
+                return this.method.invoke(bean, (Object[]) null);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable ignore) {
+                return null;
             }
         }
     }
@@ -1202,76 +1338,99 @@ public class JSONObject {
      * @return A String correctly formatted for insertion in a JSON text.
      */
     public static String quote(String string) {
-        StringWriter sw = new StringWriter();
-        synchronized (sw.getBuffer()) {
-            try {
-                return quote(string, sw).toString();
-            } catch (IOException ignored) {
-                // will never happen - we are writing to a string writer
-                return "";
-            }
+        if (string == null || string.length() == 0) {
+            return "\"\"";
+        }
+        int length = string.length();
+        if (escapeIndex(string, 0) == length) {
+            return new StringBuilder(length + 2).append('"').append(string)
+                    .append('"').toString();
+        }
+        StringWriter sw = new StringWriter(length + 16);
+        try {
+            return quote(string, sw).toString();
+        } catch (IOException ignored) {
+            // will never happen - we are writing to a string writer
+            return "";
         }
     }
 
+    /**
+     * Write a string in double quotes with backslash sequences in all the
+     * right places. Runs of characters that need no escaping are written with
+     * a single bulk write.
+     *
+     * @param string
+     *            A String
+     * @param w
+     *            The writer to write the quoted string to.
+     * @return The writer.
+     * @throws IOException
+     */
     public static Writer quote(String string, Writer w) throws IOException {
         if (string == null || string.length() == 0) {
             w.write("\"\"");
             return w;
         }
 
-        char b;
-        char c = 0;
-        String hhhh;
-        int i;
         int len = string.length();
+        int run = 0;
+        int i;
 
         w.write('"');
-        for (i = 0; i < len; i += 1) {
-            b = c;
-            c = string.charAt(i);
-            switch (c) {
-            case '\\':
-            case '"':
-                w.write('\\');
-                w.write(c);
-                break;
-            case '/':
-                if (b == '<') {
-                    w.write('\\');
-                }
-                w.write(c);
-                break;
-            case '\b':
-                w.write("\\b");
-                break;
-            case '\t':
-                w.write("\\t");
-                break;
-            case '\n':
-                w.write("\\n");
-                break;
-            case '\f':
-                w.write("\\f");
-                break;
-            case '\r':
-                w.write("\\r");
-                break;
-            default:
-                if (c < ' ' || (c >= '\u0080' && c < '\u00a0')
-                        || (c >= '\u2000' && c < '\u2100')) {
-                    w.write("\\u");
-                    hhhh = Integer.toHexString(c);
-                    w.write("0000", 0, 4 - hhhh.length());
-                    w.write(hhhh);
-                } else {
-                    w.write(c);
-                }
+        while ((i = escapeIndex(string, run)) < len) {
+            if (i > run) {
+                w.write(string, run, i - run);
+            }
+            char c = string.charAt(i);
+            if (c < ESCAPES.length && ESCAPES[c] != null) {
+                w.write(ESCAPES[c]);
+            } else if (c == '/') {
+                w.write("\\/");
+            } else {
+                String hhhh = Integer.toHexString(c);
+                w.write("\\u");
+                w.write("0000", 0, 4 - hhhh.length());
+                w.write(hhhh);
             }
+            run = i + 1;
+        }
+        if (len > run) {
+            w.write(string, run, len - run);
         }
         w.write('"');
         return w;
     }
 
+    /**
+     * Find the next character of a string that quote must escape. A slash is
+     * only escaped when it follows a '<', so that "</" cannot close an HTML
+     * script element.
+     *
+     * @param string
+     *            A String
+     * @param from
+     *            The index to start searching at.
+     * @return The index of the character, or the length of the string if
+     *         there are no more characters to escape.
+     */
+    private static int escapeIndex(String string, int from) {
+        int len = string.length();
+        for (int i = from; i < len; i += 1) {
+            char c = string.charAt(i);
+            if (c < ESCAPES.length) {
+                if (ESCAPES[c] != null
+                        || (c == '/' && i > 0 && string.charAt(i - 1) == '<')) {
+                    return i;
+                }
+            } else if ((c >= '\u0080' && c < '\u00a0')
+                    || (c >= '\u2000' && c < '\u2100')) {
+                return i;
+            }
+        }
+        return len;
+    }
+
     /**
      * Remove a name and its value, if present.
      *
@@ -1281,7 +1440,9 @@ public class JSONObject {
      *         no value.
      */
     public Object remove(String key) {
-        return this.map.remove(key);
+        Object object = this.map.remove(key);
+        return object instanceof LazyValue ? ((LazyValue) object).get()
+                : object;
     }
 
     /**
@@ -1328,55 +1489,265 @@ public class JSONObject {
      * Try to convert a string into a number, boolean, or null. If the string
      * can't be converted, return the string.
      *
+     * The string is classified in a single pass. Integers are accumulated as
+     * they are scanned and only strings that are already known to be valid
+     * decimal numbers are handed to Double.valueOf, so no exceptions are
+     * thrown for strings that merely look like numbers.
+     *
      * @param string
      *            A String.
      * @return A simple JSON value.
      */
     public static Object stringToValue(String string) {
-        Double d;
-        if (string.equals("")) {
+        int length = string.length();
+        if (length == 0) {
             return string;
         }
-        if (string.equalsIgnoreCase("true")) {
-            return Boolean.TRUE;
+        char b = string.charAt(0);
+        if ((b >= '0' && b <= '9') || b == '-') {
+            return stringToNumber(string);
         }
-        if (string.equalsIgnoreCase("false")) {
+        if (length == 4) {
+            if (string.equalsIgnoreCase("true")) {
+                return Boolean.TRUE;
+            }
+            if (string.equalsIgnoreCase("null")) {
+                return JSONObject.NULL;
+            }
+        } else if (length == 5 && string.equalsIgnoreCase("false")) {
             return Boolean.FALSE;
         }
-        if (string.equalsIgnoreCase("null")) {
-            return JSONObject.NULL;
+        return string;
+    }
+
+    /**
+     * Convert a string that starts with a digit or a minus sign into an
+     * Integer, Long, or Double. Integers must survive a round trip through
+     * Long.toString, so leading zeros, "-0" and values that overflow a long
+     * are left as strings, as are non-finite doubles.
+     *
+     * @param string
+     *            A non-empty String.
+     * @return A Number, or the string if it is not a number.
+     */
+    private static Object stringToNumber(String string) {
+        int length = string.length();
+        boolean negative = string.charAt(0) == '-';
+        int i = negative ? 1 : 0;
+        int integerStart = i;
+
+        // Accumulate negatively so that Long.MIN_VALUE can be represented.
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long value = 0;
+        boolean overflow = false;
+        char c = 0;
+        while (i < length) {
+            c = string.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            int digit = c - '0';
+            if (value < limit / 10 || value * 10 < limit + digit) {
+                overflow = true;
+            } else {
+                value = value * 10 - digit;
+            }
+            i += 1;
         }
+        int integerDigits = i - integerStart;
 
-        /*
-         * If it might be a number, try converting it. If a number cannot be
-         * produced, then the value will just be a string.
-         */
+        if (i == length) {
+            if (integerDigits == 0 || overflow) {
+                return string;
+            }
+            if (string.charAt(integerStart) == '0'
+                    && (integerDigits > 1 || negative)) {
+                return string;
+            }
+            if (!negative) {
+                value = -value;
+            }
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                return Integer.valueOf((int) value);
+            }
+            return Long.valueOf(value);
+        }
 
-        char b = string.charAt(0);
-        if ((b >= '0' && b <= '9') || b == '-') {
-            try {
-                if (string.indexOf('.') > -1 || string.indexOf('e') > -1
-                        || string.indexOf('E') > -1) {
-                    d = Double.valueOf(string);
-                    if (!d.isInfinite() && !d.isNaN()) {
-                        return d;
-                    }
-                } else {
-                    Long myLong = new Long(string);
-                    if (string.equals(myLong.toString())) {
-                        if (myLong == myLong.intValue()) {
-                            return myLong.intValue();
-                        } else {
-                            return myLong;
-                        }
-                    }
-                }
-            } catch (Exception ignore) {
+        int fractionDigits = 0;
+        if (c == '.') {
+            i += 1;
+            while (i < length && (c = string.charAt(i)) >= '0' && c <= '9') {
+                fractionDigits += 1;
+                i += 1;
+            }
+        }
+        if (integerDigits + fractionDigits == 0) {
+            return string;
+        }
+        if (i < length && (c == 'e' || c == 'E')) {
+            i += 1;
+            if (i < length && ((c = string.charAt(i)) == '+' || c == '-')) {
+                i += 1;
+            }
+            int exponentStart = i;
+            while (i < length && (c = string.charAt(i)) >= '0' && c <= '9') {
+                i += 1;
+            }
+            if (i == exponentStart) {
+                return string;
             }
         }
+        if (i != length) {
+            return string;
+        }
+        Double d = Double.valueOf(string);
+        if (!d.isInfinite() && !d.isNaN()) {
+            return d;
+        }
         return string;
     }
 
+    /**
+     * Convert a value to a boolean without throwing. Booleans are returned as
+     * they are and the strings "true" and "false" (case insensitive) are
+     * converted.
+     *
+     * @param object
+     *            The value, which may be null.
+     * @return Boolean.TRUE, Boolean.FALSE, or null if the value is not a
+     *         boolean.
+     */
+    static Boolean toBoolean(Object object) {
+        if (object instanceof Boolean) {
+            return (Boolean) object;
+        }
+        if (object instanceof String) {
+            String string = (String) object;
+            if (string.equalsIgnoreCase("true")) {
+                return Boolean.TRUE;
+            }
+            if (string.equalsIgnoreCase("false")) {
+                return Boolean.FALSE;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parse an optionally signed run of decimal digits, the same strings that
+     * Long.parseLong accepts, without throwing.
+     *
+     * @param string
+     *            The string to parse.
+     * @param min
+     *            The smallest value allowed, which must not be positive.
+     * @param max
+     *            The largest value allowed, which must not be negative.
+     * @param defaultValue
+     *            The value returned if the string is not an integer between
+     *            min and max.
+     * @return The parsed value, or the defaultValue.
+     */
+    static long parseDecimal(String string, long min, long max,
+            long defaultValue) {
+        int length = string.length();
+        if (length == 0) {
+            return defaultValue;
+        }
+        int i = 0;
+        char c = string.charAt(0);
+        boolean negative = c == '-';
+        if (negative || c == '+') {
+            if (length == 1) {
+                return defaultValue;
+            }
+            i = 1;
+        }
+        long limit = negative ? min : -max;
+        long value = 0;
+        for (; i < length; i += 1) {
+            c = string.charAt(i);
+            if (c < '0' || c > '9') {
+                return defaultValue;
+            }
+            int digit = c - '0';
+            if (value < limit / 10 || value * 10 < limit + digit) {
+                return defaultValue;
+            }
+            value = value * 10 - digit;
+        }
+        return negative ? value : -value;
+    }
+
+    /**
+     * Test whether a string is a plain decimal number: an optional sign,
+     * digits with an optional fraction, and an optional exponent. Every such
+     * string can be given to Double.parseDouble without it throwing.
+     *
+     * @param string
+     *            The string to test.
+     * @return true if the string is a decimal number.
+     */
+    static boolean isDecimalNumber(String string) {
+        int length = string.length();
+        int i = 0;
+        if (length > 0 && (string.charAt(0) == '-' || string.charAt(0) == '+')) {
+            i = 1;
+        }
+        int digits = 0;
+        char c;
+        while (i < length && (c = string.charAt(i)) >= '0' && c <= '9') {
+            digits += 1;
+            i += 1;
+        }
+        if (i < length && string.charAt(i) == '.') {
+            i += 1;
+            while (i < length && (c = string.charAt(i)) >= '0' && c <= '9') {
+                digits += 1;
+                i += 1;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < length && ((c = string.charAt(i)) == 'e' || c == 'E')) {
+            i += 1;
+            if (i < length && ((c = string.charAt(i)) == '+' || c == '-')) {
+                i += 1;
+            }
+            int exponentStart = i;
+            while (i < length && (c = string.charAt(i)) >= '0' && c <= '9') {
+                i += 1;
+            }
+            if (i == exponentStart) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    /**
+     * Convert a string to a double without throwing. Plain decimal numbers
+     * are recognized without an exception; anything else that
+     * Double.parseDouble accepts, such as "NaN" or " 1.5", is still converted.
+     *
+     * @param string
+     *            The string to convert.
+     * @param defaultValue
+     *            The value returned if the string is not a number.
+     * @return The number, or the defaultValue.
+     */
+    static double toDouble(String string, double defaultValue) {
+        if (isDecimalNumber(string)) {
+            return Double.parseDouble(string);
+        }
+        try {
+            return Double.parseDouble(string);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
     /**
      * Throw an exception if the object is a NaN or infinite number.
      *
@@ -1596,6 +1967,9 @@ public class JSONObject {
 
     static final Writer writeValue(Writer writer, Object value,
             int indentFactor, int indent) throws JSONException, IOException {
+        if (value instanceof LazyValue) {
+            value = ((LazyValue) value).get();
+        }
         if (value == null || value.equals(null)) {
             writer.write("null");
         } else if (value instanceof JSONObject) {
@@ -1624,7 +1998,11 @@ public class JSONObject {
             } catch (Exception e) {
                 throw new JSONException(e);
             }
-            writer.write(o != null ? o.toString() : quote(value.toString()));
+            if (o != null) {
+                writer.write(o.toString());
+            } else {
+                quote(value.toString(), writer);
+            }
         } else {
             quote(value.toString(), writer);
         }
@@ -1632,8 +2010,12 @@ public class JSONObject {
     }
 
     static final void indent(Writer writer, int indent) throws IOException {
-        for (int i = 0; i < indent; i += 1) {
-            writer.write(' ');
+        while (indent > SPACES.length()) {
+            writer.write(SPACES);
+            indent -= SPACES.length();
+        }
+        if (indent > 0) {
+            writer.write(SPACES, 0, indent);
         }
     }
 
@@ -1651,21 +2033,22 @@ public class JSONObject {
         try {
             boolean commanate = false;
             final int length = this.length();
-            Iterator<String> keys = this.keys();
+            Iterator<Entry<String, Object>> entries = this.map.entrySet()
+                    .iterator();
             writer.write('{');
 
             if (length == 1) {
-                Object key = keys.next();
-                writer.write(quote(key.toString()));
+                Entry<String, Object> entry = entries.next();
+                quote(entry.getKey(), writer);
                 writer.write(':');
                 if (indentFactor > 0) {
                     writer.write(' ');
                 }
-                writeValue(writer, this.map.get(key), indentFactor, indent);
+                writeValue(writer, entry.getValue(), indentFactor, indent);
             } else if (length != 0) {
                 final int newindent = indent + indentFactor;
-                while (keys.hasNext()) {
-                    Object key = keys.next();
+                while (entries.hasNext()) {
+                    Entry<String, Object> entry = entries.next();
                     if (commanate) {
                         writer.write(',');
                     }
@@ -1673,12 +2056,12 @@ public class JSONObject {
                         writer.write('\n');
                     }
                     indent(writer, newindent);
-                    writer.write(quote(key.toString()));
+                    quote(entry.getKey(), writer);
                     writer.write(':');
                     if (indentFactor > 0) {
                         writer.write(' ');
                     }
-                    writeValue(writer, this.map.get(key), indentFactor, newindent);
+                    writeValue(writer, entry.getValue(), indentFactor, newindent);
                     commanate = true;
                 }
                 if (indentFactor > 0) {
@@ -1,11 +1,10 @@
 package org.json;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.io.StringReader;
+import java.util.Arrays;
 
 /*
 Copyright (c) 2002 JSON.org
@@ -40,14 +39,57 @@ SOFTWARE.
  */
 public class JSONTokener {
 
-    private long    character;
+    /** Size of the buffer used for Reader and InputStream sources. */
+    private static final int BUFFER_SIZE = 32768;
+
+    /** Characters that end an unquoted value, indexed by character. */
+    private static final boolean[] VALUE_TERMINATORS = new boolean[128];
+
+    /** Characters that matter when skipping over a lazy value. */
+    private static final boolean[] STRUCTURAL = new boolean[128];
+
+    static {
+        String terminators = ",:]}/\\\"[{;=#";
+        for (int i = 0; i < terminators.length(); i += 1) {
+            VALUE_TERMINATORS[terminators.charAt(i)] = true;
+        }
+        String structural = "{}[]\"'";
+        for (int i = 0; i < structural.length(); i += 1) {
+            STRUCTURAL[structural.charAt(i)] = true;
+        }
+    }
+
+    /**
+     * The characters available to the tokener. For String and char[] sources
+     * this is the whole text, for Reader sources it is refilled as it is
+     * consumed.
+     */
+    private char[]  buffer;
+    private int     bufferLength;
+    private long    bufferStart;
     private boolean eof;
-    private long    index;
-    private long    line;
-    private char    previous;
+    private boolean lazy;
+    private int     markPosition;
+    private int     position;
     private Reader  reader;
+    private SymbolTable symbols;
     private boolean usePrevious;
 
+    /**
+     * Whether the buffer holds the whole source, so that lazy values can
+     * refer to it instead of copying their text.
+     */
+    private boolean wholeSource;
+
+    /**
+     * The line and character counts of the text that has been dropped from
+     * the buffer. The counts of the text still in the buffer are only
+     * computed when they are asked for.
+     */
+    private long    trackedCharacter;
+    private long    trackedLine;
+    private char    trackedPrevious;
+
 
     /**
      * Construct a JSONTokener from a Reader.
@@ -55,15 +97,9 @@ public class JSONTokener {
      * @param reader     A reader.
      */
     public JSONTokener(Reader reader) {
-        this.reader = reader.markSupported()
-            ? reader
-            : new BufferedReader(reader);
-        this.eof = false;
-        this.usePrevious = false;
-        this.previous = 0;
-        this.index = 0;
-        this.character = 1;
-        this.line = 1;
+        this(new char[BUFFER_SIZE], 0);
+        this.reader = reader;
+        this.wholeSource = false;
     }
 
 
@@ -82,7 +118,61 @@ public class JSONTokener {
      * @param s     A source string.
      */
     public JSONTokener(String s) {
-        this(new StringReader(s));
+        this(s.toCharArray());
+    }
+
+
+    /**
+     * Construct a JSONTokener from a character array. The array is used
+     * directly and must not be modified while it is being parsed.
+     *
+     * @param chars     The source characters.
+     */
+    public JSONTokener(char[] chars) {
+        this(chars, chars.length);
+    }
+
+
+    /**
+     * Construct a JSONTokener over a range of a character array, used to
+     * parse lazy values. Positions are reported relative to the source the
+     * array was read from, given by where its first character was found.
+     *
+     * @param chars     The source characters.
+     * @param offset    The index of the first character to read.
+     * @param length    The number of characters to read.
+     * @param index     The index in the source of the first character of
+     *                  the array.
+     * @param line      The line count before the first character.
+     * @param character The character count before the first character.
+     * @param previous  The character before the first character, or 0.
+     */
+    JSONTokener(char[] chars, int offset, int length, long index, long line,
+            long character, char previous) {
+        this(chars, offset + length);
+        this.position = offset;
+        this.bufferStart = index;
+        this.trackedLine = line;
+        this.trackedCharacter = character;
+        this.trackedPrevious = previous;
+    }
+
+
+    private JSONTokener(char[] buffer, int bufferLength) {
+        this.buffer = buffer;
+        this.bufferLength = bufferLength;
+        this.bufferStart = 0;
+        this.eof = false;
+        this.lazy = false;
+        this.markPosition = -1;
+        this.position = 0;
+        this.reader = null;
+        this.symbols = null;
+        this.usePrevious = false;
+        this.wholeSource = true;
+        this.trackedCharacter = 1;
+        this.trackedLine = 1;
+        this.trackedPrevious = 0;
     }
 
 
@@ -92,11 +182,10 @@ public class JSONTokener {
      * the next number or identifier.
      */
     public void back() throws JSONException {
-        if (this.usePrevious || this.index <= 0) {
+        if (this.usePrevious || this.bufferStart + this.position <= 0) {
             throw new JSONException("Stepping back two steps is not supported");
         }
-        this.index -= 1;
-        this.character -= 1;
+        this.position -= 1;
         this.usePrevious = true;
         this.eof = false;
     }
@@ -121,6 +210,49 @@ public class JSONTokener {
         return -1;
     }
 
+
+    /**
+     * Get the SymbolTable used to canonicalize the strings that are read.
+     * @return The SymbolTable, or null if strings are not canonicalized.
+     */
+    public SymbolTable getSymbolTable() {
+        return this.symbols;
+    }
+
+
+    /**
+     * Set a SymbolTable to canonicalize the quoted strings that are read, so
+     * that repeated keys and values share a single instance.
+     * @param symbols A SymbolTable, or null to create every string fresh.
+     */
+    public void setSymbolTable(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+
+    /**
+     * Determine if nested objects and arrays are parsed lazily.
+     * @return true if nextValue returns nested objects and arrays unparsed.
+     */
+    public boolean isLazy() {
+        return this.lazy;
+    }
+
+
+    /**
+     * Set whether nested objects and arrays are parsed lazily. In lazy mode
+     * nextValue only skips over the structure of an object or array value
+     * and records where its text is. The JSONObject or JSONArray that holds
+     * it parses the text the first time the value is asked for, and the
+     * values nested inside are again lazy. Parts of a large text that are
+     * never looked at are never parsed, but syntax errors inside a nested
+     * value are only reported once it is parsed.
+     * @param lazy true to parse nested objects and arrays lazily.
+     */
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
     public boolean end() {
         return this.eof && !this.usePrevious;
     }
@@ -147,34 +279,108 @@ public class JSONTokener {
      * @return The next character, or 0 if past the end of the source string.
      */
     public char next() throws JSONException {
-        int c;
-        if (this.usePrevious) {
-            this.usePrevious = false;
-            c = this.previous;
-        } else {
-            try {
-                c = this.reader.read();
-            } catch (IOException exception) {
-                throw new JSONException(exception);
-            }
-
-            if (c <= 0) { // End of stream
+        this.usePrevious = false;
+        if (this.position < this.bufferLength || this.fill()) {
+            char c = this.buffer[this.position];
+            this.position += 1;
+            if (c == 0) { // End of stream
                 this.eof = true;
-                c = 0;
             }
+            return c;
         }
-        this.index += 1;
-        if (this.previous == '\r') {
-            this.line += 1;
-            this.character = c == '\n' ? 0 : 1;
-        } else if (c == '\n') {
-            this.line += 1;
-            this.character = 0;
-        } else {
-            this.character += 1;
+        this.position += 1;
+        this.eof = true;
+        return 0;
+    }
+
+
+    /**
+     * Read more characters from the reader into the buffer. Characters that
+     * have been consumed are dropped from the front of the buffer, except
+     * for the last one (so that back() still works) and anything after a
+     * mark set by skipTo().
+     *
+     * @return true if more characters are available at the current position.
+     */
+    private boolean fill() throws JSONException {
+        if (this.reader == null || this.position != this.bufferLength) {
+            return false;
+        }
+        int keep = Math.max(0, this.position - 1);
+        if (this.markPosition >= 0 && this.markPosition < keep) {
+            keep = this.markPosition;
+        }
+        if (keep > 0) {
+            this.drop(keep);
+        }
+        if (this.bufferLength == this.buffer.length) {
+            char[] grown = new char[this.buffer.length * 2];
+            System.arraycopy(this.buffer, 0, grown, 0, this.bufferLength);
+            this.buffer = grown;
         }
-        this.previous = (char) c;
-        return this.previous;
+        int read;
+        try {
+            do {
+                read = this.reader.read(this.buffer, this.bufferLength,
+                        this.buffer.length - this.bufferLength);
+            } while (read == 0);
+        } catch (IOException exception) {
+            throw new JSONException(exception);
+        }
+        if (read < 0) {
+            this.reader = null;
+            return false;
+        }
+        this.bufferLength += read;
+        return true;
+    }
+
+
+    /**
+     * Drop characters from the front of the buffer, keeping count of the
+     * lines and characters in them.
+     *
+     * @param length The number of characters to drop.
+     */
+    private void drop(int length) {
+        this.track(length);
+        System.arraycopy(this.buffer, length, this.buffer, 0,
+                this.bufferLength - length);
+        this.bufferStart += length;
+        this.bufferLength -= length;
+        this.position -= length;
+        if (this.markPosition >= 0) {
+            this.markPosition -= length;
+        }
+    }
+
+
+    /**
+     * Advance the line and character counts over the start of the buffer
+     * before it is dropped.
+     *
+     * @param length The number of characters being dropped.
+     */
+    private void track(int length) {
+        long character = this.trackedCharacter;
+        long line = this.trackedLine;
+        char previous = this.trackedPrevious;
+        for (int i = 0; i < length; i += 1) {
+            char c = this.buffer[i];
+            if (previous == '\r') {
+                line += 1;
+                character = c == '\n' ? 0 : 1;
+            } else if (c == '\n') {
+                line += 1;
+                character = 0;
+            } else {
+                character += 1;
+            }
+            previous = c;
+        }
+        this.trackedCharacter = character;
+        this.trackedLine = line;
+        this.trackedPrevious = previous;
     }
 
 
@@ -209,6 +415,16 @@ public class JSONTokener {
              return "";
          }
 
+         if (this.position + n <= this.bufferLength) {
+             String string = new String(this.buffer, this.position, n);
+             this.position += n;
+             this.usePrevious = false;
+             if (string.indexOf(0) < 0) {
+                 return string;
+             }
+             this.position -= n;
+         }
+
          char[] chars = new char[n];
          int pos = 0;
 
@@ -229,6 +445,13 @@ public class JSONTokener {
      * @return  A character, or 0 if there are no more characters.
      */
     public char nextClean() throws JSONException {
+        while (this.position < this.bufferLength) {
+            char c = this.buffer[this.position];
+            if (c == 0 || c > ' ') {
+                break;
+            }
+            this.position += 1;
+        }
         for (;;) {
             char c = this.next();
             if (c == 0 || c > ' ') {
@@ -251,8 +474,44 @@ public class JSONTokener {
      */
     public String nextString(char quote) throws JSONException {
         char c;
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = null;
         for (;;) {
+
+// Scan a run of plain characters directly in the buffer.
+
+            char[] buffer = this.buffer;
+            int start = this.position;
+            int end = start;
+            int limit = this.bufferLength;
+            while (end < limit) {
+                c = buffer[end];
+                if (c == quote || c == '\\' || c == '\n' || c == '\r' || c == 0) {
+                    break;
+                }
+                end += 1;
+            }
+            this.usePrevious = false;
+            if (end < limit && buffer[end] == quote) {
+                this.position = end + 1;
+                if (sb == null) {
+                    return this.symbols == null
+                            ? new String(buffer, start, end - start)
+                            : this.symbols.intern(buffer, start, end - start);
+                }
+                sb.append(buffer, start, end - start);
+                return this.symbols == null ? sb.toString()
+                        : this.symbols.intern(sb.toString());
+            }
+            if (sb == null) {
+                sb = new StringBuilder(Math.max(16, (end - start) * 2));
+            }
+            if (end > start) {
+                sb.append(buffer, start, end - start);
+                this.position = end;
+            }
+
+// Handle the character that ended the run, which may require a refill.
+
             c = this.next();
             switch (c) {
             case 0:
@@ -292,7 +551,8 @@ public class JSONTokener {
                 break;
             default:
                 if (c == quote) {
-                    return sb.toString();
+                    return this.symbols == null ? sb.toString()
+                            : this.symbols.intern(sb.toString());
                 }
                 sb.append(c);
             }
@@ -307,6 +567,18 @@ public class JSONTokener {
      * @return   A string.
      */
     public String nextTo(char delimiter) throws JSONException {
+        int start = this.position;
+        for (int i = start; i < this.bufferLength; i += 1) {
+            char c = this.buffer[i];
+            if (c == delimiter || c == '\n' || c == '\r') {
+                this.position = i;
+                this.usePrevious = true;
+                return new String(this.buffer, start, i - start).trim();
+            }
+            if (c == 0) {
+                break;
+            }
+        }
         StringBuilder sb = new StringBuilder();
         for (;;) {
             char c = this.next();
@@ -360,9 +632,15 @@ public class JSONTokener {
             case '\'':
                 return this.nextString(c);
             case '{':
+                if (this.lazy) {
+                    return this.nextLazyValue(c);
+                }
                 this.back();
                 return new JSONObject(this);
             case '[':
+                if (this.lazy) {
+                    return this.nextLazyValue(c);
+                }
                 this.back();
                 return new JSONArray(this);
         }
@@ -376,14 +654,23 @@ public class JSONTokener {
          * formatting character.
          */
 
-        StringBuilder sb = new StringBuilder();
-        while (c >= ' ' && ",:]}/\\\"[{;=#".indexOf(c) < 0) {
-            sb.append(c);
-            c = this.next();
+        int start = this.position - 1;
+        int end = this.position;
+        while (end < this.bufferLength && isValueChar(this.buffer[end])) {
+            end += 1;
+        }
+        if (end < this.bufferLength && isValueChar(c)) {
+            string = new String(this.buffer, start, end - start).trim();
+            this.position = end;
+        } else {
+            StringBuilder sb = new StringBuilder();
+            while (isValueChar(c)) {
+                sb.append(c);
+                c = this.next();
+            }
+            this.back();
+            string = sb.toString().trim();
         }
-        this.back();
-
-        string = sb.toString().trim();
         if ("".equals(string)) {
             throw this.syntaxError("Missing value");
         }
@@ -391,6 +678,116 @@ public class JSONTokener {
     }
 
 
+    /**
+     * Skip over the rest of an object or array whose opening character has
+     * just been read, keeping track of nothing but nesting and strings.
+     * @param open The opening character, '{' or '['.
+     * @return A LazyValue holding the text of the object or array.
+     * @throws JSONException If the text ends before the value is closed.
+     */
+    private LazyValue nextLazyValue(char open) throws JSONException {
+        this.markPosition = this.position - 1;
+        try {
+            char[] buffer = this.buffer;
+            int position = this.position;
+            int limit = this.bufferLength;
+            int depth = 1;
+            char quote = 0;
+            while (depth > 0) {
+                if (position >= limit) {
+                    this.position = position;
+                    if (!this.fill()) {
+                        throw this.syntaxError(quote != 0
+                                ? "Unterminated string"
+                                : open == '{'
+                                ? "A JSONObject text must end with '}'"
+                                : "Expected a ',' or ']'");
+                    }
+                    buffer = this.buffer;
+                    position = this.position;
+                    limit = this.bufferLength;
+                }
+                char c;
+                if (quote != 0) {
+
+// Inside a string only the closing quote and escapes matter.
+
+                    while (position < limit && (c = buffer[position]) != quote
+                            && c != '\\' && c >= ' ') {
+                        position += 1;
+                    }
+                    if (position >= limit) {
+                        continue;
+                    }
+                    c = buffer[position];
+                    position += 1;
+                    if (c == quote) {
+                        quote = 0;
+                    } else if (c == '\\') {
+                        if (position >= limit) {
+                            this.position = position;
+                            if (!this.fill()) {
+                                throw this.syntaxError("Unterminated string");
+                            }
+                            buffer = this.buffer;
+                            position = this.position;
+                            limit = this.bufferLength;
+                        }
+                        position += 1;
+                    } else if (c == '\n' || c == '\r' || c == 0) {
+                        this.position = position;
+                        throw this.syntaxError("Unterminated string");
+                    }
+                    continue;
+                }
+
+// Outside of strings only brackets and quotes matter.
+
+                while (position < limit && ((c = buffer[position]) >= 128
+                        || !STRUCTURAL[c])) {
+                    position += 1;
+                }
+                if (position >= limit) {
+                    continue;
+                }
+                c = buffer[position];
+                position += 1;
+                if (c == '{' || c == '[') {
+                    depth += 1;
+                } else if (c == '}' || c == ']') {
+                    depth -= 1;
+                } else {
+                    quote = c;
+                }
+            }
+            this.position = position;
+            this.usePrevious = false;
+            int length = position - this.markPosition;
+            if (!this.wholeSource) {
+
+// The text is copied out of the buffer, which is first made to start at the
+// value so that the counts kept for the buffer are the counts of the value.
+
+                this.drop(this.markPosition);
+                buffer = Arrays.copyOfRange(this.buffer, 0, length);
+            }
+            return new LazyValue(buffer, this.markPosition, length,
+                    this.symbols, this.bufferStart, this.trackedLine,
+                    this.trackedCharacter, this.trackedPrevious);
+        } finally {
+            this.markPosition = -1;
+        }
+    }
+
+
+    /**
+     * Determine if a character can be part of an unquoted value.
+     */
+    private static boolean isValueChar(char c) {
+        return c >= ' ' && (c >= 128 || !VALUE_TERMINATORS[c]);
+    }
+
+
     /**
      * Skip characters until the next character is the requested character.
      * If the requested character is not found, no characters are skipped.
@@ -400,23 +797,17 @@ public class JSONTokener {
      */
     public char skipTo(char to) throws JSONException {
         char c;
+        this.markPosition = this.position;
         try {
-            long startIndex = this.index;
-            long startCharacter = this.character;
-            long startLine = this.line;
-            this.reader.mark(1000000);
             do {
                 c = this.next();
                 if (c == 0) {
-                    this.reader.reset();
-                    this.index = startIndex;
-                    this.character = startCharacter;
-                    this.line = startLine;
+                    this.position = this.markPosition;
                     return c;
                 }
             } while (c != to);
-        } catch (IOException exception) {
-            throw new JSONException(exception);
+        } finally {
+            this.markPosition = -1;
         }
         this.back();
         return c;
@@ -435,12 +826,31 @@ public class JSONTokener {
 
 
     /**
-     * Make a printable string of this JSONTokener.
+     * Make a printable string of this JSONTokener. The line and character
+     * are counted here rather than as each character is read.
      *
      * @return " at {index} [character {character} line {line}]"
      */
     public String toString() {
-        return " at " + this.index + " [character " + this.character + " line " +
-            this.line + "]";
+        long character = this.trackedCharacter;
+        long line = this.trackedLine;
+        char previous = this.trackedPrevious;
+        int consumed = Math.min(this.position, this.bufferLength);
+        for (int i = 0; i < consumed; i += 1) {
+            char c = this.buffer[i];
+            if (previous == '\r') {
+                line += 1;
+                character = c == '\n' ? 0 : 1;
+            } else if (c == '\n') {
+                line += 1;
+                character = 0;
+            } else {
+                character += 1;
+            }
+            previous = c;
+        }
+        character += this.position - consumed;
+        return " at " + (this.bufferStart + this.position) + " [character " +
+            character + " line " + line + "]";
     }
 }
@@ -2,6 +2,7 @@ package org.json;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
 
 /*
 Copyright (c) 2006 JSON.org
@@ -76,9 +77,16 @@ public class JSONWriter {
     protected char mode;
 
     /**
-     * The object/array stack.
+     * The object/array stack. Each object holds the keys written to it so
+     * far, and each array is null.
      */
-    private final JSONObject stack[];
+    private final KeySet stack[];
+
+    /**
+     * The key sets of each nesting level, reused by every object opened at
+     * that level so that writing an object allocates nothing.
+     */
+    private final KeySet keySets[];
 
     /**
      * The stack top index. A value of 0 indicates that the stack is empty.
@@ -96,7 +104,8 @@ public class JSONWriter {
     public JSONWriter(Writer w) {
         this.comma = false;
         this.mode = 'i';
-        this.stack = new JSONObject[maxdepth];
+        this.stack = new KeySet[maxdepth];
+        this.keySets = new KeySet[maxdepth];
         this.top = 0;
         this.writer = w;
     }
@@ -108,6 +117,18 @@ public class JSONWriter {
      * @throws JSONException If the value is out of sequence.
      */
     private JSONWriter append(String string) throws JSONException {
+        return this.append(string, false);
+    }
+
+    /**
+     * Append a value.
+     * @param string A string value.
+     * @param quoted Whether the string is to be quoted as it is written.
+     * @return this
+     * @throws JSONException If the value is out of sequence.
+     */
+    private JSONWriter append(String string, boolean quoted)
+            throws JSONException {
         if (string == null) {
             throw new JSONException("Null pointer");
         }
@@ -116,7 +137,11 @@ public class JSONWriter {
                 if (this.comma && this.mode == 'a') {
                     this.writer.write(',');
                 }
-                this.writer.write(string);
+                if (quoted) {
+                    JSONObject.quote(string, this.writer);
+                } else {
+                    this.writer.write(string);
+                }
             } catch (IOException e) {
                 throw new JSONException(e);
             }
@@ -205,11 +230,13 @@ public class JSONWriter {
         }
         if (this.mode == 'k') {
             try {
-                this.stack[this.top - 1].putOnce(string, Boolean.TRUE);
+                if (!this.stack[this.top - 1].add(string)) {
+                    throw new JSONException("Duplicate key \"" + string + "\"");
+                }
                 if (this.comma) {
                     this.writer.write(',');
                 }
-                this.writer.write(JSONObject.quote(string));
+                JSONObject.quote(string, this.writer);
                 this.writer.write(':');
                 this.comma = false;
                 this.mode = 'o';
@@ -237,7 +264,7 @@ public class JSONWriter {
         }
         if (this.mode == 'o' || this.mode == 'a') {
             this.append("{");
-            this.push(new JSONObject());
+            this.push(this.keySet());
             this.comma = false;
             return this;
         }
@@ -267,12 +294,29 @@ public class JSONWriter {
             : 'k';
     }
 
+    /**
+     * Get the emptied key set of an object opened at the current nesting
+     * level.
+     * @return The key set.
+     * @throws JSONException If nesting is too deep.
+     */
+    private KeySet keySet() throws JSONException {
+        if (this.top >= maxdepth) {
+            throw new JSONException("Nesting too deep.");
+        }
+        if (this.keySets[this.top] == null) {
+            this.keySets[this.top] = new KeySet();
+        }
+        return this.keySets[this.top].clear();
+    }
+
     /**
      * Push an array or object scope.
-     * @param jo The scope to open.
+     * @param jo The scope to open, the key set of an object or null for an
+     * array.
      * @throws JSONException If nesting is too deep.
      */
-    private void push(JSONObject jo) throws JSONException {
+    private void push(KeySet jo) throws JSONException {
         if (this.top >= maxdepth) {
             throw new JSONException("Nesting too deep.");
         }
@@ -322,6 +366,65 @@ public class JSONWriter {
      * @throws JSONException If the value is out of sequence.
      */
     public JSONWriter value(Object object) throws JSONException {
+        if (object instanceof String) {
+            return this.append((String) object, true);
+        }
         return this.append(JSONObject.valueToString(object));
     }
+
+    /**
+     * The keys of an object, in a small open addressing table that is
+     * cleared and reused instead of being allocated for every object.
+     */
+    private static final class KeySet {
+        private String[] table = new String[32];
+        private int size;
+
+        /**
+         * Empty the set, keeping its table.
+         * @return this
+         */
+        KeySet clear() {
+            if (this.size > 0) {
+                Arrays.fill(this.table, null);
+                this.size = 0;
+            }
+            return this;
+        }
+
+        /**
+         * Add a key.
+         * @param key The key.
+         * @return false if the key was already in the set.
+         */
+        boolean add(String key) {
+            if (this.size * 2 >= this.table.length) {
+                String[] old = this.table;
+                this.table = new String[old.length * 2];
+                for (String k : old) {
+                    if (k != null) {
+                        this.insert(k);
+                    }
+                }
+            }
+            if (!this.insert(key)) {
+                return false;
+            }
+            this.size += 1;
+            return true;
+        }
+
+        private boolean insert(String key) {
+            int mask = this.table.length - 1;
+            int i = key.hashCode() & mask;
+            while (this.table[i] != null) {
+                if (this.table[i].equals(key)) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            this.table[i] = key;
+            return true;
+        }
+    }
 }
@@ -0,0 +1,119 @@
+package org.json;
+
+/*
+ Copyright (c) 2002 JSON.org
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ The Software shall be used for Good, not Evil.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+/**
+ * An object or array value that a lazy JSONTokener has skipped over without
+ * parsing. It holds the range of the source text the value came from and
+ * parses it the first time it is asked for. JSONObject and JSONArray replace
+ * it with the parsed value as soon as it is accessed, so it never leaves
+ * this package.
+ */
+class LazyValue {
+
+    private final char[] chars;
+    private final int offset;
+    private final int length;
+    private final SymbolTable symbols;
+
+    /**
+     * Where the first of the characters was found in the source, so that
+     * syntax errors report positions in the whole source.
+     */
+    private final long index;
+    private final long line;
+    private final long character;
+    private final char previous;
+
+    /**
+     * The parsed JSONObject or JSONArray, or null if it has not been parsed.
+     */
+    private Object value;
+
+    /**
+     * Construct a LazyValue.
+     *
+     * @param chars
+     *            The characters holding the text of the value.
+     * @param offset
+     *            The index of the opening '{' or '['.
+     * @param length
+     *            The length of the text, up to and including the closing
+     *            '}' or ']'.
+     * @param symbols
+     *            The SymbolTable of the tokener that skipped the value, or
+     *            null.
+     * @param index
+     *            The index in the source of the first of the characters.
+     * @param line
+     *            The line count before the first of the characters.
+     * @param character
+     *            The character count before the first of the characters.
+     * @param previous
+     *            The character before the first of the characters, or 0.
+     */
+    LazyValue(char[] chars, int offset, int length, SymbolTable symbols,
+            long index, long line, long character, char previous) {
+        this.chars = chars;
+        this.offset = offset;
+        this.length = length;
+        this.symbols = symbols;
+        this.index = index;
+        this.line = line;
+        this.character = character;
+        this.previous = previous;
+    }
+
+    /**
+     * Get the parsed value, parsing it if this is the first time. Values
+     * nested inside it are again parsed lazily.
+     *
+     * @return The JSONObject or JSONArray.
+     * @throws JSONException
+     *             If the text of the value is not valid.
+     */
+    Object get() throws JSONException {
+        if (this.value == null) {
+            JSONTokener x = new JSONTokener(this.chars, this.offset,
+                    this.length, this.index, this.line, this.character,
+                    this.previous);
+            x.setLazy(true);
+            x.setSymbolTable(this.symbols);
+            this.value = this.chars[this.offset] == '{' ? new JSONObject(x)
+                    : new JSONArray(x);
+        }
+        return this.value;
+    }
+
+    /**
+     * Make a JSON text of the value, parsing it if necessary.
+     *
+     * @return The JSON text of the parsed value.
+     */
+    @Override
+    public String toString() {
+        return this.get().toString();
+    }
+}
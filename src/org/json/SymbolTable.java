@@ -0,0 +1,149 @@
+package org.json;
+
+/*
+ Copyright (c) 2002 JSON.org
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in all
+ copies or substantial portions of the Software.
+
+ The Software shall be used for Good, not Evil.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ SOFTWARE.
+ */
+
+import java.util.Arrays;
+
+/**
+ * A bounded table of canonical strings for the JSONTokener. JSON texts tend
+ * to repeat the same short keys and values many times. When a tokener has a
+ * SymbolTable, every short quoted string it reads is looked up here and the
+ * instance that was returned for the same characters before is reused, so
+ * each distinct string is only kept once and its hash code only has to be
+ * computed once.
+ * <p>
+ * The table is direct mapped: each string can only live in the slot chosen
+ * by its hash, and a new string simply replaces whatever was in its slot.
+ * It therefore never grows past its capacity, and a collision only costs a
+ * fresh string. A table may be used for a single parse or shared between
+ * parses. It can also be shared between threads, because a slot only ever
+ * holds a complete, immutable String.
+ */
+public class SymbolTable {
+
+    /** The default number of slots. */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /** The default length of the longest string that is interned. */
+    public static final int DEFAULT_MAX_LENGTH = 32;
+
+    private final String[] symbols;
+    private final int mask;
+    private final int maxLength;
+
+
+    /**
+     * Construct a SymbolTable with the default capacity and maximum length.
+     */
+    public SymbolTable() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_LENGTH);
+    }
+
+
+    /**
+     * Construct a SymbolTable.
+     *
+     * @param capacity  The number of slots, rounded up to a power of two.
+     * @param maxLength The length of the longest string that is interned.
+     *  Longer strings are rarely repeated and are always created fresh.
+     */
+    public SymbolTable(int capacity, int maxLength) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.symbols = new String[size];
+        this.mask = size - 1;
+        this.maxLength = maxLength;
+    }
+
+
+    /**
+     * Get the canonical string for a range of characters.
+     *
+     * @param chars  The characters.
+     * @param offset The index of the first character.
+     * @param length The number of characters.
+     * @return A string with those characters, which is the same instance
+     *  as the one returned last time unless it has since been displaced.
+     */
+    public String intern(char[] chars, int offset, int length) {
+        if (length > this.maxLength) {
+            return new String(chars, offset, length);
+        }
+        int hash = 0;
+        for (int i = 0; i < length; i += 1) {
+            hash = 31 * hash + chars[offset + i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & this.mask;
+        String symbol = this.symbols[slot];
+        if (symbol != null && symbol.length() == length) {
+            int i = 0;
+            while (i < length && symbol.charAt(i) == chars[offset + i]) {
+                i += 1;
+            }
+            if (i == length) {
+                return symbol;
+            }
+        }
+        symbol = new String(chars, offset, length);
+        this.symbols[slot] = symbol;
+        return symbol;
+    }
+
+
+    /**
+     * Get the canonical string for a string.
+     *
+     * @param string A string.
+     * @return The canonical instance of the string, which is the string
+     *  itself if it is not already in the table.
+     */
+    public String intern(String string) {
+        int length = string.length();
+        if (length > this.maxLength) {
+            return string;
+        }
+        int hash = string.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & this.mask;
+        String symbol = this.symbols[slot];
+        if (string.equals(symbol)) {
+            return symbol;
+        }
+        this.symbols[slot] = string;
+        return string;
+    }
+
+
+    /**
+     * Remove every string from the table.
+     */
+    public void clear() {
+        Arrays.fill(this.symbols, null);
+    }
+}
@@ -0,0 +1,62 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for the roster stored column by column
+ * @author Charles
+ */
+public class ColumnarRosterTest {
+
+    private static final double HALF_CENT = 0.5 + 1e-6; // Pay is rounded to the nearest cent, the doubles of getPay() may land just past a half cent
+
+    private static HashMap<Day, boolean[]> availability(String ranges) {
+        HashMap<Day, boolean[]> availability = new HashMap<Day, boolean[]>();
+        for (Day day : Day.values()) {
+            availability.put(day, ScheduleParser.toAvailability(ScheduleParser.parseRanges(ranges)));
+        }
+        return availability;
+    }
+
+    @Test
+    public void paysTheSameAsTheEmployees() {
+        List<Employee> employees = new ArrayList<Employee>();
+        employees.add(new Manager("Ada", "Lovelace", "1 Main St", 1, 52000.5, availability("9-17")));
+        employees.add(new Manager("Charles", "Babbage", "2 Main St", 2, 47123.45, availability("9-17")));
+        employees.add(new Worker("Alan", "Turing", "3 Main St", 3, 14.25, availability("9-17")));
+        employees.add(new Worker("Grace", "Hopper", "4 Main St", 4, 15.37, availability("9-17")));
+        ColumnarRoster roster = ColumnarRoster.of(employees);
+
+        for (int worked = 0; worked <= 40; worked++) {
+            assertEquals(((Manager) employees.get(0)).getPay(worked) * 100, roster.getPayCents(0, 1000, worked), HALF_CENT);
+            assertEquals(((Manager) employees.get(1)).getPay(worked) * 100, roster.getPayCents(1, 1000, worked), HALF_CENT);
+            assertEquals(((Worker) employees.get(2)).getPay(worked) * 100, roster.getPayCents(2, worked, 1000), HALF_CENT);
+            assertEquals(((Worker) employees.get(3)).getPay(worked) * 100, roster.getPayCents(3, worked, 1000), HALF_CENT);
+        }
+    }
+
+    @Test
+    public void paysManagersByTheDaysOfTheSchedule() {
+        List<Employee> employees = new ArrayList<Employee>();
+        employees.add(new Manager("Ada", "Lovelace", "1 Main St", 1, 36000, availability("9-17")));
+        employees.add(new Worker("Alan", "Turing", "2 Main St", 2, 10, availability("9-17")));
+        int[][] demand = new int[Day.values().length][24];
+        for (int[] dayDemand : demand) {
+            Arrays.fill(dayDemand, -1);
+            Arrays.fill(dayDemand, 9, 17, 2); // Both employees work every open hour
+        }
+
+        ScheduleGen schedule = new ScheduleGen(demand, employees);
+        assertArrayEquals(new int[] { 56, 56 }, schedule.getHoursWorked());
+        assertArrayEquals(new int[] { 7, 7 }, schedule.getDaysWorked());
+        assertEquals(70000 + 56000, ColumnarRoster.of(employees).getTotalPayCents(schedule.getHoursWorked(), schedule.getDaysWorked())); // 7 days of $100 and 56 hours of $10
+    }
+}
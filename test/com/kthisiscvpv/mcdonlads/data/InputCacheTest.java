@@ -0,0 +1,53 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+/**
+ * Tests for the cache of parsed input files
+ * @author Charles
+ */
+public class InputCacheTest {
+
+    private static void write(File file, String text, long lastModified) throws IOException {
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.ISO_8859_1));
+        file.setLastModified(lastModified);
+    }
+
+    @Test
+    public void readsAgainEditWithSameSizeAndTime() throws IOException {
+        File file = File.createTempFile("schedule", ".txt");
+        try {
+            long lastModified = System.currentTimeMillis() / 1000 * 1000; // Changed within the current second
+            InputCache cache = new InputCache(InputCache.DEFAULT_CAPACITY);
+            write(file, "M\n09 2\n", lastModified);
+            assertEquals(2, cache.getDemand(file)[Day.MONDAY.ordinal()][9]);
+
+            write(file, "M\n09 3\n", lastModified); // Same size, written within the same second
+            assertEquals(3, cache.getDemand(file)[Day.MONDAY.ordinal()][9]);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void reusesFileThatHasSettled() throws IOException {
+        File file = File.createTempFile("schedule", ".txt");
+        try {
+            InputCache cache = new InputCache(InputCache.DEFAULT_CAPACITY);
+            write(file, "M\n09 2\n", System.currentTimeMillis() - 60000); // Last changed a minute ago
+            cache.getDemand(file);
+            assertEquals(2, cache.getDemand(file)[Day.MONDAY.ordinal()][9]);
+            assertEquals(1, cache.getHits());
+            assertEquals(1, cache.getMisses());
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for the schedule kept outside of the heap
+ * @author Charles
+ */
+public class OffHeapScheduleTest {
+
+    private static ColumnarRoster roster() {
+        HashMap<Day, boolean[]> availability = new HashMap<Day, boolean[]>();
+        for (Day day : Day.values()) {
+            availability.put(day, ScheduleParser.toAvailability(ScheduleParser.parseRanges("9-17")));
+        }
+        List<Employee> employees = new ArrayList<Employee>();
+        employees.add(new Manager("Ada", "Lovelace", "1 Main St", 1, 52000, availability));
+        employees.add(new Worker("Alan", "Turing", "2 Main St", 2, 14.25, availability));
+        employees.add(new Worker("Grace", "Hopper", "3 Main St", 3, 15.5, availability));
+        return ColumnarRoster.of(employees);
+    }
+
+    private static int[][] demand(int required) {
+        int[][] demand = new int[Day.values().length][24];
+        for (int[] dayDemand : demand) {
+            Arrays.fill(dayDemand, -1);
+            Arrays.fill(dayDemand, 9, 17, required);
+        }
+        return demand;
+    }
+
+    @Test
+    public void opensSolvedScheduleAsValid() throws IOException {
+        File file = File.createTempFile("schedule", ".bin");
+        try {
+            OffHeapSchedule schedule = OffHeapSchedule.of(roster(), demand(2), file);
+            assertFalse(schedule.isValid());
+            assertTrue(schedule.solve());
+            schedule.force();
+            int hours = schedule.cursor().moveTo(1).getHoursWorked();
+
+            OffHeapSchedule opened = OffHeapSchedule.open(file);
+            assertTrue(opened.isValid());
+            assertEquals(3, opened.size());
+            assertEquals(hours, opened.cursor().moveTo(1).getHoursWorked());
+
+            opened.setDemand(demand(3)); // The results no longer match the demand
+            assertFalse(opened.isValid());
+            assertFalse(OffHeapSchedule.open(file).isValid());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void opensUnfilledScheduleAsInvalid() throws IOException {
+        File file = File.createTempFile("schedule", ".bin");
+        try {
+            OffHeapSchedule schedule = OffHeapSchedule.of(roster(), demand(4), file);
+            assertFalse(schedule.solve());
+            assertEquals(7 * 8, schedule.getShortages().size());
+            schedule.force();
+            assertFalse(OffHeapSchedule.open(file).isValid());
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for reading and writing employees as CSV
+ * @author Charles
+ */
+public class RosterCSVTest {
+
+    private static final String HEADER = "employee_number,first_name,last_name,address,role,wage,monday";
+    private static final String FIRST = "1,Ada,Lovelace,1 Main St,Manager,52000.00,9-17";
+    private static final String SECOND = "2,Alan,Turing,2 Main St,Worker,14.25,";
+
+    private static List<Employee> read(String text) throws IOException {
+        List<Employee> employees = RosterCSV.read(new StringReader(text));
+        assertEquals(employees.size(), RosterCSV.readColumnar(new StringReader(text)).size());
+        return employees;
+    }
+
+    @Test
+    public void readsEveryLineEnding() throws IOException {
+        for (String newLine : new String[] { "\n", "\r\n", "\r" }) {
+            List<Employee> employees = read(HEADER + newLine + FIRST + newLine + SECOND + newLine);
+            assertEquals(2, employees.size());
+            assertEquals(1, employees.get(0).getEmployeeNumber());
+            assertEquals(2, employees.get(1).getEmployeeNumber());
+            assertEquals(ScheduleParser.parseRanges("9-17"), employees.get(0).getAvailabilityMask(Day.MONDAY));
+        }
+    }
+
+    @Test
+    public void readsLastRowWithoutLineEnding() throws IOException {
+        assertEquals(2, read(HEADER + "\r\n" + FIRST + "\r\n" + SECOND).size());
+    }
+
+    @Test
+    public void skipsBlankLines() throws IOException {
+        assertEquals(2, read(HEADER + "\n" + FIRST + "\n\n" + SECOND + "\n").size());
+        assertEquals(2, read(HEADER + "\r\n\r\n" + FIRST + "\r\n  \r\n" + SECOND + "\r\n\r\n").size());
+    }
+
+    @Test
+    public void readsEmptyTextAsNoEmployees() throws IOException {
+        assertEquals(0, read("").size());
+        assertEquals(0, read("\r\n\r\n").size());
+    }
+
+    @Test
+    public void rejectsHeaderWithoutEmployees() {
+        for (String text : new String[] { HEADER, HEADER + "\r\n", HEADER + "\n\n" }) {
+            try {
+                RosterCSV.read(new StringReader(text));
+                fail("A header without employees was read as an empty roster");
+            } catch (IOException e) {
+            }
+            try {
+                RosterCSV.readColumnar(new StringReader(text));
+                fail("A header without employees was read as an empty roster");
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    @Test
+    public void writesValuesThatReadBackUnchanged() throws IOException {
+        String[] addresses = { "12 \"Main\" St, Apt 3", "'s-Hertogenbosch", "\"Quoted\"", "Line One\r\nLine Two", "Line One\nLine Two", " Leading", "Trailing ", "Plain Street", "It's, \"Fine\"", "Comma,", "" };
+        HashMap<Day, boolean[]> availability = new HashMap<Day, boolean[]>();
+        for (Day day : Day.values()) {
+            availability.put(day, ScheduleParser.toAvailability(ScheduleParser.parseRanges("9-12 13-17")));
+        }
+        List<Employee> employees = new ArrayList<Employee>();
+        for (int i = 0; i < addresses.length; i++) {
+            employees.add(new Worker("First" + i, "O'Last", addresses[i], i, 14.25, availability));
+        }
+
+        StringWriter text = new StringWriter();
+        RosterCSV.write(text, employees);
+        List<Employee> readBack = read(text.toString());
+        assertEquals(addresses.length, readBack.size());
+        for (int i = 0; i < addresses.length; i++) {
+            assertEquals(addresses[i], readBack.get(i).getAddress());
+            assertEquals("O'Last", readBack.get(i).getLastName());
+            assertEquals(employees.get(i).getAvailabilityMask(Day.FRIDAY), readBack.get(i).getAvailabilityMask(Day.FRIDAY));
+        }
+    }
+
+    @Test
+    public void readsDoubledQuotes() throws IOException {
+        List<Employee> employees = read(HEADER + "\r\n" + "1,Ada,Lovelace,\"12 \"\"Main\"\" St, Apt 3\",Manager,52000.00,9-17\r\n");
+        assertEquals("12 \"Main\" St, Apt 3", employees.get(0).getAddress());
+    }
+}
@@ -0,0 +1,111 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for comparing and merging rosters
+ * @author Charles
+ */
+public class RosterDiffTest {
+
+    private static Employee worker(int employeeNumber, String firstName) {
+        HashMap<Day, boolean[]> availability = new HashMap<Day, boolean[]>();
+        for (Day day : Day.values()) {
+            availability.put(day, ScheduleParser.toAvailability(ScheduleParser.parseRanges("9-17")));
+        }
+        return new Worker(firstName, "Worker", "1 Main St", employeeNumber, 14.25, availability);
+    }
+
+    private static void assertNoRepeatedNumbers(List<Employee> employees) {
+        HashSet<Integer> numbers = new HashSet<Integer>();
+        for (Employee employee : employees) {
+            assertTrue("#" + employee.getEmployeeNumber() + " is in the merged roster twice", numbers.add(employee.getEmployeeNumber()));
+        }
+    }
+
+    @Test
+    public void mergesByEmployeeNumber() {
+        Employee kept = worker(1, "Kept");
+        List<Employee> current = Arrays.asList(kept, worker(2, "Old"), worker(3, "Gone"));
+        List<Employee> incoming = Arrays.asList(worker(1, "Kept"), worker(2, "New"), worker(4, "Added"));
+
+        RosterDiff diff = RosterDiff.compare(current, incoming, RosterDiff.Policy.REPLACE);
+        assertEquals(1, diff.getAdded().size());
+        assertEquals(1, diff.getChanges().size());
+        assertEquals(1, diff.getRemoved().size());
+        assertTrue(diff.getDuplicates().isEmpty());
+        assertEquals(3, diff.getResult().size());
+        assertSame(kept, diff.getResult().get(0)); // Unchanged employees keep their current object
+        assertEquals("New", diff.getResult().get(1).getFirstName());
+    }
+
+    @Test
+    public void keepsLastOfRepeatedNewEmployees() {
+        List<Employee> current = Arrays.asList(worker(1, "Current"));
+        List<Employee> incoming = Arrays.asList(worker(1, "First"), worker(2, "Added"), worker(1, "Last"), worker(2, "AddedAgain"));
+
+        for (RosterDiff.Policy policy : RosterDiff.Policy.values()) {
+            RosterDiff diff = RosterDiff.compare(current, incoming, policy);
+            assertNoRepeatedNumbers(diff.getResult());
+            assertEquals(2, diff.getDuplicates().size());
+            assertEquals(1, diff.getAdded().size());
+            assertEquals("AddedAgain", diff.getAdded().get(0).getFirstName());
+            assertEquals(1, diff.getChanges().size());
+            assertEquals("Last", diff.getChanges().get(0).getUpdated().getFirstName());
+            assertEquals(2, diff.getResult().size());
+            assertEquals(policy == RosterDiff.Policy.ADD_ONLY ? "Current" : "Last", diff.getResult().get(0).getFirstName());
+        }
+    }
+
+    @Test
+    public void neverAddsAnEmployeeNumberThatIsPresent() {
+        List<Employee> current = Arrays.asList(worker(1, "Current"), worker(2, "Other"));
+        List<Employee> incoming = Arrays.asList(worker(1, "Current"), worker(1, "Current"));
+
+        RosterDiff diff = RosterDiff.compare(current, incoming, RosterDiff.Policy.ADD_ONLY);
+        assertTrue(diff.getAdded().isEmpty());
+        assertFalse(diff.isApplied());
+        assertEquals(1, diff.getDuplicates().size());
+        assertNoRepeatedNumbers(diff.getResult());
+    }
+
+    @Test
+    public void collapsesRepeatedCurrentEmployees() {
+        List<Employee> current = new ArrayList<Employee>(Arrays.asList(worker(1, "First"), worker(2, "Other"), worker(1, "Last")));
+        List<Employee> incoming = Arrays.asList(worker(1, "Last"), worker(2, "Other"));
+
+        for (RosterDiff.Policy policy : RosterDiff.Policy.values()) {
+            RosterDiff diff = RosterDiff.compare(current, incoming, policy);
+            assertEquals(1, diff.getDuplicates().size());
+            assertEquals("First", diff.getDuplicates().get(0).getFirstName());
+            assertTrue(diff.getChanges().isEmpty());
+            assertTrue(diff.getRemoved().isEmpty());
+            assertTrue(diff.isApplied()); // The merged roster leaves the repeated employee out
+            assertEquals(2, diff.getResult().size());
+            assertNoRepeatedNumbers(diff.getResult());
+        }
+    }
+
+    @Test
+    public void upsertsIntoTheCurrentOrder() {
+        List<Employee> current = Arrays.asList(worker(1, "Repeated"), worker(2, "Old"), worker(1, "Kept"), worker(3, "Other"));
+        List<Employee> incoming = Arrays.asList(worker(3, "New"));
+
+        RosterDiff diff = RosterDiff.compare(current, incoming, RosterDiff.Policy.UPSERT);
+        assertEquals(3, diff.getResult().size());
+        assertEquals("Old", diff.getResult().get(0).getFirstName());
+        assertEquals("Kept", diff.getResult().get(1).getFirstName());
+        assertEquals("New", diff.getResult().get(2).getFirstName());
+    }
+}
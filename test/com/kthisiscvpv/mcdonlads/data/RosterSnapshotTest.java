@@ -0,0 +1,92 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for the binary snapshot of an employees file
+ * @author Charles
+ */
+public class RosterSnapshotTest {
+
+    private static List<Employee> roster() {
+        HashMap<Day, boolean[]> availability = new HashMap<Day, boolean[]>();
+        for (Day day : Day.values()) {
+            availability.put(day, ScheduleParser.toAvailability(ScheduleParser.parseRanges("9-17")));
+        }
+        List<Employee> employees = new ArrayList<Employee>();
+        employees.add(new Manager("Ada", "Lovelace", "1 Main St", 1, 52000.5, availability));
+        employees.add(new Worker("Alan", "Turing", "2 Main St", 2, 14.25, availability));
+        return employees;
+    }
+
+    @Test
+    public void readsBackTheEmployees() throws IOException {
+        File source = File.createTempFile("roster", ".txt");
+        try {
+            Files.write(source.toPath(), "first version".getBytes(StandardCharsets.UTF_8));
+            RosterSnapshot.write(source, roster());
+
+            RosterSnapshot snapshot = RosterSnapshot.open(source);
+            assertNotNull(snapshot);
+            assertEquals(2, snapshot.size());
+            assertEquals(52000.5, snapshot.read(0).getWage(), 0);
+            assertEquals(14.25, snapshot.read(1).getWage(), 0);
+            assertEquals("Turing", snapshot.read(1).getLastName());
+        } finally {
+            RosterSnapshot.getSnapshotFile(source).delete();
+            source.delete();
+        }
+    }
+
+    @Test
+    public void ignoresSnapshotOfEditWithSameSizeAndTime() throws IOException {
+        File source = File.createTempFile("roster", ".txt");
+        try {
+            Files.write(source.toPath(), "first version".getBytes(StandardCharsets.UTF_8));
+            long lastModified = source.lastModified();
+            RosterSnapshot.write(source, roster());
+
+            Files.write(source.toPath(), "other version".getBytes(StandardCharsets.UTF_8)); // Same size, written within the same second
+            source.setLastModified(lastModified);
+            RosterSnapshot.getSnapshotFile(source).setLastModified(lastModified); // A file system that only keeps whole seconds
+            assertNull(RosterSnapshot.open(source));
+        } finally {
+            RosterSnapshot.getSnapshotFile(source).delete();
+            source.delete();
+        }
+    }
+
+    @Test
+    public void trustsVerifiedSnapshotWithoutReadingTheFile() throws IOException {
+        File source = File.createTempFile("roster", ".txt");
+        try {
+            Files.write(source.toPath(), "first version".getBytes(StandardCharsets.UTF_8));
+            long lastModified = source.lastModified();
+            RosterSnapshot.write(source, roster());
+            RosterSnapshot.getSnapshotFile(source).setLastModified(lastModified); // Written within the same tick as the file
+
+            assertNotNull(RosterSnapshot.open(source)); // Checks the contents once
+            assertTrue(RosterSnapshot.getSnapshotFile(source).lastModified() > lastModified);
+
+            Files.write(source.toPath(), "other version".getBytes(StandardCharsets.UTF_8));
+            source.setLastModified(lastModified); // Only possible by hand, a real edit after the check would have a later time
+            assertNotNull(RosterSnapshot.open(source));
+        } finally {
+            RosterSnapshot.getSnapshotFile(source).delete();
+            source.delete();
+        }
+    }
+}
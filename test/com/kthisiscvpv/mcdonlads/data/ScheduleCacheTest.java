@@ -0,0 +1,135 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for the cache of solved schedules
+ * @author Charles
+ */
+public class ScheduleCacheTest {
+
+    private static List<Employee> roster() {
+        HashMap<Day, boolean[]> availability = new HashMap<Day, boolean[]>();
+        for (Day day : Day.values()) {
+            availability.put(day, ScheduleParser.toAvailability(ScheduleParser.parseRanges("9-17")));
+        }
+        List<Employee> employees = new ArrayList<Employee>();
+        employees.add(new Manager("Ada", "Lovelace", "1 Main St", 1, 52000, availability));
+        employees.add(new Worker("Alan", "Turing", "2 Main St", 2, 14.25, availability));
+        employees.add(new Worker("Grace", "Hopper", "3 Main St", 3, 15.5, availability));
+        return employees;
+    }
+
+    private static int[][] demand() {
+        int[][] demand = new int[Day.values().length][24];
+        for (int[] dayDemand : demand) {
+            Arrays.fill(dayDemand, -1);
+            Arrays.fill(dayDemand, 9, 17, 2);
+        }
+        return demand;
+    }
+
+    private static File directory() throws IOException {
+        File directory = Files.createTempDirectory("cache").toFile();
+        directory.deleteOnExit();
+        return directory;
+    }
+
+    private static void delete(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void solvesAgainWhenTheCachedScheduleIsTruncated() throws IOException {
+        File directory = directory();
+        try {
+            List<Employee> employees = roster();
+            int[][] demand = demand();
+            String key = ScheduleCache.key(employees, demand);
+            byte[] solved = new ScheduleGen(demand, employees).toBytes();
+
+            ScheduleCache cache = new ScheduleCache(ScheduleCache.DEFAULT_MEMORY_LIMIT, directory, ScheduleCache.DEFAULT_DISK_LIMIT);
+            for (int length : new int[] { 2, 8, solved.length / 2, solved.length - 1 }) {
+                cache.put(key + ScheduleCache.SCHEDULE, Arrays.copyOf(solved, length));
+                ScheduleGen schedule = new ScheduleGen(demand, employees, cache, key);
+                assertTrue(schedule.isValid());
+                assertArrayEquals(solved, schedule.toBytes());
+                assertArrayEquals(solved, cache.get(key + ScheduleCache.SCHEDULE)); // Replaced by the schedule that was solved again
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void solvesAgainWhenTheCachedScheduleIsCorrupt() {
+        List<Employee> employees = roster();
+        int[][] demand = demand();
+        String key = ScheduleCache.key(employees, demand);
+        byte[] solved = new ScheduleGen(demand, employees).toBytes();
+
+        byte[] corrupt = solved.clone();
+        Arrays.fill(corrupt, 4, corrupt.length, (byte) 0x7F); // Counts and indices far out of range
+        ScheduleCache cache = new ScheduleCache(ScheduleCache.DEFAULT_MEMORY_LIMIT);
+        cache.put(key + ScheduleCache.SCHEDULE, corrupt);
+        assertArrayEquals(solved, new ScheduleGen(demand, employees, cache, key).toBytes());
+    }
+
+    @Test
+    public void removesEntriesFromMemoryAndDisk() throws IOException {
+        File directory = directory();
+        try {
+            ScheduleCache cache = new ScheduleCache(ScheduleCache.DEFAULT_MEMORY_LIMIT, directory, ScheduleCache.DEFAULT_DISK_LIMIT);
+            cache.put("entry", new byte[] { 1, 2, 3 });
+            assertTrue(new File(directory, "entry").isFile());
+            cache.remove("entry");
+            assertFalse(new File(directory, "entry").exists());
+            assertEquals(0, cache.getMemoryBytes());
+            assertNull(cache.get("entry"));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void keepsTheDiskTierWithinItsLimit() throws IOException {
+        File directory = directory();
+        try {
+            ScheduleCache cache = new ScheduleCache(0, directory, 1000); // Nothing fits in memory, every hit comes from disk
+            for (int i = 0; i < 50; i++) {
+                cache.put("entry" + i, new byte[100]);
+                long diskBytes = 0;
+                for (File file : directory.listFiles()) {
+                    diskBytes += file.length();
+                }
+                assertTrue(diskBytes <= 1000);
+            }
+            assertNotNull(cache.get("entry49"));
+            assertNull(cache.get("entry0"));
+            assertEquals(1, cache.getDiskHits());
+        } finally {
+            delete(directory);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.kthisiscvpv.mcdonlads.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Tests for the schedule input file and availability range parser
+ * @author Charles
+ */
+public class ScheduleParserTest {
+
+    private static int[][] parse(String text) {
+        return ScheduleParser.parseDemand(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    public void parsesSingleHoursAndTimeFrames() {
+        int[][] demand = parse("M\n23 4\n09:00-11:00 2\n");
+        assertEquals(4, demand[Day.MONDAY.ordinal()][23]);
+        assertEquals(2, demand[Day.MONDAY.ordinal()][9]);
+        assertEquals(2, demand[Day.MONDAY.ordinal()][10]);
+        assertEquals(-1, demand[Day.MONDAY.ordinal()][11]);
+    }
+
+    @Test
+    public void rejectsSingleHourAtEndOfDay() {
+        try {
+            parse("M\n24 1\n");
+            fail("Hour 24 is not an hour of the day");
+        } catch (ScheduleFormatException e) {
+            assertEquals(2, e.getLine());
+            assertEquals(1, e.getColumn());
+        }
+    }
+
+    @Test
+    public void rejectsTimeFrameStartingAtEndOfDay() {
+        try {
+            parse("M\n24:00-24:00 1\n");
+            fail("A time frame cannot start at hour 24");
+        } catch (ScheduleFormatException e) {
+            assertEquals(2, e.getLine());
+        }
+    }
+
+    @Test
+    public void acceptsTimeFrameEndingAtEndOfDay() {
+        int[][] demand = parse("U\n22-24 3\n");
+        assertEquals(3, demand[Day.SUNDAY.ordinal()][23]);
+    }
+
+    @Test
+    public void rejectsSingleHourAtEndOfDayInRanges() {
+        try {
+            ScheduleParser.parseRanges("9-12 24");
+            fail("Hour 24 is not an hour of the day");
+        } catch (ScheduleFormatException e) {
+            assertEquals(1, e.getLine());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+
+import org.junit.Test;
+
+/**
+ * Tests for JSONObject.
+ */
+public class JSONObjectTest {
+
+    @Test
+    public void optDoubleConvertsWhatGetDoubleConverts() {
+        JSONObject object = new JSONObject();
+        String[] values = { "1.5", "-2e3", "NaN", "Infinity", " 1.5", "1.5d" };
+        for (String value : values) {
+            object.put("value", value);
+            assertEquals(value, object.getDouble("value"), object.optDouble("value", 7), 0);
+            assertEquals(value, new JSONArray().put(value).getDouble(0), new JSONArray().put(value).optDouble(0, 7), 0);
+        }
+    }
+
+    @Test
+    public void optDoubleReturnsDefaultForText() {
+        JSONObject object = new JSONObject();
+        object.put("value", "abc");
+        assertEquals(7, object.optDouble("value", 7), 0);
+        assertEquals(7, new JSONArray().put("1.5.5").optDouble(0, 7), 0);
+    }
+
+    private static String syntaxError(JSONTokener tokener) {
+        try {
+            new JSONObject(tokener).getJSONObject("b").getJSONArray("c");
+        } catch (JSONException e) {
+            return e.getMessage();
+        }
+        fail("The text is not valid");
+        return null;
+    }
+
+    @Test
+    public void lazyValuesReportPositionsInTheWholeText() {
+        String text = "{\"a\": 1,\r\n \"b\": {\n  \"c\": [1, 2 : 3]\n }\n}";
+        String expected = syntaxError(new JSONTokener(text));
+
+        JSONTokener fromString = new JSONTokener(text);
+        fromString.setLazy(true);
+        assertEquals(expected, syntaxError(fromString));
+
+        JSONTokener fromReader = new JSONTokener(new StringReader(text));
+        fromReader.setLazy(true);
+        assertEquals(expected, syntaxError(fromReader));
+    }
+}
@@ -0,0 +1,78 @@
+package org.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringWriter;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import com.kthisiscvpv.mcdonlads.data.Day;
+import com.kthisiscvpv.mcdonlads.data.Employee;
+import com.kthisiscvpv.mcdonlads.data.ScheduleParser;
+import com.kthisiscvpv.mcdonlads.data.Worker;
+
+/**
+ * Tests for JSONWriter.
+ */
+public class JSONWriterTest {
+
+    @Test
+    public void writesEmployeesLikeToJSON() {
+        HashMap<Day, boolean[]> availability = new HashMap<Day, boolean[]>();
+        for (Day day : Day.values()) {
+            availability.put(day, ScheduleParser.toAvailability(ScheduleParser.parseRanges("9-17")));
+        }
+        Employee employee = new Worker("Grace", "Hopper", "3 \"Main\" St", 3, 15.5, availability);
+
+        StringWriter text = new StringWriter();
+        JSONWriter writer = new JSONWriter(text);
+        writer.array();
+        employee.write(writer);
+        employee.write(writer); // The key sets of every level are reused by the second employee
+        writer.endArray();
+
+        JSONArray written = new JSONArray(text.toString());
+        assertEquals(2, written.length());
+        assertTrue(written.getJSONObject(0).similar(employee.toJSON()));
+        assertTrue(written.getJSONObject(1).similar(employee.toJSON()));
+    }
+
+    @Test
+    public void rejectsDuplicateKeys() {
+        JSONWriter writer = new JSONWriter(new StringWriter());
+        writer.object().key("a").value(1);
+        try {
+            writer.key("a");
+            fail("The key was written twice");
+        } catch (JSONException e) {
+            assertEquals("Duplicate key \"a\"", e.getMessage());
+        }
+    }
+
+    @Test
+    public void allowsSameKeyInSiblingObjects() {
+        StringWriter text = new StringWriter();
+        JSONWriter writer = new JSONWriter(text);
+        writer.array();
+        for (int i = 0; i < 3; i++) {
+            writer.object().key("a").value(i).key("b").object().key("a").value(i).endObject().endObject();
+        }
+        writer.endArray();
+        assertEquals("[{\"a\":0,\"b\":{\"a\":0}},{\"a\":1,\"b\":{\"a\":1}},{\"a\":2,\"b\":{\"a\":2}}]", text.toString());
+    }
+
+    @Test
+    public void growsKeySetForLargeObjects() {
+        StringWriter text = new StringWriter();
+        JSONWriter writer = new JSONWriter(text);
+        writer.object();
+        for (int i = 0; i < 100; i++) {
+            writer.key("k" + i).value(i);
+        }
+        writer.endObject();
+        assertEquals(100, new JSONObject(text.toString()).length());
+    }
+}